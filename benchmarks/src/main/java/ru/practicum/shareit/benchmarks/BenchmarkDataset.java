@@ -0,0 +1,224 @@
+package ru.practicum.shareit.benchmarks;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/*Набор данных для бенчмарков и нагрузочных сценариев: пользователи, их вещи, запросы, бронирования и комментарии.
+Строки вставляются пакетами в обход JPA, идентификаторы задаются явно.
+Набор полностью определяется профилем: при том же seed владельцы вещей и популярные
+пользователи и вещи совпадают, поэтому нагрузочный сценарий восстанавливает их без чтения базы.
+Популярность убывает с рангом: самые востребованные вещи имеют младшие id,
+а самые активные владельцы и арендаторы - младшие ранги в своих перестановках пользователей*/
+public class BenchmarkDataset {
+
+    private static final int BATCH_SIZE = 1000;
+    private static final String[] WORDS = {"дрель", "отвертка", "пила", "лестница", "палатка", "велосипед",
+            "самокат", "проектор", "гитара", "фотоаппарат", "аккумуляторная", "ударная", "складная", "детская"};
+    private static final String[] TABLES = {"users", "requests", "items", "booking", "comments"};
+    /*Шаг последовательностей id в schema.sql и allocationSize в сущностях сервера*/
+    static final int ID_ALLOCATION_SIZE = 50;
+
+    private final DatasetProfile profile;
+    private final LocalDateTime now;
+    private final ZipfDistribution owners;
+    private final ZipfDistribution items;
+    private final ZipfDistribution bookers;
+    private final long[] ownerByRank;
+    private final long[] bookerByRank;
+    private final long[] itemOwners;
+
+    public BenchmarkDataset(DatasetProfile profile) {
+        this.profile = profile;
+        this.now = LocalDateTime.now().truncatedTo(ChronoUnit.MINUTES);
+        this.owners = new ZipfDistribution(profile.getUsers(), profile.getOwnerSkew());
+        this.items = new ZipfDistribution(profile.getItems(), profile.getItemSkew());
+        this.bookers = new ZipfDistribution(profile.getUsers(), profile.getBookerSkew());
+        SplittableRandom random = new SplittableRandom(profile.getSeed());
+        this.ownerByRank = shuffledUserIds(random);
+        this.bookerByRank = shuffledUserIds(random);
+        this.itemOwners = new long[profile.getItems() + 1];
+        for (int itemId = 1; itemId <= profile.getItems(); itemId++) {
+            itemOwners[itemId] = ownerByRank[owners.sample(random) - 1];
+        }
+    }
+
+    public DatasetProfile getProfile() {
+        return profile;
+    }
+
+    public int getUsers() {
+        return profile.getUsers();
+    }
+
+    public int getItems() {
+        return profile.getItems();
+    }
+
+    public long ownerOfItem(long itemId) {
+        return itemOwners[(int) itemId];
+    }
+
+    public long sampleItem(SplittableRandom random) {
+        return items.sample(random);
+    }
+
+    public long sampleOwner(SplittableRandom random) {
+        return ownerByRank[owners.sample(random) - 1];
+    }
+
+    public long sampleBooker(SplittableRandom random) {
+        return bookerByRank[bookers.sample(random) - 1];
+    }
+
+    public String sampleWord(SplittableRandom random) {
+        return WORDS[random.nextInt(WORDS.length)];
+    }
+
+    /*Удаляет прежние строки, загружает набор и сдвигает последовательности идентификаторов за загруженные id,
+    чтобы новые записи через API не конфликтовали с ними. Hibernate считает значение последовательности
+    верхней границей блока из ID_ALLOCATION_SIZE id, поэтому она начинается на целый блок выше*/
+    public void load(JdbcTemplate jdbcTemplate) {
+        SplittableRandom random = new SplittableRandom(profile.getSeed() + 1);
+        for (int i = TABLES.length - 1; i >= 0; i--) {
+            jdbcTemplate.update("DELETE FROM " + TABLES[i]);
+        }
+
+        List<Object[]> rows = new ArrayList<>();
+        for (long id = 1; id <= profile.getUsers(); id++) {
+            rows.add(new Object[]{id, "User " + id, "user" + id + "@shareit.ru"});
+        }
+        insert(jdbcTemplate, "INSERT INTO users (id, name, email) VALUES (?, ?, ?)", rows);
+
+        rows.clear();
+        for (long id = 1; id <= profile.getRequests(); id++) {
+            rows.add(new Object[]{id, "Нужна " + phrase(random), sampleBooker(random), historyTimestamp(random)});
+        }
+        insert(jdbcTemplate, "INSERT INTO requests (id, description, requestor_id, created) VALUES (?, ?, ?, ?)", rows);
+
+        rows.clear();
+        for (long id = 1; id <= profile.getItems(); id++) {
+            Long requestId = profile.getRequests() > 0 && id % 5 == 0 ? random.nextLong(profile.getRequests()) + 1 : null;
+            rows.add(new Object[]{id, phrase(random), phrase(random) + " " + phrase(random), random.nextInt(10) != 0,
+                    ownerOfItem(id), requestId});
+        }
+        insert(jdbcTemplate, "INSERT INTO items (id, name, description, available, owner, request_id) " +
+                "VALUES (?, ?, ?, ?, ?, ?)", rows);
+
+        long bookings = loadBookings(jdbcTemplate, random);
+
+        rows.clear();
+        for (long id = 1; id <= profile.getComments(); id++) {
+            long itemId = sampleItem(random);
+            rows.add(new Object[]{id, "Отзыв: " + phrase(random), itemId, booker(random, itemId),
+                    historyTimestamp(random)});
+        }
+        insert(jdbcTemplate, "INSERT INTO comments (id, text, item_id, author, created) VALUES (?, ?, ?, ?, ?)", rows);
+
+        /*Сводку бронирований по статусам сервер ведет сам, а здесь бронирования вставлены в обход него*/
+        jdbcTemplate.update("DELETE FROM booking_owner_summary");
+        jdbcTemplate.update("INSERT INTO booking_owner_summary (owner_id, status, bookings) " +
+                "SELECT i.owner, b.status, COUNT(*) FROM booking AS b JOIN items AS i ON i.id = b.item_id " +
+                "GROUP BY i.owner, b.status");
+
+        long[] nextIds = {profile.getUsers(), profile.getRequests(), profile.getItems(), bookings,
+                profile.getComments()};
+        for (int i = 0; i < TABLES.length; i++) {
+            jdbcTemplate.execute("ALTER SEQUENCE " + TABLES[i] + "_seq RESTART WITH " +
+                    (nextIds[i] + ID_ALLOCATION_SIZE));
+        }
+    }
+
+    /*Число бронирований вещи определяется ее популярностью. Бронирования одной вещи равномерно
+    разложены по слотам от начала истории до горизонта будущего и не пересекаются:
+    бронирование занимает не больше половины своего слота. У самых популярных вещей слот
+    не короче двух часов, лишние бронирования отбрасываются*/
+    private long loadBookings(JdbcTemplate jdbcTemplate, SplittableRandom random) {
+        int[] counts = new int[profile.getItems() + 1];
+        for (int i = 0; i < profile.getBookings(); i++) {
+            counts[(int) sampleItem(random)]++;
+        }
+        LocalDateTime begin = now.minusYears(profile.getHistoryYears());
+        long spanMinutes = ChronoUnit.MINUTES.between(begin, now.plusDays(profile.getFutureDays()));
+
+        List<Object[]> rows = new ArrayList<>();
+        long bookingId = 1;
+        for (long itemId = 1; itemId <= profile.getItems(); itemId++) {
+            int count = (int) Math.min(counts[(int) itemId], spanMinutes / 120);
+            if (count == 0) {
+                continue;
+            }
+            long slot = spanMinutes / count;
+            for (int i = 0; i < count; i++) {
+                LocalDateTime start = begin.plusMinutes(i * slot + random.nextLong(slot / 4 + 1));
+                LocalDateTime end = start.plusMinutes(slot / 4 + random.nextLong(slot / 4 + 1));
+                rows.add(new Object[]{bookingId++, Timestamp.valueOf(start), Timestamp.valueOf(end), itemId,
+                        booker(random, itemId), status(random, end.isBefore(now))});
+            }
+            if (rows.size() >= BATCH_SIZE) {
+                insertBookings(jdbcTemplate, rows);
+                rows.clear();
+            }
+        }
+        insertBookings(jdbcTemplate, rows);
+        return bookingId - 1;
+    }
+
+    private long booker(SplittableRandom random, long itemId) {
+        long booker = sampleBooker(random);
+        return booker == ownerOfItem(itemId) ? booker % profile.getUsers() + 1 : booker;
+    }
+
+    private Timestamp historyTimestamp(SplittableRandom random) {
+        long historyMinutes = ChronoUnit.MINUTES.between(now.minusYears(profile.getHistoryYears()), now);
+        return Timestamp.valueOf(now.minusMinutes(random.nextLong(historyMinutes)));
+    }
+
+    private long[] shuffledUserIds(SplittableRandom random) {
+        long[] ids = new long[profile.getUsers()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = i + 1;
+        }
+        for (int i = ids.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            long id = ids[i];
+            ids[i] = ids[j];
+            ids[j] = id;
+        }
+        return ids;
+    }
+
+    private static String status(SplittableRandom random, boolean past) {
+        int value = random.nextInt(10);
+        if (past) {
+            if (value < 8) {
+                return "APPROVED";
+            }
+            return value < 9 ? "REJECTED" : "CANCELED";
+        }
+        if (value < 5) {
+            return "APPROVED";
+        }
+        return value < 9 ? "WAITING" : "REJECTED";
+    }
+
+    private static String phrase(SplittableRandom random) {
+        return WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)];
+    }
+
+    private static void insertBookings(JdbcTemplate jdbcTemplate, List<Object[]> rows) {
+        insert(jdbcTemplate, "INSERT INTO booking (id, start_time, end_time, item_id, booker, status) " +
+                "VALUES (?, ?, ?, ?, ?, ?)", rows);
+    }
+
+    private static void insert(JdbcTemplate jdbcTemplate, String sql, List<Object[]> rows) {
+        for (int from = 0; from < rows.size(); from += BATCH_SIZE) {
+            jdbcTemplate.batchUpdate(sql, rows.subList(from, Math.min(from + BATCH_SIZE, rows.size())));
+        }
+    }
+}
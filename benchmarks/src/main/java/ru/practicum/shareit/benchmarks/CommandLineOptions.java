@@ -0,0 +1,48 @@
+package ru.practicum.shareit.benchmarks;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/*Параметры командной строки вида --name=value, флаг без значения равен true*/
+public class CommandLineOptions {
+
+    private final Map<String, String> values = new HashMap<>();
+
+    public CommandLineOptions(String[] args) {
+        for (String arg : args) {
+            if (!arg.startsWith("--")) {
+                throw new IllegalArgumentException("Неизвестный параметр " + arg + ", ожидается --name=value");
+            }
+            int separator = arg.indexOf('=');
+            if (separator < 0) {
+                values.put(arg.substring(2), "true");
+            } else {
+                values.put(arg.substring(2, separator), arg.substring(separator + 1));
+            }
+        }
+    }
+
+    public boolean has(String name) {
+        return values.containsKey(name);
+    }
+
+    public String get(String name, String defaultValue) {
+        return values.getOrDefault(name, defaultValue);
+    }
+
+    public int getInt(String name, int defaultValue) {
+        return has(name) ? Integer.parseInt(values.get(name)) : defaultValue;
+    }
+
+    public long getLong(String name, long defaultValue) {
+        return has(name) ? Long.parseLong(values.get(name)) : defaultValue;
+    }
+
+    public double getDouble(String name, double defaultValue) {
+        return has(name) ? Double.parseDouble(values.get(name)) : defaultValue;
+    }
+
+    public boolean getBoolean(String name) {
+        return has(name) && Boolean.parseBoolean(values.get(name));
+    }
+}
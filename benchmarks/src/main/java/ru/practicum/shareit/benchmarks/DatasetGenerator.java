@@ -0,0 +1,28 @@
+package ru.practicum.shareit.benchmarks;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.util.concurrent.TimeUnit;
+
+/*Заполняет базу уже запущенного сервера синтетическим набором данных.
+Схему создает сам сервер при старте, поэтому генератор запускается после него*/
+public class DatasetGenerator {
+
+    public static void main(String[] args) {
+        CommandLineOptions options = new CommandLineOptions(args);
+        load(new BenchmarkDataset(DatasetProfile.fromOptions(options)), options);
+    }
+
+    public static void load(BenchmarkDataset dataset, CommandLineOptions options) {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                options.get("jdbc-url", "jdbc:postgresql://localhost:5432/shareit?reWriteBatchedInserts=true"),
+                options.get("jdbc-user", "postgres"),
+                options.get("jdbc-password", "postgres"));
+        System.out.println("Загрузка набора данных: " + dataset.getProfile());
+        long started = System.nanoTime();
+        dataset.load(new JdbcTemplate(dataSource));
+        System.out.println("Набор данных загружен за " +
+                TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - started) + " с");
+    }
+}
@@ -0,0 +1,156 @@
+package ru.practicum.shareit.benchmarks;
+
+/*Размеры и перекосы синтетического набора данных.
+Перекос задается показателем закона Ципфа: 0 - равномерное распределение,
+1 - классический степенной закон, когда первый по популярности объект встречается вдвое чаще второго*/
+public class DatasetProfile {
+
+    private int users = 1000;
+    private int items = 10_000;
+    private int requests = 2000;
+    private int bookings = 100_000;
+    private int comments = 20_000;
+    private double ownerSkew = 1.0;
+    private double itemSkew = 1.0;
+    private double bookerSkew = 0.8;
+    private int historyYears = 3;
+    private int futureDays = 60;
+    private long seed = 42;
+
+    /*Профиль без перекосов: у всех пользователей и вещей примерно поровну данных*/
+    public static DatasetProfile uniform() {
+        return new DatasetProfile()
+                .ownerSkew(0)
+                .itemSkew(0)
+                .bookerSkew(0);
+    }
+
+    public static DatasetProfile fromOptions(CommandLineOptions options) {
+        DatasetProfile defaults = new DatasetProfile();
+        return new DatasetProfile()
+                .users(options.getInt("users", defaults.users))
+                .items(options.getInt("items", defaults.items))
+                .requests(options.getInt("requests", defaults.requests))
+                .bookings(options.getInt("bookings", defaults.bookings))
+                .comments(options.getInt("comments", defaults.comments))
+                .ownerSkew(options.getDouble("owner-skew", defaults.ownerSkew))
+                .itemSkew(options.getDouble("item-skew", defaults.itemSkew))
+                .bookerSkew(options.getDouble("booker-skew", defaults.bookerSkew))
+                .historyYears(options.getInt("history-years", defaults.historyYears))
+                .futureDays(options.getInt("future-days", defaults.futureDays))
+                .seed(options.getLong("seed", defaults.seed));
+    }
+
+    public DatasetProfile users(int users) {
+        if (users < 2) {
+            throw new IllegalArgumentException("Пользователей должно быть не меньше двух");
+        }
+        this.users = users;
+        return this;
+    }
+
+    public DatasetProfile items(int items) {
+        if (items < 1) {
+            throw new IllegalArgumentException("Вещей должно быть не меньше одной");
+        }
+        this.items = items;
+        return this;
+    }
+
+    public DatasetProfile requests(int requests) {
+        this.requests = requests;
+        return this;
+    }
+
+    public DatasetProfile bookings(int bookings) {
+        this.bookings = bookings;
+        return this;
+    }
+
+    public DatasetProfile comments(int comments) {
+        this.comments = comments;
+        return this;
+    }
+
+    public DatasetProfile ownerSkew(double ownerSkew) {
+        this.ownerSkew = ownerSkew;
+        return this;
+    }
+
+    public DatasetProfile itemSkew(double itemSkew) {
+        this.itemSkew = itemSkew;
+        return this;
+    }
+
+    public DatasetProfile bookerSkew(double bookerSkew) {
+        this.bookerSkew = bookerSkew;
+        return this;
+    }
+
+    public DatasetProfile historyYears(int historyYears) {
+        this.historyYears = historyYears;
+        return this;
+    }
+
+    public DatasetProfile futureDays(int futureDays) {
+        this.futureDays = futureDays;
+        return this;
+    }
+
+    public DatasetProfile seed(long seed) {
+        this.seed = seed;
+        return this;
+    }
+
+    public int getUsers() {
+        return users;
+    }
+
+    public int getItems() {
+        return items;
+    }
+
+    public int getRequests() {
+        return requests;
+    }
+
+    public int getBookings() {
+        return bookings;
+    }
+
+    public int getComments() {
+        return comments;
+    }
+
+    public double getOwnerSkew() {
+        return ownerSkew;
+    }
+
+    public double getItemSkew() {
+        return itemSkew;
+    }
+
+    public double getBookerSkew() {
+        return bookerSkew;
+    }
+
+    public int getHistoryYears() {
+        return historyYears;
+    }
+
+    public int getFutureDays() {
+        return futureDays;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    @Override
+    public String toString() {
+        return "пользователей " + users + ", вещей " + items + ", запросов " + requests +
+                ", бронирований " + bookings + ", комментариев " + comments +
+                ", перекос владельцев " + ownerSkew + ", вещей " + itemSkew + ", арендаторов " + bookerSkew +
+                ", история " + historyYears + " г., будущее " + futureDays + " дн., seed " + seed;
+    }
+}
@@ -0,0 +1,124 @@
+package ru.practicum.shareit.benchmarks;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingForItemDto;
+import ru.practicum.shareit.booking.model.Status;
+import ru.practicum.shareit.item.comment.dto.OutCommentDto;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemFullDto;
+import ru.practicum.shareit.user.dto.ShortUserDto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/*ObjectMapper настроен так же, как в приложении: Spring Boot собирает его через Jackson2ObjectMapperBuilder
+и отключает запись дат числами*/
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonBenchmark {
+
+    private ObjectWriter writer;
+    private ObjectWriter smileWriter;
+    private ObjectMapper mapper;
+    private BookingDto bookingDto;
+    private List<BookingDto> bookingPage;
+    private ItemFullDto itemFullDto;
+    private String bookingPageJson;
+
+    @Setup
+    public void setUp() throws JsonProcessingException {
+        mapper = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+        writer = mapper.writer();
+        smileWriter = Jackson2ObjectMapperBuilder.json()
+                .factory(new SmileFactory())
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build()
+                .writer();
+        LocalDateTime now = LocalDateTime.now();
+        bookingPage = IntStream.rangeClosed(1, 20)
+                .mapToObj(id -> BookingDto.builder()
+                        .id(id)
+                        .start(now.plusDays(id))
+                        .end(now.plusDays(id + 1))
+                        .item(ItemDto.builder()
+                                .id(id)
+                                .name("Дрель " + id)
+                                .description("Аккумуляторная дрель с двумя батареями")
+                                .available(true)
+                                .build())
+                        .booker(ShortUserDto.builder().id(2L).name("Booker").build())
+                        .status(Status.APPROVED)
+                        .build())
+                .collect(Collectors.toList());
+        bookingDto = bookingPage.get(0);
+        itemFullDto = ItemFullDto.builder()
+                .id(1L)
+                .name("Дрель")
+                .description("Аккумуляторная дрель с двумя батареями")
+                .available(true)
+                .lastBooking(BookingForItemDto.builder().id(1L).bookerId(2L).build())
+                .nextBooking(BookingForItemDto.builder().id(2L).bookerId(3L).build())
+                .comments(IntStream.rangeClosed(1, 5)
+                        .mapToObj(id -> OutCommentDto.builder()
+                                .id(id)
+                                .text("Отличная дрель")
+                                .authorName("Booker")
+                                .created(now)
+                                .build())
+                        .collect(Collectors.toList()))
+                .build();
+        bookingPageJson = writer.writeValueAsString(bookingPage);
+    }
+
+    @Benchmark
+    public byte[] writeBookingDto() throws JsonProcessingException {
+        return writer.writeValueAsBytes(bookingDto);
+    }
+
+    @Benchmark
+    public byte[] writeBookingPage() throws JsonProcessingException {
+        return writer.writeValueAsBytes(bookingPage);
+    }
+
+    /*Ответ сервера шлюзу во внутреннем формате Smile*/
+    @Benchmark
+    public byte[] writeBookingPageSmile() throws JsonProcessingException {
+        return smileWriter.writeValueAsBytes(bookingPage);
+    }
+
+    @Benchmark
+    public byte[] writeItemFullDto() throws JsonProcessingException {
+        return writer.writeValueAsBytes(itemFullDto);
+    }
+
+    /*Так шлюз разбирал ответ сервера до перехода на передачу байтов как есть*/
+    @Benchmark
+    public Object readBookingPageAsObject() throws JsonProcessingException {
+        return mapper.readValue(bookingPageJson, Object.class);
+    }
+}
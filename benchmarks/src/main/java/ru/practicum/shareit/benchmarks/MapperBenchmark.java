@@ -0,0 +1,124 @@
+package ru.practicum.shareit.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingForItemDto;
+import ru.practicum.shareit.booking.mapper.BookingMapper;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.Status;
+import ru.practicum.shareit.item.comment.dto.OutCommentDto;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemFullDto;
+import ru.practicum.shareit.item.mapper.ItemMapper;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.request.dto.OutLongItemRequestDto;
+import ru.practicum.shareit.request.mapper.ItemRequestMapper;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.user.mapper.UserMapper;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MapperBenchmark {
+
+    private Booking booking;
+    private Item item;
+    private ItemRequest itemRequest;
+    private List<ItemDto> requestItems;
+    private BookingForItemDto lastBooking;
+    private BookingForItemDto nextBooking;
+    private List<OutCommentDto> comments;
+
+    @Setup
+    public void setUp() {
+        LocalDateTime now = LocalDateTime.now();
+        User owner = User.builder().id(1L).name("Owner").email("owner@shareit.ru").build();
+        User booker = User.builder().id(2L).name("Booker").email("booker@shareit.ru").build();
+        itemRequest = ItemRequest.builder()
+                .id(1L)
+                .description("Нужна аккумуляторная дрель")
+                .requestor(booker)
+                .created(now)
+                .build();
+        item = Item.builder()
+                .id(1L)
+                .name("Дрель")
+                .description("Аккумуляторная дрель с двумя батареями")
+                .available(true)
+                .owner(owner)
+                .itemRequest(itemRequest)
+                .build();
+        booking = Booking.builder()
+                .id(1L)
+                .start(now.plusDays(1))
+                .end(now.plusDays(2))
+                .item(item)
+                .booker(booker)
+                .status(Status.APPROVED)
+                .build();
+        requestItems = IntStream.rangeClosed(1, 10)
+                .mapToObj(id -> ItemDto.builder()
+                        .id(id)
+                        .name("Дрель " + id)
+                        .description("Дрель")
+                        .available(true)
+                        .requestId(1L)
+                        .build())
+                .collect(Collectors.toList());
+        lastBooking = BookingMapper.toBookingForItemDto(booking);
+        nextBooking = BookingMapper.toBookingForItemDto(booking);
+        comments = IntStream.rangeClosed(1, 5)
+                .mapToObj(id -> OutCommentDto.builder()
+                        .id(id)
+                        .text("Отличная дрель")
+                        .authorName("Booker")
+                        .created(now)
+                        .build())
+                .collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public BookingDto bookingToDto() {
+        return BookingMapper.toBookingDto(booking, ItemMapper.toItemDto(booking.getItem()),
+                UserMapper.toShortUserDto(booking.getBooker()));
+    }
+
+    @Benchmark
+    public BookingForItemDto bookingToBookingForItemDto() {
+        return BookingMapper.toBookingForItemDto(booking);
+    }
+
+    @Benchmark
+    public ItemDto itemToDto() {
+        return ItemMapper.toItemDto(item);
+    }
+
+    @Benchmark
+    public ItemFullDto itemToFullDto() {
+        return ItemMapper.toItemFullDto(item, lastBooking, nextBooking, comments);
+    }
+
+    @Benchmark
+    public OutLongItemRequestDto itemRequestToLongDto() {
+        return ItemRequestMapper.toOutLongItemRequestDto(itemRequest, requestItems);
+    }
+}
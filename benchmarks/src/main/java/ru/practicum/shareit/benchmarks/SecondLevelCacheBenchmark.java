@@ -0,0 +1,140 @@
+package ru.practicum.shareit.benchmarks;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.ShareItApp;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.IncomingBookingDto;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.item.dto.ItemFullDto;
+import ru.practicum.shareit.item.service.ItemService;
+
+import javax.persistence.EntityManagerFactory;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/*Обращения к базе в addBooking и getItemById с кэшем второго уровня Hibernate и без него.
+Кроме времени вызова выводится число подготовленных Hibernate запросов: statements / calls -
+запросов на вызов. Запросы через JdbcTemplate (проверка пересечений, сводка владельца) не учитываются,
+они одинаковы в обоих вариантах. Вызовы идут к HOT_ITEMS доступным вещам и HOT_USERS арендаторам,
+как к популярной части каталога: при равномерном выборе из всего набора за время замера
+почти каждое чтение было бы первым и кэш не успевал бы заполниться*/
+@org.openjdk.jmh.annotations.State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SecondLevelCacheBenchmark {
+
+    private static final int HOT_ITEMS = 200;
+    private static final int HOT_USERS = 100;
+
+    @Param({"true", "false"})
+    public boolean cacheEnabled;
+
+    private ConfigurableApplicationContext context;
+    private BenchmarkDataset dataset;
+    private BookingService bookingService;
+    private ItemService itemService;
+    private Statistics statistics;
+    private long[] hotItems;
+    private LocalDateTime nextStart;
+
+    @org.openjdk.jmh.annotations.State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Statements {
+
+        public long calls;
+        public long statements;
+
+        private long before;
+
+        void start(Statistics statistics) {
+            before = statistics.getPrepareStatementCount();
+        }
+
+        void stop(Statistics statistics) {
+            calls++;
+            statements += statistics.getPrepareStatementCount() - before;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(ShareItApp.class)
+                .web(WebApplicationType.NONE)
+                .profiles("ci")
+                .run("--shareit.cache.enabled=" + cacheEnabled,
+                        "--spring.jpa.properties.hibernate.generate_statistics=true",
+                        "--logging.level.root=WARN",
+                        "--logging.level.org.springframework.transaction.interceptor=WARN",
+                        "--logging.level.org.springframework.orm.jpa.JpaTransactionManager=WARN");
+        dataset = new BenchmarkDataset(DatasetProfile.uniform());
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        dataset.load(jdbcTemplate);
+        /*Каждая десятая вещь в наборе недоступна для бронирования*/
+        hotItems = jdbcTemplate.queryForList("SELECT id FROM items WHERE available ORDER BY id LIMIT ?",
+                        Long.class, HOT_ITEMS).stream()
+                .mapToLong(Long::longValue)
+                .toArray();
+        bookingService = context.getBean(BookingService.class);
+        itemService = context.getBean(ItemService.class);
+        statistics = context.getBean(EntityManagerFactory.class).unwrap(SessionFactory.class).getStatistics();
+        /*Новые бронирования не пересекаются ни с набором данных, ни друг с другом*/
+        nextStart = LocalDateTime.now().truncatedTo(ChronoUnit.HOURS).plusYears(10);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public BookingDto addBooking(Statements counters) {
+        long itemId = randomItem();
+        long bookerId = ThreadLocalRandom.current().nextLong(HOT_USERS) + 1;
+        if (bookerId == dataset.ownerOfItem(itemId)) {
+            bookerId = bookerId % HOT_USERS + 1;
+        }
+        LocalDateTime start = nextStart;
+        nextStart = nextStart.plusHours(2);
+        counters.start(statistics);
+        BookingDto booking = bookingService.addBooking(bookerId,
+                new IncomingBookingDto(itemId, start, start.plusHours(1)));
+        counters.stop(statistics);
+        return booking;
+    }
+
+    @Benchmark
+    public ItemFullDto itemByOwner(Statements counters) {
+        long itemId = randomItem();
+        counters.start(statistics);
+        ItemFullDto item = itemService.getItemById(dataset.ownerOfItem(itemId), itemId);
+        counters.stop(statistics);
+        return item;
+    }
+
+    private long randomItem() {
+        return hotItems[ThreadLocalRandom.current().nextInt(hotItems.length)];
+    }
+}
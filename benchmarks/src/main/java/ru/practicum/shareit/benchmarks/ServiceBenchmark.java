@@ -0,0 +1,119 @@
+package ru.practicum.shareit.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.ShareItApp;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.model.State;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemFullDto;
+import ru.practicum.shareit.item.search.InMemoryItemSearchEngine;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.request.dto.OutLongItemRequestDto;
+import ru.practicum.shareit.request.service.ItemRequestService;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/*Сервисы поверх встроенной H2 с профилем ci: 1000 пользователей, 10 000 вещей,
+100 000 бронирований, 20 000 комментариев и 2000 запросов, распределенных равномерно*/
+@org.openjdk.jmh.annotations.State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ServiceBenchmark {
+
+    @Param({"true", "false"})
+    public boolean cacheEnabled;
+
+    private ConfigurableApplicationContext context;
+    private BenchmarkDataset dataset;
+    private BookingService bookingService;
+    private ItemService itemService;
+    private ItemRequestService itemRequestService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(ShareItApp.class)
+                .web(WebApplicationType.NONE)
+                .profiles("ci")
+                /*Аргументы командной строки, а не properties(): те имеют низший приоритет
+                и перекрываются application.properties*/
+                .run("--shareit.cache.enabled=" + cacheEnabled,
+                        "--shareit.search.engine=memory",
+                        "--logging.level.root=WARN",
+                        "--logging.level.org.springframework.transaction.interceptor=WARN",
+                        "--logging.level.org.springframework.orm.jpa.JpaTransactionManager=WARN");
+        dataset = new BenchmarkDataset(DatasetProfile.uniform());
+        dataset.load(context.getBean(JdbcTemplate.class));
+        bookingService = context.getBean(BookingService.class);
+        itemService = context.getBean(ItemService.class);
+        itemRequestService = context.getBean(ItemRequestService.class);
+        /*Индекс поиска строится при старте, когда данных еще нет*/
+        context.getBean(InMemoryItemSearchEngine.class).rebuild();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<BookingDto> bookerBookingsPage() {
+        return bookingService.getBookingByBooker(randomUser(), State.ALL, 0, 20);
+    }
+
+    @Benchmark
+    public List<BookingDto> ownerBookingsPage() {
+        return bookingService.getBookingByOwner(randomUser(), State.ALL, 0, 20);
+    }
+
+    @Benchmark
+    public List<BookingDto> ownerPastBookings() {
+        return bookingService.getBookingByOwner(randomUser(), State.PAST, null, null);
+    }
+
+    @Benchmark
+    public Collection<ItemFullDto> userItems() {
+        return itemService.getUserItems(randomUser());
+    }
+
+    @Benchmark
+    public ItemFullDto itemByOwner() {
+        long itemId = ThreadLocalRandom.current().nextLong(dataset.getItems()) + 1;
+        return itemService.getItemById(dataset.ownerOfItem(itemId), itemId);
+    }
+
+    @Benchmark
+    public List<ItemDto> searchItems() {
+        return itemService.findItemsByText("аккумуляторная дрель", 0, 20);
+    }
+
+    @Benchmark
+    public List<OutLongItemRequestDto> otherUsersRequests() {
+        return itemRequestService.getAllOtherItemRequest(randomUser(), 0, 20);
+    }
+
+    private long randomUser() {
+        return ThreadLocalRandom.current().nextLong(dataset.getUsers()) + 1;
+    }
+}
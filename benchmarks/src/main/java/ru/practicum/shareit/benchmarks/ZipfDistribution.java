@@ -0,0 +1,29 @@
+package ru.practicum.shareit.benchmarks;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/*Распределение Ципфа на рангах 1..n: вероятность ранга k пропорциональна 1 / k^skew.
+Выборка - двоичный поиск по накопленным вероятностям*/
+public class ZipfDistribution {
+
+    private final double[] cumulative;
+
+    public ZipfDistribution(int size, double skew) {
+        cumulative = new double[size];
+        double sum = 0;
+        for (int rank = 1; rank <= size; rank++) {
+            sum += skew == 0 ? 1 : 1 / Math.pow(rank, skew);
+            cumulative[rank - 1] = sum;
+        }
+        for (int i = 0; i < size; i++) {
+            cumulative[i] /= sum;
+        }
+    }
+
+    public int sample(SplittableRandom random) {
+        int index = Arrays.binarySearch(cumulative, random.nextDouble());
+        int rank = index >= 0 ? index + 1 : -index;
+        return Math.min(rank, cumulative.length);
+    }
+}
@@ -0,0 +1,82 @@
+package ru.practicum.shareit.benchmarks.load;
+
+import java.util.Arrays;
+
+/*Задержки и коды ответов одной операции сценария. Задержки хранятся целиком в микросекундах,
+перцентили считаются по отсортированному массиву в конце прогона*/
+class EndpointStats {
+
+    private long[] latencies = new long[1024];
+    private int count;
+    private long successful;
+    private long clientErrors;
+    private long serverErrors;
+
+    synchronized void record(long latencyMicros, int status) {
+        if (count == latencies.length) {
+            latencies = Arrays.copyOf(latencies, count * 2);
+        }
+        latencies[count++] = latencyMicros;
+        if (status >= 200 && status < 300) {
+            successful++;
+        } else if (status >= 400 && status < 500) {
+            clientErrors++;
+        } else {
+            serverErrors++;
+        }
+    }
+
+    synchronized Snapshot snapshot() {
+        long[] sorted = Arrays.copyOf(latencies, count);
+        Arrays.sort(sorted);
+        return new Snapshot(sorted, successful, clientErrors, serverErrors);
+    }
+
+    static class Snapshot {
+
+        private final long[] sorted;
+        private final long successful;
+        private final long clientErrors;
+        private final long serverErrors;
+
+        Snapshot(long[] sorted, long successful, long clientErrors, long serverErrors) {
+            this.sorted = sorted;
+            this.successful = successful;
+            this.clientErrors = clientErrors;
+            this.serverErrors = serverErrors;
+        }
+
+        long getCount() {
+            return sorted.length;
+        }
+
+        long getSuccessful() {
+            return successful;
+        }
+
+        long getClientErrors() {
+            return clientErrors;
+        }
+
+        long getServerErrors() {
+            return serverErrors;
+        }
+
+        /*Перцентиль в миллисекундах по методу ближайшего ранга*/
+        double percentileMillis(double percentile) {
+            if (sorted.length == 0) {
+                return 0;
+            }
+            int rank = (int) Math.ceil(percentile / 100 * sorted.length);
+            return sorted[Math.max(rank, 1) - 1] / 1000.0;
+        }
+
+        Snapshot merge(Snapshot other) {
+            long[] merged = Arrays.copyOf(sorted, sorted.length + other.sorted.length);
+            System.arraycopy(other.sorted, 0, merged, sorted.length, other.sorted.length);
+            Arrays.sort(merged);
+            return new Snapshot(merged, successful + other.successful, clientErrors + other.clientErrors,
+                    serverErrors + other.serverErrors);
+        }
+    }
+}
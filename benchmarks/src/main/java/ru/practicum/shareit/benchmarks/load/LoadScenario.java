@@ -0,0 +1,274 @@
+package ru.practicum.shareit.benchmarks.load;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.ShareItApp;
+import ru.practicum.shareit.benchmarks.BenchmarkDataset;
+import ru.practicum.shareit.benchmarks.CommandLineOptions;
+import ru.practicum.shareit.benchmarks.DatasetGenerator;
+import ru.practicum.shareit.benchmarks.DatasetProfile;
+import ru.practicum.shareit.item.search.InMemoryItemSearchEngine;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Queue;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/*Нагрузочный сценарий: смесь вызовов шлюза по закрытой модели, когда каждый поток
+отправляет следующий запрос сразу после ответа на предыдущий.
+Результаты разогрева отбрасываются, по итогам печатаются пропускная способность
+и перцентили задержки для каждого вызова.
+Данные либо загружаются перед прогоном (--jdbc-url для внешней базы или --embedded-server,
+чтобы поднять сервер с H2 в этом же процессе), либо уже загружены генератором с тем же профилем*/
+public class LoadScenario {
+
+    private static final int MAX_BOOKINGS_TO_APPROVE = 10_000;
+
+    private final URI gateway;
+    private final BenchmarkDataset dataset;
+    private final HttpClient httpClient;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Queue<long[]> bookingsToApprove = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger bookingsToApproveSize = new AtomicInteger();
+    private final Map<Operation, EndpointStats> stats = new EnumMap<>(Operation.class);
+    private final int[] cumulativeWeights;
+
+    public LoadScenario(URI gateway, BenchmarkDataset dataset) {
+        this.gateway = gateway;
+        this.dataset = dataset;
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        Operation[] operations = Operation.values();
+        cumulativeWeights = new int[operations.length];
+        int sum = 0;
+        for (Operation operation : operations) {
+            sum += operation.getWeight();
+            cumulativeWeights[operation.ordinal()] = sum;
+            stats.put(operation, new EndpointStats());
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions options = new CommandLineOptions(args);
+        BenchmarkDataset dataset = new BenchmarkDataset(DatasetProfile.fromOptions(options));
+        ConfigurableApplicationContext server = null;
+        if (options.getBoolean("embedded-server")) {
+            server = startServer(options, dataset);
+        } else if (options.has("jdbc-url")) {
+            DatasetGenerator.load(dataset, options);
+        }
+        try {
+            LoadScenario scenario = new LoadScenario(URI.create(options.get("gateway", "http://localhost:8080")),
+                    dataset);
+            int duration = options.getInt("duration", 60);
+            scenario.run(options.getInt("threads", 32), options.getInt("warmup", 10), duration);
+            scenario.printReport(System.out, duration);
+            if (options.has("report")) {
+                scenario.writeCsv(Path.of(options.get("report", null)), duration);
+            }
+        } finally {
+            if (server != null) {
+                server.close();
+            }
+        }
+    }
+
+    /*Сервер с профилем ci в этом же процессе. Шлюз запускается отдельно и должен смотреть на его порт*/
+    private static ConfigurableApplicationContext startServer(CommandLineOptions options, BenchmarkDataset dataset) {
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(ShareItApp.class)
+                .profiles("ci")
+                .run("--server.port=" + options.getInt("server-port", 9090),
+                        "--logging.level.root=WARN",
+                        "--logging.level.org.springframework.transaction.interceptor=WARN",
+                        "--logging.level.org.springframework.orm.jpa.JpaTransactionManager=WARN");
+        System.out.println("Загрузка набора данных: " + dataset.getProfile());
+        dataset.load(context.getBean(JdbcTemplate.class));
+        /*Индекс поиска строится при старте, когда данных еще нет*/
+        context.getBeanProvider(InMemoryItemSearchEngine.class).ifAvailable(InMemoryItemSearchEngine::rebuild);
+        return context;
+    }
+
+    public void run(int threads, int warmupSeconds, int durationSeconds) throws Exception {
+        long measureFrom = System.nanoTime() + TimeUnit.SECONDS.toNanos(warmupSeconds);
+        long measureTo = measureFrom + TimeUnit.SECONDS.toNanos(durationSeconds);
+        System.out.printf("Сценарий: %d потоков, разогрев %d с, замер %d с, шлюз %s%n",
+                threads, warmupSeconds, durationSeconds, gateway);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> workers = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                SplittableRandom random = new SplittableRandom(dataset.getProfile().getSeed() * 31 + i);
+                workers.add(executor.submit(() -> work(random, measureFrom, measureTo)));
+            }
+            for (Future<?> worker : workers) {
+                worker.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private void work(SplittableRandom random, long measureFrom, long measureTo) {
+        long now = System.nanoTime();
+        while (now < measureTo) {
+            Operation operation = nextOperation(random);
+            HttpRequest request = operation.prepare(this, random);
+            if (request == null) {
+                continue;
+            }
+            int status;
+            HttpResponse<String> response = null;
+            try {
+                response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+                status = response.statusCode();
+            } catch (IOException e) {
+                status = -1;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            long finished = System.nanoTime();
+            if (now >= measureFrom && finished <= measureTo) {
+                stats.get(operation).record(TimeUnit.NANOSECONDS.toMicros(finished - now), status);
+            }
+            if (response != null && status >= 200 && status < 300) {
+                operation.onSuccess(this, response);
+            }
+            now = finished;
+        }
+    }
+
+    private Operation nextOperation(SplittableRandom random) {
+        int value = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        for (Operation operation : Operation.values()) {
+            if (value < cumulativeWeights[operation.ordinal()]) {
+                return operation;
+            }
+        }
+        throw new IllegalStateException("Вес операции вне диапазона: " + value);
+    }
+
+    BenchmarkDataset getDataset() {
+        return dataset;
+    }
+
+    HttpRequest get(String path, long userId) {
+        return request(path, userId).GET().build();
+    }
+
+    HttpRequest post(String path, Long userId, Map<String, Object> body) {
+        try {
+            return request(path, userId)
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(body),
+                            StandardCharsets.UTF_8))
+                    .build();
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Не удалось сериализовать тело запроса", e);
+        }
+    }
+
+    HttpRequest patch(String path, long userId) {
+        return request(path, userId).method("PATCH", HttpRequest.BodyPublishers.noBody()).build();
+    }
+
+    private HttpRequest.Builder request(String path, Long userId) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(gateway.resolve(path))
+                .timeout(Duration.ofSeconds(30));
+        if (userId != null) {
+            builder.header("X-Sharer-User-Id", String.valueOf(userId));
+        }
+        return builder;
+    }
+
+    void bookingCreated(String body) {
+        if (bookingsToApproveSize.get() >= MAX_BOOKINGS_TO_APPROVE) {
+            return;
+        }
+        try {
+            JsonNode booking = objectMapper.readTree(body);
+            long itemId = booking.path("item").path("id").asLong();
+            bookingsToApprove.add(new long[]{booking.path("id").asLong(), dataset.ownerOfItem(itemId)});
+            bookingsToApproveSize.incrementAndGet();
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Некорректный ответ на создание бронирования: " + body, e);
+        }
+    }
+
+    long[] nextBookingToApprove() {
+        long[] booking = bookingsToApprove.poll();
+        if (booking != null) {
+            bookingsToApproveSize.decrementAndGet();
+        }
+        return booking;
+    }
+
+    public void printReport(PrintStream out, int durationSeconds) {
+        String format = "%-22s %9s %9s %8s %8s %8s %9s %9s %9s %9s %9s%n";
+        out.printf(format, "Вызов", "Запросов", "RPS", "2xx", "4xx", "Ошибок",
+                "p50, мс", "p90, мс", "p99, мс", "p99.9, мс", "max, мс");
+        EndpointStats.Snapshot total = null;
+        for (Operation operation : Operation.values()) {
+            EndpointStats.Snapshot snapshot = stats.get(operation).snapshot();
+            printRow(out, format, operation.getEndpoint(), snapshot, durationSeconds);
+            total = total == null ? snapshot : total.merge(snapshot);
+        }
+        printRow(out, format, "Всего", total, durationSeconds);
+    }
+
+    private static void printRow(PrintStream out, String format, String name, EndpointStats.Snapshot snapshot,
+                                 int durationSeconds) {
+        out.printf(format, name, snapshot.getCount(),
+                String.format(Locale.ROOT, "%.1f", (double) snapshot.getCount() / durationSeconds),
+                snapshot.getSuccessful(), snapshot.getClientErrors(), snapshot.getServerErrors(),
+                millis(snapshot.percentileMillis(50)), millis(snapshot.percentileMillis(90)),
+                millis(snapshot.percentileMillis(99)), millis(snapshot.percentileMillis(99.9)),
+                millis(snapshot.percentileMillis(100)));
+    }
+
+    public void writeCsv(Path path, int durationSeconds) throws IOException {
+        List<String> lines = new ArrayList<>();
+        lines.add("endpoint,requests,rps,ok,client_errors,errors,p50_ms,p90_ms,p99_ms,p999_ms,max_ms");
+        for (Operation operation : Operation.values()) {
+            EndpointStats.Snapshot snapshot = stats.get(operation).snapshot();
+            lines.add(String.join(",", operation.getEndpoint(), String.valueOf(snapshot.getCount()),
+                    String.format(Locale.ROOT, "%.1f", (double) snapshot.getCount() / durationSeconds),
+                    String.valueOf(snapshot.getSuccessful()), String.valueOf(snapshot.getClientErrors()),
+                    String.valueOf(snapshot.getServerErrors()),
+                    millis(snapshot.percentileMillis(50)), millis(snapshot.percentileMillis(90)),
+                    millis(snapshot.percentileMillis(99)), millis(snapshot.percentileMillis(99.9)),
+                    millis(snapshot.percentileMillis(100))));
+        }
+        Files.write(path, lines, StandardCharsets.UTF_8);
+        System.out.println("Отчет записан в " + path.toAbsolutePath());
+    }
+
+    private static String millis(double value) {
+        return String.format(Locale.ROOT, "%.2f", value);
+    }
+}
@@ -0,0 +1,175 @@
+package ru.practicum.shareit.benchmarks.load;
+
+import ru.practicum.shareit.benchmarks.BenchmarkDataset;
+
+import java.net.URLEncoder;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.UUID;
+
+/*Вызовы шлюза, из которых состоит сценарий, и их доли в общем потоке запросов.
+Пользователи и вещи выбираются с тем же перекосом, что и в наборе данных,
+поэтому популярные вещи и активные пользователи получают основную часть запросов*/
+enum Operation {
+
+    GET_ITEM("GET /items/{id}", 20) {
+        @Override
+        HttpRequest prepare(LoadScenario scenario, SplittableRandom random) {
+            return scenario.get("/items/" + scenario.getDataset().sampleItem(random),
+                    scenario.getDataset().sampleBooker(random));
+        }
+    },
+    SEARCH_ITEMS("GET /items/search", 12) {
+        @Override
+        HttpRequest prepare(LoadScenario scenario, SplittableRandom random) {
+            BenchmarkDataset dataset = scenario.getDataset();
+            String text = URLEncoder.encode(dataset.sampleWord(random), StandardCharsets.UTF_8);
+            return scenario.get("/items/search?text=" + text + "&from=0&size=20", dataset.sampleBooker(random));
+        }
+    },
+    BOOKER_BOOKINGS("GET /bookings", 14) {
+        @Override
+        HttpRequest prepare(LoadScenario scenario, SplittableRandom random) {
+            return scenario.get("/bookings?state=" + state(random) + "&from=0&size=20",
+                    scenario.getDataset().sampleBooker(random));
+        }
+    },
+    OWNER_BOOKINGS("GET /bookings/owner", 10) {
+        @Override
+        HttpRequest prepare(LoadScenario scenario, SplittableRandom random) {
+            return scenario.get("/bookings/owner?state=" + state(random) + "&from=0&size=20",
+                    scenario.getDataset().sampleOwner(random));
+        }
+    },
+    OWNER_BOOKING_COUNTS("GET /bookings/owner/counts", 4) {
+        @Override
+        HttpRequest prepare(LoadScenario scenario, SplittableRandom random) {
+            return scenario.get("/bookings/owner/counts", scenario.getDataset().sampleOwner(random));
+        }
+    },
+    OWNER_ITEMS("GET /items", 8) {
+        @Override
+        HttpRequest prepare(LoadScenario scenario, SplittableRandom random) {
+            return scenario.get("/items", scenario.getDataset().sampleOwner(random));
+        }
+    },
+    GET_USER("GET /users/{id}", 6) {
+        @Override
+        HttpRequest prepare(LoadScenario scenario, SplittableRandom random) {
+            long userId = scenario.getDataset().sampleBooker(random);
+            return scenario.get("/users/" + userId, userId);
+        }
+    },
+    OTHER_REQUESTS("GET /requests/all", 5) {
+        @Override
+        HttpRequest prepare(LoadScenario scenario, SplittableRandom random) {
+            return scenario.get("/requests/all?from=0&size=20", scenario.getDataset().sampleBooker(random));
+        }
+    },
+    SEARCH("GET /search", 4) {
+        @Override
+        HttpRequest prepare(LoadScenario scenario, SplittableRandom random) {
+            BenchmarkDataset dataset = scenario.getDataset();
+            String text = URLEncoder.encode(dataset.sampleWord(random), StandardCharsets.UTF_8);
+            return scenario.get("/search?text=" + text + "&from=0&size=20", dataset.sampleOwner(random));
+        }
+    },
+    OWN_REQUESTS("GET /requests", 4) {
+        @Override
+        HttpRequest prepare(LoadScenario scenario, SplittableRandom random) {
+            return scenario.get("/requests", scenario.getDataset().sampleBooker(random));
+        }
+    },
+    ADD_BOOKING("POST /bookings", 10) {
+        @Override
+        HttpRequest prepare(LoadScenario scenario, SplittableRandom random) {
+            BenchmarkDataset dataset = scenario.getDataset();
+            long itemId = dataset.sampleItem(random);
+            long bookerId = dataset.sampleBooker(random);
+            if (bookerId == dataset.ownerOfItem(itemId)) {
+                bookerId = bookerId % dataset.getUsers() + 1;
+            }
+            LocalDateTime start = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS)
+                    .plusDays(1)
+                    .plusHours(random.nextInt(24 * (dataset.getProfile().getFutureDays() + 1)));
+            return scenario.post("/bookings", bookerId, Map.of(
+                    "itemId", itemId,
+                    "start", start.toString(),
+                    "end", start.plusHours(1 + random.nextInt(72)).toString()));
+        }
+
+        /*Созданные бронирования затем подтверждает владелец вещи*/
+        @Override
+        void onSuccess(LoadScenario scenario, HttpResponse<String> response) {
+            scenario.bookingCreated(response.body());
+        }
+    },
+    APPROVE_BOOKING("PATCH /bookings/{id}", 5) {
+        @Override
+        HttpRequest prepare(LoadScenario scenario, SplittableRandom random) {
+            long[] booking = scenario.nextBookingToApprove();
+            if (booking == null) {
+                return null;
+            }
+            return scenario.patch("/bookings/" + booking[0] + "?approved=" + (random.nextInt(5) != 0), booking[1]);
+        }
+    },
+    ADD_ITEM("POST /items", 3) {
+        @Override
+        HttpRequest prepare(LoadScenario scenario, SplittableRandom random) {
+            BenchmarkDataset dataset = scenario.getDataset();
+            return scenario.post("/items", dataset.sampleOwner(random), Map.of(
+                    "name", dataset.sampleWord(random),
+                    "description", dataset.sampleWord(random) + " " + dataset.sampleWord(random),
+                    "available", true));
+        }
+    },
+    ADD_REQUEST("POST /requests", 2) {
+        @Override
+        HttpRequest prepare(LoadScenario scenario, SplittableRandom random) {
+            BenchmarkDataset dataset = scenario.getDataset();
+            return scenario.post("/requests", dataset.sampleBooker(random),
+                    Map.of("description", "Нужна " + dataset.sampleWord(random)));
+        }
+    },
+    ADD_USER("POST /users", 1) {
+        @Override
+        HttpRequest prepare(LoadScenario scenario, SplittableRandom random) {
+            String login = "load-" + UUID.randomUUID();
+            return scenario.post("/users", null, Map.of("name", login, "email", login + "@shareit.ru"));
+        }
+    };
+
+    private static final String[] STATES = {"ALL", "ALL", "ALL", "PAST", "FUTURE", "CURRENT", "WAITING", "REJECTED"};
+
+    private final String endpoint;
+    private final int weight;
+
+    Operation(String endpoint, int weight) {
+        this.endpoint = endpoint;
+        this.weight = weight;
+    }
+
+    String getEndpoint() {
+        return endpoint;
+    }
+
+    int getWeight() {
+        return weight;
+    }
+
+    /*Возвращает null, если операцию сейчас выполнить нельзя, и тогда выбирается другая*/
+    abstract HttpRequest prepare(LoadScenario scenario, SplittableRandom random);
+
+    void onSuccess(LoadScenario scenario, HttpResponse<String> response) {
+    }
+
+    private static String state(SplittableRandom random) {
+        return STATES[random.nextInt(STATES.length)];
+    }
+}
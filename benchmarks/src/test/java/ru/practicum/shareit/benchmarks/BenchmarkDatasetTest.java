@@ -0,0 +1,93 @@
+package ru.practicum.shareit.benchmarks;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import java.util.SplittableRandom;
+
+public class BenchmarkDatasetTest {
+
+    JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:dataset;DB_CLOSE_DELAY=-1", "test", "test");
+        new ResourceDatabasePopulator(new ClassPathResource("schema.sql")).execute(dataSource);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    @Test
+    void loadedDatasetMatchesProfile() {
+        DatasetProfile profile = new DatasetProfile()
+                .users(100)
+                .items(500)
+                .requests(50)
+                .bookings(5000)
+                .comments(300);
+        new BenchmarkDataset(profile).load(jdbcTemplate);
+
+        Assertions.assertEquals(100, count("SELECT COUNT(*) FROM users"));
+        Assertions.assertEquals(500, count("SELECT COUNT(*) FROM items"));
+        Assertions.assertEquals(50, count("SELECT COUNT(*) FROM requests"));
+        Assertions.assertEquals(5000, count("SELECT COUNT(*) FROM booking"));
+        Assertions.assertEquals(300, count("SELECT COUNT(*) FROM comments"));
+        Assertions.assertEquals(5000, count("SELECT SUM(bookings) FROM booking_owner_summary"));
+        Assertions.assertEquals(0, count("SELECT COUNT(*) FROM booking b JOIN items i ON i.id = b.item_id " +
+                "WHERE b.booker = i.owner"));
+        Assertions.assertEquals(0, count("SELECT COUNT(*) FROM booking a JOIN booking b " +
+                "ON a.item_id = b.item_id AND a.id < b.id " +
+                "AND a.start_time < b.end_time AND b.start_time < a.end_time"));
+    }
+
+    @Test
+    void skewedDatasetConcentratesBookingsOnHotItems() {
+        DatasetProfile profile = new DatasetProfile()
+                .users(100)
+                .items(1000)
+                .requests(0)
+                .bookings(10_000)
+                .comments(0)
+                .itemSkew(1.0);
+        new BenchmarkDataset(profile).load(jdbcTemplate);
+        long hot = count("SELECT COUNT(*) FROM booking WHERE item_id <= 10");
+
+        new BenchmarkDataset(profile.itemSkew(0)).load(jdbcTemplate);
+        long uniform = count("SELECT COUNT(*) FROM booking WHERE item_id <= 10");
+
+        Assertions.assertTrue(hot > 2000, "На 1% самых популярных вещей приходится " + hot + " бронирований");
+        Assertions.assertTrue(uniform < 200, "Без перекоса на 1% вещей приходится " + uniform + " бронирований");
+    }
+
+    @Test
+    void sameSeedGivesSameOwnersAndApiIdsContinueAfterDataset() {
+        DatasetProfile profile = new DatasetProfile()
+                .users(50)
+                .items(200)
+                .requests(10)
+                .bookings(100)
+                .comments(10);
+        BenchmarkDataset dataset = new BenchmarkDataset(profile);
+        BenchmarkDataset replica = new BenchmarkDataset(profile);
+        SplittableRandom random = new SplittableRandom(1);
+        for (int i = 0; i < 100; i++) {
+            long itemId = dataset.sampleItem(random);
+            Assertions.assertEquals(dataset.ownerOfItem(itemId), replica.ownerOfItem(itemId));
+        }
+
+        dataset.load(jdbcTemplate);
+        jdbcTemplate.update("INSERT INTO users (name, email) VALUES ('New', 'new@shareit.ru')");
+        Assertions.assertEquals(50 + BenchmarkDataset.ID_ALLOCATION_SIZE,
+                count("SELECT id FROM users WHERE email = 'new@shareit.ru'"));
+        Assertions.assertEquals(dataset.ownerOfItem(7), count("SELECT owner FROM items WHERE id = 7"));
+    }
+
+    private long count(String sql) {
+        return jdbcTemplate.queryForObject(sql, Long.class);
+    }
+}
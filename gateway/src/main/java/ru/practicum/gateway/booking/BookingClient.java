@@ -1,14 +1,18 @@
 package ru.practicum.gateway.booking;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
-import org.springframework.web.util.DefaultUriBuilderFactory;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
 import ru.practicum.gateway.client.BaseClient;
+import ru.practicum.gateway.client.UpstreamGuards;
 
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 @Service
@@ -17,31 +21,32 @@ public class BookingClient extends BaseClient {
     private static final String API_PREFIX = "/bookings";
 
     @Autowired
-    public BookingClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
-        super(
-                builder
-                        .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(HttpComponentsClientHttpRequestFactory::new)
-                        .build()
-        );
+    public BookingClient(@Value("${shareit-server.url}") String serverUrl, WebClient.Builder builder,
+                         MeterRegistry meterRegistry, UpstreamGuards upstreamGuards) {
+        super(builder.baseUrl(serverUrl + API_PREFIX).build(), API_PREFIX, meterRegistry, null,
+                upstreamGuards.forClient("bookings"));
     }
 
-    public ResponseEntity<Object> addBooking(long userId, IncomingBookingDto bookingDto) {
+    public Mono<ResponseEntity<Object>> addBooking(long userId, IncomingBookingDto bookingDto) {
         return post("", userId, bookingDto);
     }
 
-    public ResponseEntity<Object> changeApproveStatus(Long userId, Long bookingId, Boolean approved) {
+    public Mono<ResponseEntity<Object>> changeApproveStatus(Long userId, Long bookingId, Boolean approved) {
         Map<String, Object> parameters = Map.of(
                 "approved", approved
         );
         return patch("/" + bookingId + "?approved={approved}", userId, parameters, null);
     }
 
-    public ResponseEntity<Object> getBookingById(long userId, Long bookingId) {
+    public Mono<ResponseEntity<Object>> changeApproveStatuses(long userId, List<BookingDecisionDto> decisions) {
+        return patch("", userId, decisions);
+    }
+
+    public Mono<ResponseEntity<Object>> getBookingById(long userId, Long bookingId) {
         return get("/" + bookingId, userId);
     }
 
-    public ResponseEntity<Object> getBookingsByBooker(Long userId, State state, Integer from, Integer size) {
+    public Mono<ResponseEntity<Object>> getBookingsByBooker(Long userId, State state, Integer from, Integer size) {
         Map<String, Object> parameters = getParameters(state, from, size);
         if (parameters.containsKey("from") && parameters.containsKey("size")) {
             return get("?state={state}&from={from}&size={size}", userId, parameters);
@@ -51,7 +56,7 @@ public class BookingClient extends BaseClient {
         }
     }
 
-    public ResponseEntity<Object> getBookingsForOwner(long userId, State state, Integer from, Integer size) {
+    public Mono<ResponseEntity<Object>> getBookingsForOwner(long userId, State state, Integer from, Integer size) {
         Map<String, Object> parameters = getParameters(state, from, size);
         if (parameters.containsKey("from") && parameters.containsKey("size")) {
             return get("/owner?state={state}&from={from}&size={size}", userId, parameters);
@@ -61,6 +66,22 @@ public class BookingClient extends BaseClient {
         }
     }
 
+    public Mono<ResponseEntity<Object>> getBookingsByBookerAfter(long userId, State state, LocalDateTime cursorStart,
+                                                           long cursorId, Integer size) {
+        return get("?state={state}&cursorStart={cursorStart}&cursorId={cursorId}&size={size}", userId,
+                getCursorParameters(state, cursorStart, cursorId, size));
+    }
+
+    public Mono<ResponseEntity<Object>> getBookingCountsForOwner(long userId) {
+        return get("/owner/counts", userId);
+    }
+
+    public Mono<ResponseEntity<Object>> getBookingsForOwnerAfter(long userId, State state, LocalDateTime cursorStart,
+                                                           long cursorId, Integer size) {
+        return get("/owner?state={state}&cursorStart={cursorStart}&cursorId={cursorId}&size={size}", userId,
+                getCursorParameters(state, cursorStart, cursorId, size));
+    }
+
     private Map<String, Object> getParameters(State state, Integer from, Integer size) {
         Map<String, Object> parameters;
         if (from == null || size == null) {
@@ -76,4 +97,14 @@ public class BookingClient extends BaseClient {
         }
         return parameters;
     }
+
+    private Map<String, Object> getCursorParameters(State state, LocalDateTime cursorStart, long cursorId,
+                                                    Integer size) {
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("state", state.name());
+        parameters.put("cursorStart", cursorStart);
+        parameters.put("cursorId", cursorId);
+        parameters.put("size", size);
+        return parameters;
+    }
 }
@@ -2,19 +2,26 @@ package ru.practicum.gateway.booking;
 
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
 import ru.practicum.gateway.exceptions.ServerErrorException;
+import ru.practicum.gateway.exceptions.ValidationException;
 
 import javax.validation.Valid;
 import javax.validation.constraints.Positive;
 import javax.validation.constraints.PositiveOrZero;
+import java.time.LocalDateTime;
+import java.util.List;
 
 @Slf4j
 @RestController
 @RequestMapping(path = "/bookings")
 public class BookingController {
 
+    private static final int MAX_DECISIONS = 500;
+
     private final BookingClient bookingClient;
 
     @Autowired
@@ -23,46 +30,91 @@ public class BookingController {
     }
 
     @PostMapping
-    public ResponseEntity<Object> addBooking(@RequestHeader("X-Sharer-User-Id") long bookerId,
-                                             @Valid @RequestBody IncomingBookingDto incomingBookingDto) {
+    public Mono<ResponseEntity<Object>> addBooking(@RequestHeader("X-Sharer-User-Id") long bookerId,
+                                                   @Valid @RequestBody IncomingBookingDto incomingBookingDto) {
         log.info("Добавление запроса на аренду предмета");
         return bookingClient.addBooking(bookerId, incomingBookingDto);
     }
 
     @PatchMapping("/{bookingId}")
-    public ResponseEntity<Object> approveBooking(@RequestHeader("X-Sharer-User-Id") long ownerId,
-                                                 @PathVariable long bookingId,
-                                                 @RequestParam Boolean approved) {
+    public Mono<ResponseEntity<Object>> approveBooking(@RequestHeader("X-Sharer-User-Id") long ownerId,
+                                                       @PathVariable long bookingId,
+                                                       @RequestParam Boolean approved) {
         log.info("Изменения статуса запроса хозяином предмета");
         return bookingClient.changeApproveStatus(ownerId, bookingId, approved);
     }
 
+    @PatchMapping
+    public Mono<ResponseEntity<Object>> approveBookings(@RequestHeader("X-Sharer-User-Id") long ownerId,
+                                                        @RequestBody List<BookingDecisionDto> decisions) {
+        log.info("Изменение статусов нескольких запросов хозяином предметов");
+        if (decisions.isEmpty() || decisions.size() > MAX_DECISIONS) {
+            throw new ValidationException("За один запрос можно изменить статус от 1 до " + MAX_DECISIONS +
+                    " бронирований");
+        }
+        for (BookingDecisionDto decision : decisions) {
+            if (decision.getBookingId() == null || decision.getApproved() == null) {
+                throw new ValidationException("В решении должны быть указаны bookingId и approved");
+            }
+        }
+        return bookingClient.changeApproveStatuses(ownerId, decisions);
+    }
+
     @GetMapping("/{bookingId}")
-    public ResponseEntity<Object> getBookingById(@RequestHeader("X-Sharer-User-Id") long id,
-                                                 @PathVariable long bookingId) {
+    public Mono<ResponseEntity<Object>> getBookingById(@RequestHeader("X-Sharer-User-Id") long id,
+                                                       @PathVariable long bookingId) {
         log.info("Запрос на вывод бронирования с id = " + bookingId);
         return bookingClient.getBookingById(id, bookingId);
     }
 
     @GetMapping
-    public ResponseEntity<Object> getBookingForBooker(@RequestHeader("X-Sharer-User-Id") long bookerId,
-                                                      @RequestParam(defaultValue = "ALL") String state,
-                                                      @PositiveOrZero @RequestParam(required = false) Integer from,
-                                                      @Positive @RequestParam(required = false) Integer size) {
+    public Mono<ResponseEntity<Object>> getBookingForBooker(@RequestHeader("X-Sharer-User-Id") long bookerId,
+                                                            @RequestParam(defaultValue = "ALL") String state,
+                                                            @PositiveOrZero @RequestParam(required = false) Integer from,
+                                                            @Positive @RequestParam(required = false) Integer size,
+                                                            @RequestParam(required = false)
+                                                            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+                                                            LocalDateTime cursorStart,
+                                                            @RequestParam(required = false) Long cursorId) {
         log.info("Запрос на вывод бронирований для арендатора");
         State bookingState = State.from(state)
                 .orElseThrow(() -> new ServerErrorException("Unknown state: " + state));
+        if (hasCursor(cursorStart, cursorId)) {
+            return bookingClient.getBookingsByBookerAfter(bookerId, bookingState, cursorStart, cursorId, size);
+        }
         return bookingClient.getBookingsByBooker(bookerId, bookingState, from, size);
     }
 
+    @GetMapping("/owner/counts")
+    public Mono<ResponseEntity<Object>> getBookingCountsForOwner(@RequestHeader("X-Sharer-User-Id") long ownerId) {
+        log.info("Запрос на подсчет бронирований арендодателя с id = {} по состояниям", ownerId);
+        return bookingClient.getBookingCountsForOwner(ownerId);
+    }
+
     @GetMapping("/owner")
-    public ResponseEntity<Object> getBookingForOwner(@RequestHeader("X-Sharer-User-Id") long ownerId,
-                                                     @RequestParam(defaultValue = "ALL") String state,
-                                                     @PositiveOrZero @RequestParam(required = false) Integer from,
-                                                     @Positive @RequestParam(required = false) Integer size) {
+    public Mono<ResponseEntity<Object>> getBookingForOwner(@RequestHeader("X-Sharer-User-Id") long ownerId,
+                                                           @RequestParam(defaultValue = "ALL") String state,
+                                                           @PositiveOrZero @RequestParam(required = false) Integer from,
+                                                           @Positive @RequestParam(required = false) Integer size,
+                                                           @RequestParam(required = false)
+                                                           @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+                                                           LocalDateTime cursorStart,
+                                                           @RequestParam(required = false) Long cursorId) {
         log.info("Запрос на вывод бронирований для арендодателя");
         State bookingState = State.from(state)
                 .orElseThrow(() -> new ServerErrorException("Unknown state: " + state));
+        if (hasCursor(cursorStart, cursorId)) {
+            return bookingClient.getBookingsForOwnerAfter(ownerId, bookingState, cursorStart, cursorId, size);
+        }
         return bookingClient.getBookingsForOwner(ownerId, bookingState, from, size);
     }
+
+    /*Курсор задается парой cursorStart и cursorId. Без одного из них запрос не должен молча
+    превращаться в выдачу с начала списка*/
+    private static boolean hasCursor(LocalDateTime cursorStart, Long cursorId) {
+        if ((cursorStart == null) != (cursorId == null)) {
+            throw new ValidationException("cursorStart и cursorId указываются вместе");
+        }
+        return cursorStart != null;
+    }
 }
@@ -0,0 +1,16 @@
+package ru.practicum.gateway.booking;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+public class BookingDecisionDto {
+
+    private Long bookingId;
+    private Boolean approved;
+}
@@ -1,98 +1,181 @@
 package ru.practicum.gateway.client;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.springframework.http.*;
 import org.springframework.lang.Nullable;
-import org.springframework.web.client.HttpStatusCodeException;
-import org.springframework.web.client.RestTemplate;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
 
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
 
 public class BaseClient {
-    protected final RestTemplate rest;
+    /*Заголовки соединения между шлюзом и сервером, клиенту они не передаются.
+    x-http2-stream-id добавляет Netty при переводе ответа HTTP/2 в HTTP/1.1*/
+    private static final Set<String> HOP_BY_HOP_HEADERS = Set.of("connection", "keep-alive", "proxy-authenticate",
+            "proxy-authorization", "te", "trailer", "transfer-encoding", "upgrade", "x-http2-stream-id");
+    public static final String UPSTREAM_TIMER = "shareit.gateway.upstream";
+    private static final Pattern ID_SEGMENT = Pattern.compile("/\\d+(?=/|$)");
 
-    public BaseClient(RestTemplate rest) {
-        this.rest = rest;
+    protected final WebClient webClient;
+    private final String apiPrefix;
+    private final MeterRegistry meterRegistry;
+    @Nullable
+    private final EtagCache etagCache;
+    @Nullable
+    private final UpstreamGuard upstreamGuard;
+
+    public BaseClient(WebClient webClient, String apiPrefix, MeterRegistry meterRegistry) {
+        this(webClient, apiPrefix, meterRegistry, null, null);
+    }
+
+    public BaseClient(WebClient webClient, String apiPrefix, MeterRegistry meterRegistry,
+                      @Nullable EtagCache etagCache) {
+        this(webClient, apiPrefix, meterRegistry, etagCache, null);
     }
 
-    protected ResponseEntity<Object> get(String path) {
+    public BaseClient(WebClient webClient, String apiPrefix, MeterRegistry meterRegistry,
+                      @Nullable EtagCache etagCache, @Nullable UpstreamGuard upstreamGuard) {
+        this.webClient = webClient;
+        this.apiPrefix = apiPrefix;
+        this.meterRegistry = meterRegistry;
+        this.etagCache = etagCache;
+        this.upstreamGuard = upstreamGuard;
+    }
+
+    protected Mono<ResponseEntity<Object>> get(String path) {
         return get(path, null, null);
     }
 
-    protected ResponseEntity<Object> get(String path, long userId) {
+    protected Mono<ResponseEntity<Object>> get(String path, long userId) {
         return get(path, userId, null);
     }
 
-    protected ResponseEntity<Object> get(String path, Long userId, @Nullable Map<String, Object> parameters) {
-        return makeAndSendRequest(HttpMethod.GET, path, userId, parameters, null);
+    protected Mono<ResponseEntity<Object>> get(String path, Long userId, @Nullable Map<String, Object> parameters) {
+        return makeAndSendRequest(HttpMethod.GET, path, userId, parameters, null, null);
     }
 
-    protected <T> ResponseEntity<Object> post(String path, T body) {
+    /*GET с проверкой ETag. Сервер получает If-None-Match с ETag сохраненного ответа и на 304 не читает
+    запись целиком и не сериализует ее, а шлюз отдает сохраненное тело. Если ETag клиента из ifNoneMatch
+    совпадает с актуальным, клиенту тоже отдается 304*/
+    protected Mono<ResponseEntity<Object>> getConditional(String path, @Nullable Long userId,
+                                                          @Nullable String ifNoneMatch) {
+        if (etagCache == null) {
+            return makeAndSendRequest(HttpMethod.GET, path, userId, null, null, ifNoneMatch);
+        }
+        /*Ответ зависит от пользователя: владелец предмета видит его бронирования*/
+        String key = userId + " " + apiPrefix + path;
+        EtagCache.Entry cached = etagCache.get(key);
+        return makeAndSendRequest(HttpMethod.GET, path, userId, null, null,
+                cached != null ? cached.getEtag() : ifNoneMatch)
+                .map(response -> {
+                    if (response.getStatusCodeValue() == HttpStatus.NOT_MODIFIED.value()) {
+                        return cached != null ? fromCache(cached, ifNoneMatch) : response;
+                    }
+                    String etag = response.getHeaders().getETag();
+                    if (response.getStatusCodeValue() == HttpStatus.OK.value() && etag != null) {
+                        EtagCache.Entry entry = new EtagCache.Entry(etag, response.getHeaders(), response.getBody());
+                        etagCache.put(key, entry);
+                        return fromCache(entry, ifNoneMatch);
+                    }
+                    etagCache.invalidate(key);
+                    return response;
+                });
+    }
+
+    protected <T> Mono<ResponseEntity<Object>> post(String path, T body) {
         return post(path, null, null, body);
     }
 
-    protected <T> ResponseEntity<Object> post(String path, long userId, T body) {
+    protected <T> Mono<ResponseEntity<Object>> post(String path, long userId, T body) {
         return post(path, userId, null, body);
     }
 
-    protected <T> ResponseEntity<Object> post(String path, Long userId,
-                                              @Nullable Map<String, Object> parameters, T body) {
-        return makeAndSendRequest(HttpMethod.POST, path, userId, parameters, body);
+    protected <T> Mono<ResponseEntity<Object>> post(String path, Long userId,
+                                                    @Nullable Map<String, Object> parameters, T body) {
+        return makeAndSendRequest(HttpMethod.POST, path, userId, parameters, body, null);
     }
 
-    protected <T> ResponseEntity<Object> put(String path, long userId, T body) {
+    protected <T> Mono<ResponseEntity<Object>> put(String path, long userId, T body) {
         return put(path, userId, null, body);
     }
 
-    protected <T> ResponseEntity<Object> put(String path, long userId,
-                                             @Nullable Map<String, Object> parameters, T body) {
-        return makeAndSendRequest(HttpMethod.PUT, path, userId, parameters, body);
+    protected <T> Mono<ResponseEntity<Object>> put(String path, long userId,
+                                                   @Nullable Map<String, Object> parameters, T body) {
+        return makeAndSendRequest(HttpMethod.PUT, path, userId, parameters, body, null);
     }
 
-    protected <T> ResponseEntity<Object> patch(String path, T body) {
+    protected <T> Mono<ResponseEntity<Object>> patch(String path, T body) {
         return patch(path, null, null, body);
     }
 
-    protected <T> ResponseEntity<Object> patch(String path, long userId) {
+    protected <T> Mono<ResponseEntity<Object>> patch(String path, long userId) {
         return patch(path, userId, null, null);
     }
 
-    protected <T> ResponseEntity<Object> patch(String path, long userId, T body) {
+    protected <T> Mono<ResponseEntity<Object>> patch(String path, long userId, T body) {
         return patch(path, userId, null, body);
     }
 
-    protected <T> ResponseEntity<Object> patch(String path, Long userId,
-                                               @Nullable Map<String, Object> parameters, T body) {
-        return makeAndSendRequest(HttpMethod.PATCH, path, userId, parameters, body);
+    protected <T> Mono<ResponseEntity<Object>> patch(String path, Long userId,
+                                                     @Nullable Map<String, Object> parameters, T body) {
+        return makeAndSendRequest(HttpMethod.PATCH, path, userId, parameters, body, null);
     }
 
-    protected ResponseEntity<Object> delete(String path) {
+    protected Mono<ResponseEntity<Object>> delete(String path) {
         return delete(path, null, null);
     }
 
-    protected ResponseEntity<Object> delete(String path, long userId) {
+    protected Mono<ResponseEntity<Object>> delete(String path, long userId) {
         return delete(path, userId, null);
     }
 
-    protected ResponseEntity<Object> delete(String path, Long userId, @Nullable Map<String, Object> parameters) {
-        return makeAndSendRequest(HttpMethod.DELETE, path, userId, parameters, null);
-    }
-
-    private <T> ResponseEntity<Object> makeAndSendRequest(HttpMethod method, String path, Long userId,
-                                                          @Nullable Map<String, Object> parameters, @Nullable T body) {
-        HttpEntity<T> requestEntity = new HttpEntity<>(body, defaultHeaders(userId));
-
-        ResponseEntity<Object> shareitServerResponse;
-        try {
-            if (parameters != null) {
-                shareitServerResponse = rest.exchange(path, method, requestEntity, Object.class, parameters);
-            } else {
-                shareitServerResponse = rest.exchange(path, method, requestEntity, Object.class);
-            }
-        } catch (HttpStatusCodeException e) {
-            return ResponseEntity.status(e.getStatusCode()).body(e.getResponseBodyAsByteArray());
-        }
-        return prepareGatewayResponse(shareitServerResponse);
+    protected Mono<ResponseEntity<Object>> delete(String path, Long userId, @Nullable Map<String, Object> parameters) {
+        return makeAndSendRequest(HttpMethod.DELETE, path, userId, parameters, null, null);
+    }
+
+    private <T> Mono<ResponseEntity<Object>> makeAndSendRequest(HttpMethod method, String path, Long userId,
+                                                                @Nullable Map<String, Object> parameters,
+                                                                @Nullable T body,
+                                                                @Nullable String ifNoneMatch) {
+        WebClient.RequestBodySpec requestSpec = webClient.method(method)
+                .uri(path, parameters != null ? parameters : Map.of())
+                .headers(headers -> {
+                    headers.addAll(defaultHeaders(userId));
+                    if (ifNoneMatch != null) {
+                        headers.set(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+                    }
+                });
+        WebClient.RequestHeadersSpec<?> request = body != null ? requestSpec.bodyValue(body) : requestSpec;
+        /*Ответы 4xx и 5xx не бросают исключение, а передаются клиенту как есть.
+        Время вызова отсчитывается от подписки, а не от сборки запроса. Вызов, отмененный по таймауту,
+        попадает в таймер со статусом CANCELLED*/
+        Mono<ResponseEntity<Object>> call = Mono.defer(() -> {
+            Timer.Sample sample = Timer.start(meterRegistry);
+            return request.exchangeToMono(BaseClient::prepareGatewayResponse)
+                    .doOnSuccess(response -> sample.stop(upstreamTimer(method, path,
+                            String.valueOf(response.getStatusCodeValue()))))
+                    .doOnError(e -> sample.stop(upstreamTimer(method, path, "CLIENT_ERROR")))
+                    .doOnCancel(() -> sample.stop(upstreamTimer(method, path, "CANCELLED")));
+        });
+        return upstreamGuard != null ? upstreamGuard.protect(call) : call;
+    }
+
+    /*Идентификаторы в пути заменяются на {id}, чтобы число тегов не росло с числом записей*/
+    private Timer upstreamTimer(HttpMethod method, String path, String status) {
+        int query = path.indexOf('?');
+        String template = ID_SEGMENT.matcher(query < 0 ? path : path.substring(0, query)).replaceAll("/{id}");
+        return Timer.builder(UPSTREAM_TIMER)
+                .description("Вызовы сервера из шлюза")
+                .tag("method", method.name())
+                .tag("path", apiPrefix + template)
+                .tag("status", status)
+                .register(meterRegistry);
     }
 
     private HttpHeaders defaultHeaders(Long userId) {
@@ -105,17 +188,53 @@ public class BaseClient {
         return headers;
     }
 
-    private static ResponseEntity<Object> prepareGatewayResponse(ResponseEntity<Object> response) {
-        if (response.getStatusCode().is2xxSuccessful()) {
-            return response;
+    private static ResponseEntity<Object> fromCache(EtagCache.Entry entry, @Nullable String ifNoneMatch) {
+        if (matches(ifNoneMatch, entry.getEtag())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(entry.getEtag())
+                    .build();
         }
+        return ResponseEntity.ok()
+                .headers(entry.getHeaders())
+                .body(entry.getBody());
+    }
 
-        ResponseEntity.BodyBuilder responseBuilder = ResponseEntity.status(response.getStatusCode());
-
-        if (response.hasBody()) {
-            return responseBuilder.body(response.getBody());
+    /*If-None-Match сравнивается слабо: W/"x" совпадает с "x"*/
+    private static boolean matches(@Nullable String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        String tag = stripWeakPrefix(etag);
+        for (String candidate : ifNoneMatch.split(",")) {
+            candidate = candidate.trim();
+            if (candidate.equals("*") || stripWeakPrefix(candidate).equals(tag)) {
+                return true;
+            }
         }
+        return false;
+    }
+
+    private static String stripWeakPrefix(String etag) {
+        return etag.startsWith("W/") ? etag.substring(2) : etag;
+    }
 
-        return responseBuilder.build();
+    /*Тело ответа сервера передается клиенту байтами, без разбора и повторной сериализации JSON*/
+    private static Mono<ResponseEntity<Object>> prepareGatewayResponse(ClientResponse response) {
+        ResponseEntity.BodyBuilder responseBuilder = ResponseEntity.status(response.rawStatusCode())
+                .headers(passThroughHeaders(response.headers().asHttpHeaders()));
+
+        return response.bodyToMono(byte[].class)
+                .<ResponseEntity<Object>>map(responseBuilder::body)
+                .defaultIfEmpty(responseBuilder.build());
+    }
+
+    private static HttpHeaders passThroughHeaders(HttpHeaders serverHeaders) {
+        HttpHeaders headers = new HttpHeaders();
+        serverHeaders.forEach((name, values) -> {
+            if (!HOP_BY_HOP_HEADERS.contains(name.toLowerCase(Locale.ROOT))) {
+                headers.addAll(name, values);
+            }
+        });
+        return headers;
     }
 }
@@ -0,0 +1,56 @@
+package ru.practicum.gateway.client;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+/*Последние ответы сервера с ETag. Ответ не считается свежим сам по себе: шлюз каждый раз
+спрашивает сервер с If-None-Match и отдает сохраненное тело только на 304*/
+@Component
+public class EtagCache {
+
+    public static final String CACHE_NAME = "gateway.etag";
+
+    private final Cache<String, Entry> cache;
+
+    public EtagCache(@Value("${shareit.gateway.etag-cache.maximum-size:10000}") long maximumSize,
+                     MeterRegistry meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    @Nullable
+    public Entry get(String key) {
+        return cache.getIfPresent(key);
+    }
+
+    public void put(String key, Entry entry) {
+        cache.put(key, entry);
+    }
+
+    public void invalidate(String key) {
+        cache.invalidate(key);
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class Entry {
+
+        private final String etag;
+
+        private final HttpHeaders headers;
+
+        @Nullable
+        private final Object body;
+    }
+}
@@ -0,0 +1,77 @@
+package ru.practicum.gateway.client;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/*Кэш ответов сервера на частые одинаковые чтения: поиск и списки запросов. В отличие от EtagCache
+ответ отдается без обращения к серверу, пока не истечет ttl, поэтому новые данные видны с задержкой до ttl.
+В кэше лежит future ответа, и одновременные промахи по одному ключу ждут один вызов сервера*/
+@Component
+public class ResponseCache {
+
+    public static final String CACHE_NAME = "gateway.responses";
+
+    private final AsyncCache<String, ResponseEntity<Object>> cache;
+
+    @Autowired
+    public ResponseCache(@Value("${shareit.gateway.response-cache.maximum-size:10000}") long maximumSize,
+                         @Value("${shareit.gateway.response-cache.ttl:5s}") Duration ttl,
+                         MeterRegistry meterRegistry) {
+        this(maximumSize, ttl, meterRegistry, Ticker.systemTicker());
+    }
+
+    ResponseCache(long maximumSize, Duration ttl, MeterRegistry meterRegistry, Ticker ticker) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .ticker(ticker)
+                .recordStats()
+                .buildAsync();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    /*Ключ из пути, параметров в порядке имен и пользователя, если ответ от него зависит*/
+    public static String key(String path, @Nullable Long userId, Map<String, ?> parameters) {
+        String query = new TreeMap<>(parameters).entrySet().stream()
+                .map(parameter -> parameter.getKey() + "=" + parameter.getValue())
+                .collect(Collectors.joining("&"));
+        return (userId == null ? "*" : userId) + " " + path + "?" + query;
+    }
+
+    /*Регистр и лишние пробелы не влияют на результат поиска на сервере*/
+    public static String normalizeText(String text) {
+        return text.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+
+    /*Сохраняются только ответы 200. Остальные отдаются всем, кто ждал этот вызов, и сразу удаляются*/
+    public Mono<ResponseEntity<Object>> get(String key, Supplier<Mono<ResponseEntity<Object>>> upstream) {
+        return Mono.defer(() -> {
+            CompletableFuture<ResponseEntity<Object>> future = cache.get(key, (k, executor) -> upstream.get().toFuture());
+            /*Отмена подписки одним клиентом не должна отменять общий вызов*/
+            return Mono.fromFuture(future.copy())
+                    .doOnNext(response -> {
+                        if (response.getStatusCodeValue() != HttpStatus.OK.value()) {
+                            cache.asMap().remove(key, future);
+                        }
+                    });
+        });
+    }
+}
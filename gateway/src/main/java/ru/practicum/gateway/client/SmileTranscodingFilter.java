@@ -0,0 +1,76 @@
+package ru.practicum.gateway.client;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import reactor.core.publisher.Mono;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+
+/*Ответы сервера запрашиваются в бинарном Smile, а клиенту шлюза по-прежнему уходит JSON.
+Перевод идет по токенам, без построения объектов и без форматирования дат. Если сервер ответил JSON,
+ответ передается как есть. Тела запросов к серверу остаются в JSON: основной объем идет в ответах*/
+public class SmileTranscodingFilter implements ExchangeFilterFunction {
+
+    public static final MediaType APPLICATION_SMILE = new MediaType("application", "x-jackson-smile");
+    private static final SmileFactory SMILE_FACTORY = new SmileFactory();
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    @Override
+    public Mono<ClientResponse> filter(ClientRequest request, ExchangeFunction next) {
+        ClientRequest smileRequest = ClientRequest.from(request)
+                .headers(headers -> headers.setAccept(List.of(APPLICATION_SMILE, MediaType.APPLICATION_JSON)))
+                .build();
+        return next.exchange(smileRequest)
+                .map(response -> {
+                    MediaType contentType = response.headers().contentType().orElse(null);
+                    if (contentType == null || !APPLICATION_SMILE.isCompatibleWith(contentType)) {
+                        return response;
+                    }
+                    return response.mutate()
+                            .headers(headers -> {
+                                headers.setContentType(MediaType.APPLICATION_JSON);
+                                headers.remove(HttpHeaders.CONTENT_LENGTH);
+                            })
+                            .body(body -> DataBufferUtils.join(body)
+                                    .map(SmileTranscodingFilter::toJson)
+                                    .flux())
+                            .build();
+                });
+    }
+
+    static byte[] transcode(byte[] smile) throws IOException {
+        ByteArrayOutputStream json = new ByteArrayOutputStream(smile.length * 2);
+        try (JsonParser parser = SMILE_FACTORY.createParser(smile);
+             JsonGenerator generator = JSON_FACTORY.createGenerator(json)) {
+            while (parser.nextToken() != null) {
+                generator.copyCurrentEvent(parser);
+            }
+        }
+        return json.toByteArray();
+    }
+
+    private static DataBuffer toJson(DataBuffer smileBuffer) {
+        byte[] smile = new byte[smileBuffer.readableByteCount()];
+        smileBuffer.read(smile);
+        DataBufferUtils.release(smileBuffer);
+        try {
+            return DefaultDataBufferFactory.sharedInstance.wrap(transcode(smile));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Ответ сервера в Smile не удалось перевести в JSON", e);
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package ru.practicum.gateway.client;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.reactor.bulkhead.operator.BulkheadOperator;
+import io.github.resilience4j.reactor.circuitbreaker.operator.CircuitBreakerOperator;
+import io.github.resilience4j.reactor.timelimiter.TimeLimiterOperator;
+import io.github.resilience4j.timelimiter.TimeLimiter;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import reactor.core.publisher.Mono;
+import ru.practicum.gateway.exceptions.GatewayTimeoutException;
+import ru.practicum.gateway.exceptions.ServiceUnavailableException;
+
+import java.util.concurrent.TimeoutException;
+
+/*Защита вызовов сервера одним клиентом шлюза. Bulkhead ограничивает число одновременных вызовов,
+чтобы медленные запросы одного раздела не заняли все соединения и потоки шлюза. Вызов дольше лимита
+времени отменяется. Автомат размыкается, когда ошибок и таймаутов становится много, и тогда запросы
+сразу получают 503, не дожидаясь сервера*/
+public class UpstreamGuard {
+
+    private static final int RETRY_AFTER_SECONDS = 1;
+
+    private final CircuitBreaker circuitBreaker;
+    private final Bulkhead bulkhead;
+    private final TimeLimiter timeLimiter;
+
+    public UpstreamGuard(CircuitBreaker circuitBreaker, Bulkhead bulkhead, TimeLimiter timeLimiter) {
+        this.circuitBreaker = circuitBreaker;
+        this.bulkhead = bulkhead;
+        this.timeLimiter = timeLimiter;
+    }
+
+    /*Ответы 5xx сервера засчитываются автомату как ошибки, но клиенту передаются как есть.
+    503 с Retry-After сервер отдает сам при перегрузке очереди, это не отказ*/
+    public Mono<ResponseEntity<Object>> protect(Mono<ResponseEntity<Object>> call) {
+        return call
+                .flatMap(response -> isFailure(response)
+                        ? Mono.<ResponseEntity<Object>>error(new FailedResponse(response))
+                        : Mono.just(response))
+                .transformDeferred(TimeLimiterOperator.of(timeLimiter))
+                .transformDeferred(CircuitBreakerOperator.of(circuitBreaker))
+                /*Отказ bulkhead говорит о нагрузке на шлюз, а не о сбое сервера, поэтому он снаружи автомата*/
+                .transformDeferred(BulkheadOperator.of(bulkhead))
+                .onErrorResume(FailedResponse.class, e -> Mono.just(e.response))
+                .onErrorMap(this::toGatewayException);
+    }
+
+    private Throwable toGatewayException(Throwable e) {
+        if (e instanceof CallNotPermittedException) {
+            long waitMillis = circuitBreaker.getCircuitBreakerConfig().getWaitIntervalFunctionInOpenState().apply(1);
+            return new ServiceUnavailableException("Сервер временно недоступен",
+                    (int) Math.max(1, (waitMillis + 999) / 1000));
+        }
+        if (e instanceof BulkheadFullException) {
+            return new ServiceUnavailableException("Слишком много одновременных запросов к серверу",
+                    RETRY_AFTER_SECONDS);
+        }
+        if (e instanceof TimeoutException) {
+            return new GatewayTimeoutException("Сервер не ответил за " + timeLimiter.getTimeLimiterConfig()
+                    .getTimeoutDuration().toMillis() + " мс");
+        }
+        if (e instanceof WebClientRequestException) {
+            return new ServiceUnavailableException("Не удалось соединиться с сервером", RETRY_AFTER_SECONDS);
+        }
+        return e;
+    }
+
+    private static boolean isFailure(ResponseEntity<Object> response) {
+        int status = response.getStatusCodeValue();
+        return status >= 500 && status != HttpStatus.SERVICE_UNAVAILABLE.value();
+    }
+
+    /*Ответ с ошибкой сервера, который проходит через автомат как исключение*/
+    private static class FailedResponse extends RuntimeException {
+
+        private final transient ResponseEntity<Object> response;
+
+        FailedResponse(ResponseEntity<Object> response) {
+            super(null, null, false, false);
+            this.response = response;
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package ru.practicum.gateway.client;
+
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.timelimiter.TimeLimiterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/*Выдает клиентам шлюза их защиту вызовов. Настройки экземпляров берутся из свойств resilience4j.*.instances.<имя>,
+состояние автоматов видно в actuator: /actuator/circuitbreakers и /actuator/health*/
+@Component
+public class UpstreamGuards {
+
+    private final CircuitBreakerRegistry circuitBreakerRegistry;
+    private final BulkheadRegistry bulkheadRegistry;
+    private final TimeLimiterRegistry timeLimiterRegistry;
+
+    @Autowired
+    public UpstreamGuards(CircuitBreakerRegistry circuitBreakerRegistry, BulkheadRegistry bulkheadRegistry,
+                          TimeLimiterRegistry timeLimiterRegistry) {
+        this.circuitBreakerRegistry = circuitBreakerRegistry;
+        this.bulkheadRegistry = bulkheadRegistry;
+        this.timeLimiterRegistry = timeLimiterRegistry;
+    }
+
+    public UpstreamGuard forClient(String name) {
+        return new UpstreamGuard(circuitBreakerRegistry.circuitBreaker(name), bulkheadRegistry.bulkhead(name),
+                timeLimiterRegistry.timeLimiter(name));
+    }
+}
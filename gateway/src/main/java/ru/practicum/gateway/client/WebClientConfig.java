@@ -0,0 +1,60 @@
+package ru.practicum.gateway.client;
+
+import io.netty.channel.ChannelOption;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.reactive.function.client.WebClientCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ClientHttpConnector;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+
+/*Один пул соединений к серверу на все клиенты шлюза.
+Коннектор подхватывается всеми WebClient.Builder из автоконфигурации*/
+@Configuration
+public class WebClientConfig {
+
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider shareitServerConnectionProvider(
+            @Value("${shareit-server.pool.max-connections:500}") int maxConnections,
+            @Value("${shareit-server.pool.pending-acquire-max-count:-1}") int pendingAcquireMaxCount,
+            @Value("${shareit-server.pool.pending-acquire-timeout:45s}") Duration pendingAcquireTimeout,
+            @Value("${shareit-server.pool.max-idle-time:30s}") Duration maxIdleTime) {
+        return ConnectionProvider.builder("shareit-server")
+                .maxConnections(maxConnections)
+                .pendingAcquireMaxCount(pendingAcquireMaxCount)
+                .pendingAcquireTimeout(pendingAcquireTimeout)
+                .maxIdleTime(maxIdleTime)
+                .evictInBackground(maxIdleTime)
+                .metrics(true)
+                .build();
+    }
+
+    /*Время ответа ограничивает UpstreamGuard отдельно для каждого клиента, здесь только установка соединения.
+    С протоколом H2C запросы идут потоками HTTP/2 через несколько соединений, новое соединение открывается,
+    только когда в открытых кончились потоки. Сжатие gzip запрашивается заголовком Accept-Encoding,
+    сервер сжимает только крупные ответы, а шлюз распаковывает их до передачи клиенту*/
+    @Bean
+    public ClientHttpConnector shareitServerConnector(
+            ConnectionProvider shareitServerConnectionProvider,
+            @Value("${shareit-server.connect-timeout:2s}") Duration connectTimeout,
+            @Value("${shareit-server.protocols:HTTP11}") HttpProtocol[] protocols,
+            @Value("${shareit-server.compression:false}") boolean compression) {
+        return new ReactorClientHttpConnector(HttpClient.create(shareitServerConnectionProvider)
+                .protocol(protocols)
+                .compress(compression)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) connectTimeout.toMillis()));
+    }
+
+    /*Ответы сервера во внутреннем формате Smile, см. SmileTranscodingFilter*/
+    @Bean
+    @ConditionalOnProperty(name = "shareit-server.format", havingValue = "smile")
+    public WebClientCustomizer smileTranscodingCustomizer() {
+        return builder -> builder.filter(new SmileTranscodingFilter());
+    }
+}
@@ -1,7 +1,9 @@
 package ru.practicum.gateway.exceptions;
 
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 
@@ -43,4 +45,20 @@ public class ExceptionHandler {
         log.info("500: {}", e.getMessage());
         return new ErrorResponse(String.format(e.getMessage()));
     }
+
+    /*Запрос не дошел до сервера: автомат разомкнут, bulkhead заполнен или нет соединения*/
+    @org.springframework.web.bind.annotation.ExceptionHandler
+    public ResponseEntity<ErrorResponse> handleServiceUnavailableException(final ServiceUnavailableException e) {
+        log.warn("503: {}", e.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .body(new ErrorResponse(e.getMessage()));
+    }
+
+    @org.springframework.web.bind.annotation.ExceptionHandler
+    @ResponseStatus(HttpStatus.GATEWAY_TIMEOUT)
+    public ErrorResponse handleGatewayTimeoutException(final GatewayTimeoutException e) {
+        log.warn("504: {}", e.getMessage());
+        return new ErrorResponse(e.getMessage());
+    }
 }
@@ -0,0 +1,8 @@
+package ru.practicum.gateway.exceptions;
+
+public class GatewayTimeoutException extends RuntimeException {
+
+    public GatewayTimeoutException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,16 @@
+package ru.practicum.gateway.exceptions;
+
+/*Шлюз не передал запрос серверу: сервер недоступен или уже занят запросами того же клиента*/
+public class ServiceUnavailableException extends RuntimeException {
+
+    private final int retryAfterSeconds;
+
+    public ServiceUnavailableException(String message, int retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public int getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
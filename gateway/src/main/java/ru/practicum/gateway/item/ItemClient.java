@@ -1,13 +1,17 @@
 package ru.practicum.gateway.item;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
-import org.springframework.web.util.DefaultUriBuilderFactory;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
 import ru.practicum.gateway.client.BaseClient;
+import ru.practicum.gateway.client.EtagCache;
+import ru.practicum.gateway.client.ResponseCache;
+import ru.practicum.gateway.client.UpstreamGuards;
 
+import java.util.List;
 import java.util.Map;
 
 @Service
@@ -15,39 +19,55 @@ public class ItemClient extends BaseClient {
 
     private static final String API_PREFIX = "/items";
 
-    public ItemClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
-        super(
-                builder
-                        .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(HttpComponentsClientHttpRequestFactory::new)
-                        .build()
-        );
+    private final ResponseCache responseCache;
+
+    public ItemClient(@Value("${shareit-server.url}") String serverUrl, WebClient.Builder builder,
+                      MeterRegistry meterRegistry, EtagCache etagCache, ResponseCache responseCache,
+                      UpstreamGuards upstreamGuards) {
+        super(builder.baseUrl(serverUrl + API_PREFIX).build(), API_PREFIX, meterRegistry, etagCache,
+                upstreamGuards.forClient("items"));
+        this.responseCache = responseCache;
     }
 
-    public ResponseEntity<Object> addItem(long userId, ItemDto itemInnerDto) {
+    public Mono<ResponseEntity<Object>> addItem(long userId, ItemDto itemInnerDto) {
         return post("", userId, itemInnerDto);
     }
 
-    public ResponseEntity<Object> getItemById(long userId, long itemId) {
-        return get("/" + itemId, userId);
+    public Mono<ResponseEntity<Object>> addItems(long userId, List<ItemDto> itemInnerDtos) {
+        return post("/batch", userId, itemInnerDtos);
+    }
+
+    public Mono<ResponseEntity<Object>> getItemById(long userId, long itemId, String ifNoneMatch) {
+        return getConditional("/" + itemId, userId, ifNoneMatch);
     }
 
-    public ResponseEntity<Object> updateItem(long userId, long itemId, ItemDto itemInnerDto) {
+    public Mono<ResponseEntity<Object>> updateItem(long userId, long itemId, ItemDto itemInnerDto) {
         return patch("/" + itemId, userId, itemInnerDto);
     }
 
-    public ResponseEntity<Object> getUserItems(long userId) {
+    public Mono<ResponseEntity<Object>> getUserItems(long userId) {
         return get("", userId);
     }
 
-    public ResponseEntity<Object> getItemsByText(long userId, String text) {
+    /*Найденные предметы не зависят от пользователя, поэтому запись кэша общая для всех*/
+    public Mono<ResponseEntity<Object>> getItemsByText(long userId, String text, Integer from, Integer size) {
+        if (from == null || size == null) {
+            Map<String, Object> parameters = Map.of(
+                    "text", ResponseCache.normalizeText(text)
+            );
+            return responseCache.get(ResponseCache.key(API_PREFIX + "/search", null, parameters),
+                    () -> get("/search?text={text}", userId, parameters));
+        }
         Map<String, Object> parameters = Map.of(
-                "text", text
+                "text", ResponseCache.normalizeText(text),
+                "from", from,
+                "size", size
         );
-        return get("/search?text={text}", userId, parameters);
+        return responseCache.get(ResponseCache.key(API_PREFIX + "/search", null, parameters),
+                () -> get("/search?text={text}&from={from}&size={size}", userId, parameters));
     }
 
-    public ResponseEntity<Object> addComment(long userId, long itemId, IncomingCommentDto incomingCommentDto) {
+    public Mono<ResponseEntity<Object>> addComment(long userId, long itemId, IncomingCommentDto incomingCommentDto) {
         return post("/" + itemId + "/comment", userId, incomingCommentDto);
     }
 }
@@ -2,12 +2,21 @@ package ru.practicum.gateway.item;
 
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+import ru.practicum.gateway.exceptions.ValidationException;
 
+import javax.validation.ConstraintViolation;
 import javax.validation.Valid;
+import javax.validation.Validator;
+import javax.validation.constraints.Positive;
+import javax.validation.constraints.PositiveOrZero;
 import java.util.Collections;
+import java.util.List;
+import java.util.Set;
 
 
 @RestController
@@ -15,54 +24,79 @@ import java.util.Collections;
 @RequestMapping("/items")
 public class ItemController {
 
+    private static final int MAX_IMPORT_SIZE = 1000;
+
     private final ItemClient itemClient;
+    private final Validator validator;
 
     @Autowired
-    public ItemController(ItemClient itemClient) {
+    public ItemController(ItemClient itemClient, Validator validator) {
         this.itemClient = itemClient;
+        this.validator = validator;
     }
 
     @PostMapping
-    public ResponseEntity<Object> createItem(@RequestHeader("X-Sharer-User-Id") long userId,
-                                             @Valid @RequestBody ItemDto itemDto) {
+    public Mono<ResponseEntity<Object>> createItem(@RequestHeader("X-Sharer-User-Id") long userId,
+                                                   @Valid @RequestBody ItemDto itemDto) {
         log.info("Запрос на добавление предмета");
         return itemClient.addItem(userId, itemDto);
     }
 
+    /*Импорт каталога частями. @Valid не проверяет элементы списка в теле, поэтому каждый предмет проверяется отдельно*/
+    @PostMapping("/batch")
+    public Mono<ResponseEntity<Object>> createItems(@RequestHeader("X-Sharer-User-Id") long userId,
+                                                    @RequestBody List<ItemDto> itemDtos) {
+        log.info("Запрос на добавление {} предметов пользователем с id = {}", itemDtos.size(), userId);
+        if (itemDtos.isEmpty() || itemDtos.size() > MAX_IMPORT_SIZE) {
+            throw new ValidationException("За один запрос можно добавить от 1 до " + MAX_IMPORT_SIZE + " предметов");
+        }
+        for (ItemDto itemDto : itemDtos) {
+            Set<ConstraintViolation<ItemDto>> violations = validator.validate(itemDto);
+            if (!violations.isEmpty()) {
+                throw new ValidationException(violations.iterator().next().getMessage());
+            }
+        }
+        return itemClient.addItems(userId, itemDtos);
+    }
+
     @GetMapping("/{itemId}")
-    public ResponseEntity<Object> getItemById(@RequestHeader("X-Sharer-User-Id") long userId,
-                                              @PathVariable("itemId") long itemId) {
+    public Mono<ResponseEntity<Object>> getItemById(@RequestHeader("X-Sharer-User-Id") long userId,
+                                                    @PathVariable("itemId") long itemId,
+                                                    @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false)
+                                                    String ifNoneMatch) {
         log.info("Запрос на вывод предмета с id = " + itemId);
-        return itemClient.getItemById(userId, itemId);
+        return itemClient.getItemById(userId, itemId, ifNoneMatch);
     }
 
     @PatchMapping("/{id}")
-    public ResponseEntity<Object> updateItem(@RequestHeader("X-Sharer-User-Id") long userId,
-                                             @PathVariable long id, @RequestBody ItemDto itemDto) {
+    public Mono<ResponseEntity<Object>> updateItem(@RequestHeader("X-Sharer-User-Id") long userId,
+                                                   @PathVariable long id, @RequestBody ItemDto itemDto) {
         log.info("Запрос на изменение предмета с id = " + id);
         return itemClient.updateItem(userId, id, itemDto);
     }
 
     @GetMapping
-    public ResponseEntity<Object> getUserItems(@RequestHeader("X-Sharer-User-Id") long userId) {
+    public Mono<ResponseEntity<Object>> getUserItems(@RequestHeader("X-Sharer-User-Id") long userId) {
         log.info("Запрос на вывод всех предметов пользователя с id = " + userId);
         return itemClient.getUserItems(userId);
     }
 
     @GetMapping("/search")
-    public ResponseEntity<Object> getItemsByText(@RequestHeader("X-Sharer-User-Id") long userId,
-                                                 @Valid @RequestParam String text) {
+    public Mono<ResponseEntity<Object>> getItemsByText(@RequestHeader("X-Sharer-User-Id") long userId,
+                                                       @Valid @RequestParam String text,
+                                                       @PositiveOrZero @RequestParam(required = false) Integer from,
+                                                       @Positive @RequestParam(required = false) Integer size) {
         log.info("Запрос на поиск предметов по тексту в названии или описании");
         if (text == null) {
-            return new ResponseEntity<>(Collections.emptyList(), HttpStatus.OK);
+            return Mono.just(new ResponseEntity<>(Collections.emptyList(), HttpStatus.OK));
         }
-        return itemClient.getItemsByText(userId, text);
+        return itemClient.getItemsByText(userId, text, from, size);
     }
 
     @PostMapping("/{itemId}/comment")
-    public ResponseEntity<Object> addCommentToItem(@RequestHeader("X-Sharer-User-Id") long userId,
-                                                   @PathVariable("itemId") long itemId,
-                                                   @Valid @RequestBody IncomingCommentDto incomingCommentDto) {
+    public Mono<ResponseEntity<Object>> addCommentToItem(@RequestHeader("X-Sharer-User-Id") long userId,
+                                                         @PathVariable("itemId") long itemId,
+                                                         @Valid @RequestBody IncomingCommentDto incomingCommentDto) {
         log.info("Запрос на добавление комментария к предмету");
         return itemClient.addComment(userId, itemId, incomingCommentDto);
     }
@@ -1,13 +1,16 @@
 package ru.practicum.gateway.request;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
-import org.springframework.web.util.DefaultUriBuilderFactory;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
 import ru.practicum.gateway.client.BaseClient;
+import ru.practicum.gateway.client.EtagCache;
+import ru.practicum.gateway.client.ResponseCache;
+import ru.practicum.gateway.client.UpstreamGuards;
 
 import java.util.Map;
 
@@ -16,37 +19,41 @@ public class RequestClient extends BaseClient {
 
     private static final String API_PREFIX = "/requests";
 
+    private final ResponseCache responseCache;
+
     @Autowired
-    public RequestClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
-        super(
-                builder
-                        .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(HttpComponentsClientHttpRequestFactory::new)
-                        .build()
-        );
+    public RequestClient(@Value("${shareit-server.url}") String serverUrl, WebClient.Builder builder,
+                         MeterRegistry meterRegistry, EtagCache etagCache, ResponseCache responseCache,
+                         UpstreamGuards upstreamGuards) {
+        super(builder.baseUrl(serverUrl + API_PREFIX).build(), API_PREFIX, meterRegistry, etagCache,
+                upstreamGuards.forClient("requests"));
+        this.responseCache = responseCache;
     }
 
-    public ResponseEntity<Object> addRequest(long userId, IncomingItemRequestDto incomingItemRequestDto) {
+    public Mono<ResponseEntity<Object>> addRequest(long userId, IncomingItemRequestDto incomingItemRequestDto) {
         return post("", userId, incomingItemRequestDto);
     }
 
-    public ResponseEntity<Object> getItemRequestById(long userId, long requestId) {
-        return get("/" + requestId, userId);
+    public Mono<ResponseEntity<Object>> getItemRequestById(long userId, long requestId, String ifNoneMatch) {
+        return getConditional("/" + requestId, userId, ifNoneMatch);
     }
 
-    public ResponseEntity<Object> getRequestorItemRequest(long userId) {
+    public Mono<ResponseEntity<Object>> getRequestorItemRequest(long userId) {
         return get("", userId);
     }
 
-    public ResponseEntity<Object> getAllOtherItemRequests(long userId, Integer from, Integer size) {
+    /*Собственные запросы пользователя в список не входят, поэтому ключ кэша содержит пользователя*/
+    public Mono<ResponseEntity<Object>> getAllOtherItemRequests(long userId, Integer from, Integer size) {
         if (from == null || size == null) {
-            return get("/all", userId);
+            return responseCache.get(ResponseCache.key(API_PREFIX + "/all", userId, Map.of()),
+                    () -> get("/all", userId));
         } else {
             Map<String, Object> parameters = Map.of(
                     "from", from,
                     "size", size
             );
-            return get("/all?from={from}&size={size}", userId, parameters);
+            return responseCache.get(ResponseCache.key(API_PREFIX + "/all", userId, parameters),
+                    () -> get("/all?from={from}&size={size}", userId, parameters));
         }
     }
 }
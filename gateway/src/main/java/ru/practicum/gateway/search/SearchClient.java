@@ -0,0 +1,47 @@
+package ru.practicum.gateway.search;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import ru.practicum.gateway.client.BaseClient;
+import ru.practicum.gateway.client.ResponseCache;
+import ru.practicum.gateway.client.UpstreamGuards;
+
+import java.util.Map;
+
+@Service
+public class SearchClient extends BaseClient {
+
+    private static final String API_PREFIX = "/search";
+
+    private final ResponseCache responseCache;
+
+    public SearchClient(@Value("${shareit-server.url}") String serverUrl, WebClient.Builder builder,
+                        MeterRegistry meterRegistry, ResponseCache responseCache,
+                        UpstreamGuards upstreamGuards) {
+        super(builder.baseUrl(serverUrl + API_PREFIX).build(), API_PREFIX, meterRegistry, null,
+                upstreamGuards.forClient("search"));
+        this.responseCache = responseCache;
+    }
+
+    /*В результатах нет запросов самого пользователя, поэтому ключ кэша содержит пользователя*/
+    public Mono<ResponseEntity<Object>> search(long userId, String text, Integer from, Integer size) {
+        if (from == null || size == null) {
+            Map<String, Object> parameters = Map.of(
+                    "text", ResponseCache.normalizeText(text)
+            );
+            return responseCache.get(ResponseCache.key(API_PREFIX, userId, parameters),
+                    () -> get("?text={text}", userId, parameters));
+        }
+        Map<String, Object> parameters = Map.of(
+                "text", ResponseCache.normalizeText(text),
+                "from", from,
+                "size", size
+        );
+        return responseCache.get(ResponseCache.key(API_PREFIX, userId, parameters),
+                () -> get("?text={text}&from={from}&size={size}", userId, parameters));
+    }
+}
@@ -0,0 +1,42 @@
+package ru.practicum.gateway.search;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+
+import javax.validation.constraints.Positive;
+import javax.validation.constraints.PositiveOrZero;
+import java.util.Collections;
+
+/*Поиск по предметам и запросам других пользователей одним ранжированным списком*/
+@RestController
+@Slf4j
+@RequestMapping("/search")
+public class SearchController {
+
+    private final SearchClient searchClient;
+
+    @Autowired
+    public SearchController(SearchClient searchClient) {
+        this.searchClient = searchClient;
+    }
+
+    @GetMapping
+    public Mono<ResponseEntity<Object>> search(@RequestHeader("X-Sharer-User-Id") long userId,
+                                               @RequestParam String text,
+                                               @PositiveOrZero @RequestParam(required = false) Integer from,
+                                               @Positive @RequestParam(required = false) Integer size) {
+        log.info("Запрос на поиск предметов и запросов по тексту");
+        if (text.isBlank()) {
+            return Mono.just(new ResponseEntity<>(Collections.emptyList(), HttpStatus.OK));
+        }
+        return searchClient.search(userId, text, from, size);
+    }
+}
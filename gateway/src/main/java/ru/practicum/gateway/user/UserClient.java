@@ -1,13 +1,17 @@
 package ru.practicum.gateway.user;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
-import org.springframework.web.util.DefaultUriBuilderFactory;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
 import ru.practicum.gateway.client.BaseClient;
+import ru.practicum.gateway.client.EtagCache;
+import ru.practicum.gateway.client.UpstreamGuards;
+
+import java.util.List;
 
 @Service
 public class UserClient extends BaseClient {
@@ -15,32 +19,33 @@ public class UserClient extends BaseClient {
     private static final String API_PREFIX = "/users";
 
     @Autowired
-    public UserClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
-        super(
-                builder
-                        .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(HttpComponentsClientHttpRequestFactory::new)
-                        .build()
-        );
+    public UserClient(@Value("${shareit-server.url}") String serverUrl, WebClient.Builder builder,
+                      MeterRegistry meterRegistry, EtagCache etagCache, UpstreamGuards upstreamGuards) {
+        super(builder.baseUrl(serverUrl + API_PREFIX).build(), API_PREFIX, meterRegistry, etagCache,
+                upstreamGuards.forClient("users"));
     }
 
-    public ResponseEntity<Object> addUser(UserDto userInnerDto) {
+    public Mono<ResponseEntity<Object>> addUser(UserDto userInnerDto) {
         return post("", userInnerDto);
     }
 
-    public ResponseEntity<Object> getUserById(long id) {
-        return get("/" + id);
+    public Mono<ResponseEntity<Object>> addUsers(List<UserDto> userInnerDtos) {
+        return post("/batch", userInnerDtos);
+    }
+
+    public Mono<ResponseEntity<Object>> getUserById(long id, String ifNoneMatch) {
+        return getConditional("/" + id, null, ifNoneMatch);
     }
 
-    public ResponseEntity<Object> updateUser(long id, UserDto userInnerDto) {
+    public Mono<ResponseEntity<Object>> updateUser(long id, UserDto userInnerDto) {
         return patch("/" + id, userInnerDto);
     }
 
-    public ResponseEntity<Object> delUserById(long id) {
+    public Mono<ResponseEntity<Object>> delUserById(long id) {
         return delete("/" + id);
     }
 
-    public ResponseEntity<Object> getUsers() {
+    public Mono<ResponseEntity<Object>> getUsers() {
         return get("");
     }
 }
@@ -2,10 +2,17 @@ package ru.practicum.gateway.user;
 
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+import ru.practicum.gateway.exceptions.ValidationException;
 
+import javax.validation.ConstraintViolation;
 import javax.validation.Valid;
+import javax.validation.Validator;
+import java.util.List;
+import java.util.Set;
 
 
 @RestController
@@ -13,40 +20,63 @@ import javax.validation.Valid;
 @Slf4j
 public class UserController {
 
+    private static final int MAX_IMPORT_SIZE = 1000;
+
     private final UserClient userClient;
+    private final Validator validator;
 
     @Autowired
-    public UserController(UserClient userClient) {
+    public UserController(UserClient userClient, Validator validator) {
         this.userClient = userClient;
+        this.validator = validator;
     }
 
     @PostMapping
-    public ResponseEntity<Object> createUser(@Valid @RequestBody UserDto userDto) {
+    public Mono<ResponseEntity<Object>> createUser(@Valid @RequestBody UserDto userDto) {
         log.info("Запрос на добавление пользователя");
         return userClient.addUser(userDto);
     }
 
+    /*@Valid не проверяет элементы списка в теле, поэтому каждый пользователь проверяется отдельно*/
+    @PostMapping("/batch")
+    public Mono<ResponseEntity<Object>> createUsers(@RequestBody List<UserDto> userDtos) {
+        log.info("Запрос на добавление {} пользователей", userDtos.size());
+        if (userDtos.isEmpty() || userDtos.size() > MAX_IMPORT_SIZE) {
+            throw new ValidationException("За один запрос можно добавить от 1 до " + MAX_IMPORT_SIZE +
+                    " пользователей");
+        }
+        for (UserDto userDto : userDtos) {
+            Set<ConstraintViolation<UserDto>> violations = validator.validate(userDto);
+            if (!violations.isEmpty()) {
+                throw new ValidationException(violations.iterator().next().getMessage());
+            }
+        }
+        return userClient.addUsers(userDtos);
+    }
+
     @GetMapping("/{id}")
-    public ResponseEntity<Object> getUserById(@PathVariable("id") long id) {
+    public Mono<ResponseEntity<Object>> getUserById(@PathVariable("id") long id,
+                                                    @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false)
+                                                    String ifNoneMatch) {
         log.info("Запрос на показ пользователя c id = " + id);
-        return userClient.getUserById(id);
+        return userClient.getUserById(id, ifNoneMatch);
     }
 
     @PatchMapping("/{id}")
-    public ResponseEntity<Object> updateUser(@RequestBody UserDto userDto, @PathVariable("id") long id) {
+    public Mono<ResponseEntity<Object>> updateUser(@RequestBody UserDto userDto, @PathVariable("id") long id) {
         log.info("Запрос на обновление пользователя");
         return userClient.updateUser(id, userDto);
     }
 
     @DeleteMapping("/{id}")
-    public ResponseEntity<Object> deleteUser(@PathVariable("id") long id) {
+    public Mono<ResponseEntity<Object>> deleteUser(@PathVariable("id") long id) {
         log.info("Запрос на удаление пользователя с id = " + id);
         return userClient.delUserById(id);
     }
 
     @GetMapping
-    public ResponseEntity<Object> getAllUsers() {
-        log.info("Текущие пользователи: {}", userClient.getUsers());
+    public Mono<ResponseEntity<Object>> getAllUsers() {
+        log.info("Запрос на вывод всех пользователей");
         return userClient.getUsers();
     }
 }
@@ -0,0 +1,206 @@
+package ru.practicum.gateway.client;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+public class BaseClientTest {
+
+    static class TestClient extends BaseClient {
+
+        TestClient(ClientResponse response) {
+            this(Mono.just(response), new SimpleMeterRegistry());
+        }
+
+        TestClient(Mono<ClientResponse> response, MeterRegistry meterRegistry) {
+            super(WebClient.builder()
+                    .exchangeFunction(request -> response)
+                    .build(), "/bookings", meterRegistry);
+        }
+
+        ResponseEntity<Object> getBookings() {
+            return get("", 1L).block();
+        }
+
+        ResponseEntity<Object> approveBooking(long bookingId) {
+            return patch("/" + bookingId + "?approved={approved}", 1L, Map.of("approved", true), null).block();
+        }
+    }
+
+    static class ConditionalClient extends BaseClient {
+
+        final List<ClientRequest> requests;
+
+        ConditionalClient(List<ClientRequest> requests, Iterator<ClientResponse> responses) {
+            super(WebClient.builder()
+                    .exchangeFunction(request -> {
+                        requests.add(request);
+                        return Mono.just(responses.next());
+                    })
+                    .build(), "/items", new SimpleMeterRegistry(), new EtagCache(100, new SimpleMeterRegistry()));
+            this.requests = requests;
+        }
+
+        ResponseEntity<Object> getItem(String ifNoneMatch) {
+            return getConditional("/1", 1L, ifNoneMatch).block();
+        }
+    }
+
+    @Test
+    void serverResponseIsPassedThroughAsBytes() {
+        String json = "[{\"id\":1,\"start\":\"2023-10-10T10:10:30\"}]";
+        TestClient client = new TestClient(ClientResponse.create(HttpStatus.OK)
+                .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .header(HttpHeaders.TRANSFER_ENCODING, "chunked")
+                .header("x-http2-stream-id", "3")
+                .header("X-Total-Count", "1")
+                .body(json)
+                .build());
+
+        ResponseEntity<Object> response = client.getBookings();
+
+        Assertions.assertEquals(HttpStatus.OK, response.getStatusCode());
+        Assertions.assertArrayEquals(json.getBytes(StandardCharsets.UTF_8), (byte[]) response.getBody());
+        Assertions.assertEquals(MediaType.APPLICATION_JSON, response.getHeaders().getContentType());
+        Assertions.assertEquals("1", response.getHeaders().getFirst("X-Total-Count"));
+        Assertions.assertFalse(response.getHeaders().containsKey(HttpHeaders.TRANSFER_ENCODING));
+        Assertions.assertFalse(response.getHeaders().containsKey("x-http2-stream-id"));
+    }
+
+    @Test
+    void errorResponseKeepsStatusAndBody() {
+        String json = "{\"error\":\"Пользователь с id = 99 не найден\"}";
+        TestClient client = new TestClient(ClientResponse.create(HttpStatus.NOT_FOUND)
+                .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .body(json)
+                .build());
+
+        ResponseEntity<Object> response = client.getBookings();
+
+        Assertions.assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+        Assertions.assertArrayEquals(json.getBytes(StandardCharsets.UTF_8), (byte[]) response.getBody());
+    }
+
+    @Test
+    void emptyResponseHasNoBody() {
+        TestClient client = new TestClient(ClientResponse.create(HttpStatus.OK).build());
+
+        ResponseEntity<Object> response = client.getBookings();
+
+        Assertions.assertEquals(HttpStatus.OK, response.getStatusCode());
+        Assertions.assertFalse(response.hasBody());
+    }
+
+    @Test
+    void upstreamCallIsTimedByPathTemplateAndStatus() {
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        TestClient client = new TestClient(Mono.just(ClientResponse.create(HttpStatus.NOT_FOUND).build()),
+                meterRegistry);
+
+        client.approveBooking(42);
+        client.approveBooking(43);
+
+        Timer timer = meterRegistry.find(BaseClient.UPSTREAM_TIMER)
+                .tags("method", "PATCH", "path", "/bookings/{id}", "status", "404")
+                .timer();
+        Assertions.assertNotNull(timer);
+        Assertions.assertEquals(2, timer.count());
+    }
+
+    @Test
+    void failedUpstreamCallIsTimedAsClientError() {
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        TestClient client = new TestClient(Mono.error(new IOException("Connection refused")), meterRegistry);
+
+        Assertions.assertThrows(RuntimeException.class, client::getBookings);
+
+        Timer timer = meterRegistry.find(BaseClient.UPSTREAM_TIMER)
+                .tags("method", "GET", "path", "/bookings", "status", "CLIENT_ERROR")
+                .timer();
+        Assertions.assertNotNull(timer);
+        Assertions.assertEquals(1, timer.count());
+    }
+
+    @Test
+    void notModifiedFromServerIsAnsweredWithCachedBody() {
+        String json = "{\"id\":1,\"name\":\"Дрель\"}";
+        ConditionalClient client = new ConditionalClient(new ArrayList<>(), List.of(
+                ClientResponse.create(HttpStatus.OK)
+                        .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                        .header(HttpHeaders.ETAG, "\"v1\"")
+                        .body(json)
+                        .build(),
+                ClientResponse.create(HttpStatus.NOT_MODIFIED)
+                        .header(HttpHeaders.ETAG, "\"v1\"")
+                        .build()).iterator());
+
+        client.getItem(null);
+        ResponseEntity<Object> response = client.getItem(null);
+
+        Assertions.assertNull(client.requests.get(0).headers().getFirst(HttpHeaders.IF_NONE_MATCH));
+        Assertions.assertEquals("\"v1\"", client.requests.get(1).headers().getFirst(HttpHeaders.IF_NONE_MATCH));
+        Assertions.assertEquals(HttpStatus.OK, response.getStatusCode());
+        Assertions.assertArrayEquals(json.getBytes(StandardCharsets.UTF_8), (byte[]) response.getBody());
+        Assertions.assertEquals("\"v1\"", response.getHeaders().getETag());
+        Assertions.assertEquals(MediaType.APPLICATION_JSON, response.getHeaders().getContentType());
+    }
+
+    @Test
+    void matchingClientEtagIsAnsweredWithNotModified() {
+        ConditionalClient client = new ConditionalClient(new ArrayList<>(), List.of(
+                ClientResponse.create(HttpStatus.OK)
+                        .header(HttpHeaders.ETAG, "\"v1\"")
+                        .body("{}")
+                        .build(),
+                ClientResponse.create(HttpStatus.NOT_MODIFIED).build(),
+                ClientResponse.create(HttpStatus.OK)
+                        .header(HttpHeaders.ETAG, "\"v2\"")
+                        .body("{\"id\":1}")
+                        .build()).iterator());
+
+        ResponseEntity<Object> first = client.getItem("\"v1\"");
+        ResponseEntity<Object> second = client.getItem("W/\"v0\", \"v1\"");
+        ResponseEntity<Object> changed = client.getItem("\"v1\"");
+
+        Assertions.assertEquals(HttpStatus.NOT_MODIFIED, first.getStatusCode());
+        Assertions.assertEquals(HttpStatus.NOT_MODIFIED, second.getStatusCode());
+        Assertions.assertFalse(second.hasBody());
+        Assertions.assertEquals(HttpStatus.OK, changed.getStatusCode());
+        Assertions.assertEquals("\"v2\"", changed.getHeaders().getETag());
+    }
+
+    @Test
+    void errorResponseRemovesCachedEntry() {
+        ConditionalClient client = new ConditionalClient(new ArrayList<>(), List.of(
+                ClientResponse.create(HttpStatus.OK)
+                        .header(HttpHeaders.ETAG, "\"v1\"")
+                        .body("{}")
+                        .build(),
+                ClientResponse.create(HttpStatus.NOT_FOUND).body("{}").build(),
+                ClientResponse.create(HttpStatus.NOT_FOUND).body("{}").build()).iterator());
+
+        client.getItem(null);
+        client.getItem(null);
+        ResponseEntity<Object> response = client.getItem(null);
+
+        Assertions.assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+        Assertions.assertNull(client.requests.get(2).headers().getFirst(HttpHeaders.IF_NONE_MATCH));
+    }
+}
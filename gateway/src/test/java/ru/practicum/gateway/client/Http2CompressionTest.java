@@ -0,0 +1,106 @@
+package ru.practicum.gateway.client;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.embedded.tomcat.TomcatServletWebServerFactory;
+import org.springframework.boot.web.server.Compression;
+import org.springframework.boot.web.server.Http2;
+import org.springframework.boot.web.server.WebServer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.util.unit.DataSize;
+import ru.practicum.gateway.item.ItemClient;
+
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/*Настройки по умолчанию: шлюз с протоколом H2C и сжатием против Tomcat с теми же server.http2.enabled
+и server.compression.*, что у сервера. Сервер здесь - встроенный Tomcat с одним сервлетом,
+который отдает список предметов больше порога сжатия*/
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+public class Http2CompressionTest {
+
+    private static final String ITEMS = IntStream.rangeClosed(1, 50)
+            .mapToObj(id -> "{\"id\":" + id + ",\"name\":\"Дрель " + id + "\"," +
+                    "\"description\":\"Аккумуляторная дрель с двумя батареями\",\"available\":true}")
+            .collect(Collectors.joining(",", "[", "]"));
+
+    /*Что увидел сервер: протокол запроса, Accept-Encoding и Content-Encoding своего ответа*/
+    private static final Map<String, String> SEEN = new ConcurrentHashMap<>();
+
+    private static WebServer server;
+
+    @Autowired
+    ItemClient itemClient;
+
+    @BeforeAll
+    static void startServer() {
+        TomcatServletWebServerFactory factory = new TomcatServletWebServerFactory(0);
+        Http2 http2 = new Http2();
+        http2.setEnabled(true);
+        factory.setHttp2(http2);
+        Compression compression = new Compression();
+        compression.setEnabled(true);
+        compression.setMimeTypes(new String[]{MediaType.APPLICATION_JSON_VALUE});
+        compression.setMinResponseSize(DataSize.ofKilobytes(2));
+        factory.setCompression(compression);
+        server = factory.getWebServer(context -> context.addServlet("items", new ItemsServlet())
+                .addMapping("/items"));
+        server.start();
+    }
+
+    @AfterAll
+    static void stopServer() {
+        server.stop();
+    }
+
+    @DynamicPropertySource
+    static void serverUrl(DynamicPropertyRegistry registry) {
+        registry.add("shareit-server.url", () -> "http://localhost:" + server.getPort());
+    }
+
+    @Test
+    void largeListIsFetchedOverH2cWithGzip() {
+        Assertions.assertTrue(ITEMS.getBytes(StandardCharsets.UTF_8).length > 2048);
+
+        ResponseEntity<Object> response = itemClient.getUserItems(1L).block();
+
+        Assertions.assertEquals(HttpStatus.OK, response.getStatusCode());
+        Assertions.assertEquals(ITEMS, new String((byte[]) response.getBody(), StandardCharsets.UTF_8));
+        Assertions.assertEquals("HTTP/2.0", SEEN.get("protocol"));
+        Assertions.assertTrue(SEEN.get("accept-encoding").contains("gzip"), SEEN.get("accept-encoding"));
+        Assertions.assertEquals("gzip", SEEN.get("content-encoding"));
+        /*Тело уже распаковано, заголовок сжатия клиенту шлюза не передается*/
+        Assertions.assertNull(response.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+    }
+
+    static class ItemsServlet extends HttpServlet {
+
+        @Override
+        protected void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
+            SEEN.put("protocol", request.getProtocol());
+            SEEN.put("accept-encoding", String.valueOf(request.getHeader(HttpHeaders.ACCEPT_ENCODING)));
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+            response.getWriter().write(ITEMS);
+            /*Tomcat решает о сжатии при отправке заголовков, после этого решение видно в ответе*/
+            response.flushBuffer();
+            SEEN.put("content-encoding", String.valueOf(response.getHeader(HttpHeaders.CONTENT_ENCODING)));
+        }
+    }
+}
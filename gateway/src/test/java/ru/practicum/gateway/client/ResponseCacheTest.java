@@ -0,0 +1,72 @@
+package ru.practicum.gateway.client;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class ResponseCacheTest {
+
+    AtomicLong nanos = new AtomicLong();
+
+    ResponseCache cache = new ResponseCache(100, Duration.ofSeconds(5), new SimpleMeterRegistry(), nanos::get);
+
+    AtomicInteger calls = new AtomicInteger();
+
+    @Test
+    void concurrentMissesShareOneServerCall() {
+        Sinks.One<ResponseEntity<Object>> server = Sinks.one();
+        String key = ResponseCache.key("/items/search", null, Map.of("text", "дрель"));
+
+        Mono<ResponseEntity<Object>> first = cache.get(key, () -> call(server.asMono()));
+        Mono<ResponseEntity<Object>> second = cache.get(key, () -> call(server.asMono()));
+        first.subscribe();
+        second.subscribe();
+        server.tryEmitValue(ResponseEntity.ok("[]"));
+
+        Assertions.assertEquals("[]", first.block().getBody());
+        Assertions.assertEquals("[]", second.block().getBody());
+        Assertions.assertEquals(1, calls.get());
+    }
+
+    @Test
+    void errorResponsesAreNotCached() {
+        String key = ResponseCache.key("/requests/all", 1L, Map.of());
+
+        ResponseEntity<Object> response = cache.get(key,
+                () -> call(Mono.just(ResponseEntity.status(HttpStatus.NOT_FOUND).build()))).block();
+        cache.get(key, () -> call(Mono.just(ResponseEntity.ok("[]")))).block();
+
+        Assertions.assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+        Assertions.assertEquals(2, calls.get());
+    }
+
+    @Test
+    void responseExpiresAfterTtl() {
+        String key = ResponseCache.key("/search", 1L, Map.of("text", ResponseCache.normalizeText("  Дрель  УДАРНАЯ ")));
+        Assertions.assertEquals(key, ResponseCache.key("/search", 1L, Map.of("text", "дрель ударная")));
+
+        cache.get(key, () -> call(Mono.just(ResponseEntity.ok("[]")))).block();
+        nanos.addAndGet(TimeUnit.SECONDS.toNanos(4));
+        cache.get(key, () -> call(Mono.just(ResponseEntity.ok("[]")))).block();
+        Assertions.assertEquals(1, calls.get());
+
+        nanos.addAndGet(TimeUnit.SECONDS.toNanos(2));
+        cache.get(key, () -> call(Mono.just(ResponseEntity.ok("[]")))).block();
+        Assertions.assertEquals(2, calls.get());
+    }
+
+    private Mono<ResponseEntity<Object>> call(Mono<ResponseEntity<Object>> response) {
+        calls.incrementAndGet();
+        return response;
+    }
+}
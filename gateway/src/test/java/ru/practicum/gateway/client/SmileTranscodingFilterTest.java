@@ -0,0 +1,73 @@
+package ru.practicum.gateway.client;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+public class SmileTranscodingFilterTest {
+
+    List<ClientRequest> requests = new ArrayList<>();
+
+    @Test
+    void smileResponseIsPassedOnAsJson() throws Exception {
+        List<Map<String, Object>> bookings = List.of(
+                Map.of("id", 1, "start", "2023-10-10T10:10:30", "status", "APPROVED", "price", 12.5),
+                Map.of("id", 2, "start", "2023-10-11T10:10:30", "status", "WAITING", "price", 7));
+        byte[] smile = new SmileMapper().writeValueAsBytes(bookings);
+
+        ResponseEntity<String> response = client(ClientResponse.create(HttpStatus.OK)
+                .header(HttpHeaders.CONTENT_TYPE, SmileTranscodingFilter.APPLICATION_SMILE.toString())
+                .header(HttpHeaders.CONTENT_LENGTH, String.valueOf(smile.length))
+                .body(Flux.just(DefaultDataBufferFactory.sharedInstance.wrap(smile)))
+                .build());
+
+        Assertions.assertEquals(SmileTranscodingFilter.APPLICATION_SMILE,
+                requests.get(0).headers().getAccept().get(0));
+        Assertions.assertEquals(MediaType.APPLICATION_JSON, response.getHeaders().getContentType());
+        Assertions.assertFalse(response.getHeaders().containsKey(HttpHeaders.CONTENT_LENGTH));
+        Assertions.assertEquals(bookings, new ObjectMapper().readValue(response.getBody(), List.class));
+    }
+
+    @Test
+    void jsonResponseIsPassedOnUnchanged() {
+        String json = "{\"error\":\"Бронирование не найдено\"}";
+
+        ResponseEntity<String> response = client(ClientResponse.create(HttpStatus.NOT_FOUND)
+                .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .body(json)
+                .build());
+
+        Assertions.assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+        Assertions.assertEquals(json, response.getBody());
+    }
+
+    private ResponseEntity<String> client(ClientResponse serverResponse) {
+        return WebClient.builder()
+                .exchangeFunction(request -> {
+                    requests.add(request);
+                    return Mono.just(serverResponse);
+                })
+                .filter(new SmileTranscodingFilter())
+                .build()
+                .get()
+                .uri("/bookings")
+                .accept(MediaType.APPLICATION_JSON)
+                .exchangeToMono(response -> response.toEntity(String.class))
+                .block();
+    }
+}
@@ -0,0 +1,105 @@
+package ru.practicum.gateway.client;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.timelimiter.TimeLimiter;
+import io.github.resilience4j.timelimiter.TimeLimiterConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import ru.practicum.gateway.exceptions.GatewayTimeoutException;
+import ru.practicum.gateway.exceptions.ServiceUnavailableException;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+public class UpstreamGuardTest {
+
+    static class GuardedClient extends BaseClient {
+
+        GuardedClient(Supplier<Mono<ClientResponse>> responses, UpstreamGuard guard) {
+            super(WebClient.builder()
+                    .exchangeFunction(request -> responses.get())
+                    .build(), "/bookings", new SimpleMeterRegistry(), null, guard);
+        }
+
+        Mono<ResponseEntity<Object>> getBookings() {
+            return get("", 1L);
+        }
+    }
+
+    CircuitBreaker circuitBreaker = CircuitBreaker.of("bookings", CircuitBreakerConfig.custom()
+            .slidingWindowSize(4)
+            .minimumNumberOfCalls(4)
+            .failureRateThreshold(50)
+            .waitDurationInOpenState(Duration.ofSeconds(30))
+            .build());
+
+    AtomicInteger calls = new AtomicInteger();
+
+    @Test
+    void serverErrorsOpenCircuitAndLaterCallsFailFast() {
+        GuardedClient client = new GuardedClient(() -> {
+            calls.incrementAndGet();
+            return Mono.just(ClientResponse.create(HttpStatus.INTERNAL_SERVER_ERROR).body("{}").build());
+        }, guard(10, Duration.ofSeconds(1)));
+
+        for (int i = 0; i < 4; i++) {
+            Assertions.assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, client.getBookings().block().getStatusCode());
+        }
+        ServiceUnavailableException e = Assertions.assertThrows(ServiceUnavailableException.class,
+                () -> client.getBookings().block());
+
+        Assertions.assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+        Assertions.assertEquals(30, e.getRetryAfterSeconds());
+        Assertions.assertEquals(4, calls.get());
+    }
+
+    @Test
+    void overloadResponseFromServerDoesNotOpenCircuit() {
+        GuardedClient client = new GuardedClient(
+                () -> Mono.just(ClientResponse.create(HttpStatus.SERVICE_UNAVAILABLE).build()),
+                guard(10, Duration.ofSeconds(1)));
+
+        for (int i = 0; i < 6; i++) {
+            Assertions.assertEquals(HttpStatus.SERVICE_UNAVAILABLE, client.getBookings().block().getStatusCode());
+        }
+
+        Assertions.assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+    }
+
+    @Test
+    void callsOverBulkheadLimitAreRejected() {
+        GuardedClient client = new GuardedClient(Mono::never, guard(1, Duration.ofSeconds(10)));
+
+        client.getBookings().subscribe();
+
+        Assertions.assertThrows(ServiceUnavailableException.class, () -> client.getBookings().block());
+        Assertions.assertEquals(0, circuitBreaker.getMetrics().getNumberOfFailedCalls());
+    }
+
+    @Test
+    void slowCallIsCancelledByTimeout() {
+        GuardedClient client = new GuardedClient(Mono::never, guard(10, Duration.ofMillis(50)));
+
+        Assertions.assertThrows(GatewayTimeoutException.class, () -> client.getBookings().block());
+        Assertions.assertEquals(1, circuitBreaker.getMetrics().getNumberOfFailedCalls());
+    }
+
+    private UpstreamGuard guard(int maxConcurrentCalls, Duration timeout) {
+        return new UpstreamGuard(circuitBreaker,
+                Bulkhead.of("bookings", BulkheadConfig.custom()
+                        .maxConcurrentCalls(maxConcurrentCalls)
+                        .maxWaitDuration(Duration.ZERO)
+                        .build()),
+                TimeLimiter.of(TimeLimiterConfig.custom().timeoutDuration(timeout).build()));
+    }
+}
@@ -2,14 +2,19 @@ package ru.practicum.shareit.booking;
 
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.web.bind.annotation.*;
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.IncomingBookingDto;
 import ru.practicum.shareit.booking.model.State;
 import ru.practicum.shareit.booking.service.BookingService;
 import ru.practicum.shareit.exceptions.ServerErrorException;
+import ru.practicum.shareit.exceptions.ValidationException;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 
 @Slf4j
 @RestController
@@ -37,6 +42,13 @@ public class BookingController {
         return bookingService.changeApproveStatus(ownerId, bookingId, approved);
     }
 
+    @PatchMapping
+    public List<BookingDto> approveBookings(@RequestHeader("X-Sharer-User-Id") long ownerId,
+                                            @RequestBody List<BookingDecisionDto> decisions) {
+        log.info("Изменение статусов нескольких запросов хозяином предметов");
+        return bookingService.changeApproveStatuses(ownerId, decisions);
+    }
+
     @GetMapping("/{bookingId}")
     public BookingDto getBookingById(@RequestHeader("X-Sharer-User-Id") long id, @PathVariable long bookingId) {
         log.info("Запрос на вывод бронирования с id = " + bookingId);
@@ -47,21 +59,49 @@ public class BookingController {
     public List<BookingDto> getBookingForBooker(@RequestHeader("X-Sharer-User-Id") long bookerId,
                                                 @RequestParam(defaultValue = "ALL") String state,
                                                 @RequestParam(required = false) Integer from,
-                                                @RequestParam(required = false) Integer size) {
+                                                @RequestParam(required = false) Integer size,
+                                                @RequestParam(required = false)
+                                                @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+                                                LocalDateTime cursorStart,
+                                                @RequestParam(required = false) Long cursorId) {
         log.info("Запрос на вывод бронирований для арендатора");
         State bookingState = State.from(state)
                 .orElseThrow(() -> new ServerErrorException("Unknown state: " + state));
+        if (hasCursor(cursorStart, cursorId)) {
+            return bookingService.getBookingByBookerAfter(bookerId, bookingState, cursorStart, cursorId, size);
+        }
         return bookingService.getBookingByBooker(bookerId, bookingState, from, size);
     }
 
+    @GetMapping("/owner/counts")
+    public Map<State, Long> getBookingCountsForOwner(@RequestHeader("X-Sharer-User-Id") long ownerId) {
+        log.info("Запрос на подсчет бронирований арендодателя с id = {} по состояниям", ownerId);
+        return bookingService.getBookingCountsByOwner(ownerId);
+    }
+
     @GetMapping("/owner")
     public List<BookingDto> getBookingForOwner(@RequestHeader("X-Sharer-User-Id") long ownerId,
                                                @RequestParam(defaultValue = "ALL") String state,
                                                @RequestParam(required = false) Integer from,
-                                               @RequestParam(required = false) Integer size) {
+                                               @RequestParam(required = false) Integer size,
+                                               @RequestParam(required = false)
+                                               @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+                                               LocalDateTime cursorStart,
+                                               @RequestParam(required = false) Long cursorId) {
         log.info("Запрос на вывод бронирований для арендодателя");
         State bookingState = State.from(state)
                 .orElseThrow(() -> new ServerErrorException("Unknown state: " + state));
+        if (hasCursor(cursorStart, cursorId)) {
+            return bookingService.getBookingByOwnerAfter(ownerId, bookingState, cursorStart, cursorId, size);
+        }
         return bookingService.getBookingByOwner(ownerId, bookingState, from, size);
     }
+
+    /*Только одна половина курсора - ошибка клиента, а не запрос списка без курсора*/
+    private static boolean hasCursor(LocalDateTime cursorStart, Long cursorId) {
+        if ((cursorStart == null) != (cursorId == null)) {
+            throw new ValidationException("cursorStart и cursorId указываются вместе");
+        }
+        return cursorStart != null;
+    }
 }
@@ -0,0 +1,22 @@
+package ru.practicum.shareit.booking.interval;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+@Getter
+@AllArgsConstructor
+public class BookingInterval {
+
+    private long bookingId;
+
+    private LocalDateTime start;
+
+    private LocalDateTime end;
+
+    /*Периоды полуоткрытые: бронирование может начаться в момент окончания предыдущего*/
+    public boolean overlaps(LocalDateTime otherStart, LocalDateTime otherEnd) {
+        return start.isBefore(otherEnd) && otherStart.isBefore(end);
+    }
+}
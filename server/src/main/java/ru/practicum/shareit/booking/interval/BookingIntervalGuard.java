@@ -0,0 +1,21 @@
+package ru.practicum.shareit.booking.interval;
+
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.Status;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+public interface BookingIntervalGuard {
+
+    Set<Status> ACTIVE_STATUSES = Set.of(Status.WAITING, Status.APPROVED);
+
+    /*Сохраняет бронирование. Бронирование в статусе WAITING или APPROVED не должно
+    пересекаться с другими такими же бронированиями предмета, иначе IsExistException*/
+    Booking save(Booking booking);
+
+    /*Меняет статусы уже сохраненных бронирований одним пакетом, statuses - новый статус по id бронирования.
+    Проверка пересечений та же, что и в save*/
+    void updateStatuses(List<Booking> bookings, Map<Long, Status> statuses);
+}
@@ -0,0 +1,189 @@
+package ru.practicum.shareit.booking.interval;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.Status;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.exceptions.IsExistException;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/*Индекс периодов бронирований в памяти процесса для H2, где нет exclusion constraint.
+Для каждого предмета хранится свой индекс и своя блокировка, поэтому бронирования
+разных предметов не ждут друг друга*/
+@Component
+@ConditionalOnProperty(name = "shareit.booking.interval-guard", havingValue = "memory")
+public class InMemoryBookingIntervalGuard implements BookingIntervalGuard {
+
+    private final BookingRepository bookingRepository;
+    private final Map<Long, ItemIntervals> items = new ConcurrentHashMap<>();
+
+    @Autowired
+    public InMemoryBookingIntervalGuard(BookingRepository bookingRepository) {
+        this.bookingRepository = bookingRepository;
+    }
+
+    @Override
+    public Booking save(Booking booking) {
+        ItemIntervals intervals = intervals(booking.getItem().getId());
+        synchronized (intervals) {
+            if (!ACTIVE_STATUSES.contains(booking.getStatus())) {
+                Booking bookingStorage = bookingRepository.save(booking);
+                afterCommit(() -> intervals.remove(bookingStorage.getId()));
+                return bookingStorage;
+            }
+            if (intervals.contains(booking.getId())) {
+                return bookingRepository.save(booking);
+            }
+            checkNoOverlap(intervals, booking);
+            Booking bookingStorage = bookingRepository.save(booking);
+            reserve(intervals, new BookingInterval(bookingStorage.getId(),
+                    bookingStorage.getStart(), bookingStorage.getEnd()));
+            return bookingStorage;
+        }
+    }
+
+    /*Периоды занимаются и освобождаются по предметам под их блокировками,
+    а статусы затем записываются одним пакетом*/
+    @Override
+    public void updateStatuses(List<Booking> bookings, Map<Long, Status> statuses) {
+        for (Booking booking : bookings) {
+            ItemIntervals intervals = intervals(booking.getItem().getId());
+            synchronized (intervals) {
+                if (!ACTIVE_STATUSES.contains(statuses.get(booking.getId()))) {
+                    afterCommit(() -> intervals.remove(booking.getId()));
+                } else if (!intervals.contains(booking.getId())) {
+                    checkNoOverlap(intervals, booking);
+                    reserve(intervals, new BookingInterval(booking.getId(), booking.getStart(), booking.getEnd()));
+                }
+            }
+        }
+        bookingRepository.updateStatuses(statuses);
+    }
+
+    private void checkNoOverlap(ItemIntervals intervals, Booking booking) {
+        if (findOverlap(intervals, booking.getStart(), booking.getEnd()) != null) {
+            throw new IsExistException("Предмет с id = " + booking.getItem().getId() +
+                    " уже забронирован на это время");
+        }
+    }
+
+    /*Период занимается до коммита, чтобы параллельная транзакция его увидела,
+    и освобождается, если транзакция откатится*/
+    private static void reserve(ItemIntervals intervals, BookingInterval interval) {
+        intervals.add(interval, true);
+        afterCompletion(committed -> {
+            if (committed) {
+                intervals.commit(interval.getBookingId());
+            } else {
+                intervals.remove(interval.getBookingId());
+            }
+        });
+    }
+
+    private ItemIntervals intervals(long itemId) {
+        ItemIntervals intervals = items.get(itemId);
+        if (intervals != null) {
+            return intervals;
+        }
+        ItemIntervals loaded = new ItemIntervals();
+        bookingRepository.findItemActiveIntervals(itemId).forEach(interval -> loaded.add(interval, false));
+        intervals = items.putIfAbsent(itemId, loaded);
+        return intervals != null ? intervals : loaded;
+    }
+
+    /*Бронирования удаляются из базы каскадно вместе с пользователем или предметом,
+    поэтому найденное пересечение с уже закоммиченным бронированием перепроверяется*/
+    private BookingInterval findOverlap(ItemIntervals intervals, LocalDateTime start, LocalDateTime end) {
+        BookingInterval overlap = intervals.findOverlap(start, end);
+        while (overlap != null && !intervals.isPending(overlap.getBookingId()) &&
+                !bookingRepository.existsById(overlap.getBookingId())) {
+            intervals.remove(overlap.getBookingId());
+            overlap = intervals.findOverlap(start, end);
+        }
+        return overlap;
+    }
+
+    private static void afterCommit(Runnable action) {
+        afterCompletion(committed -> {
+            if (committed) {
+                action.run();
+            }
+        });
+    }
+
+    private static void afterCompletion(CompletionAction action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run(true);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                action.run(status == STATUS_COMMITTED);
+            }
+        });
+    }
+
+    private interface CompletionAction {
+        void run(boolean committed);
+    }
+
+    /*Действующие бронирования предмета не пересекаются, поэтому упорядоченных по началу
+    периодов достаточно: пересечься с новым периодом может только последний период,
+    начавшийся раньше его конца*/
+    private static class ItemIntervals {
+
+        private final NavigableMap<LocalDateTime, BookingInterval> byStart = new TreeMap<>();
+        private final Map<Long, BookingInterval> byBookingId = new HashMap<>();
+        private final Set<Long> pending = new HashSet<>();
+
+        synchronized BookingInterval findOverlap(LocalDateTime start, LocalDateTime end) {
+            Map.Entry<LocalDateTime, BookingInterval> previous = byStart.lowerEntry(end);
+            if (previous != null && previous.getValue().overlaps(start, end)) {
+                return previous.getValue();
+            }
+            return null;
+        }
+
+        synchronized boolean contains(long bookingId) {
+            return byBookingId.containsKey(bookingId);
+        }
+
+        synchronized boolean isPending(long bookingId) {
+            return pending.contains(bookingId);
+        }
+
+        synchronized void add(BookingInterval interval, boolean uncommitted) {
+            byStart.put(interval.getStart(), interval);
+            byBookingId.put(interval.getBookingId(), interval);
+            if (uncommitted) {
+                pending.add(interval.getBookingId());
+            }
+        }
+
+        synchronized void commit(long bookingId) {
+            pending.remove(bookingId);
+        }
+
+        synchronized void remove(long bookingId) {
+            BookingInterval interval = byBookingId.remove(bookingId);
+            if (interval != null) {
+                byStart.remove(interval.getStart(), interval);
+            }
+            pending.remove(bookingId);
+        }
+    }
+}
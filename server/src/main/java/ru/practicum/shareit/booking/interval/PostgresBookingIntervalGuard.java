@@ -0,0 +1,62 @@
+package ru.practicum.shareit.booking.interval;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.Status;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.exceptions.IsExistException;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+
+/*Пересечения отсекает exclusion constraint booking_no_overlap (GiST по item_id и tsrange),
+поэтому параллельные вставки для одного предмета не требуют блокировок в приложении*/
+@Component
+@ConditionalOnProperty(name = "shareit.booking.interval-guard", havingValue = "postgres", matchIfMissing = true)
+public class PostgresBookingIntervalGuard implements BookingIntervalGuard {
+
+    private static final String EXCLUSION_VIOLATION = "23P01";
+
+    private final BookingRepository bookingRepository;
+
+    @Autowired
+    public PostgresBookingIntervalGuard(BookingRepository bookingRepository) {
+        this.bookingRepository = bookingRepository;
+    }
+
+    @Override
+    public Booking save(Booking booking) {
+        try {
+            return bookingRepository.saveAndFlush(booking);
+        } catch (DataIntegrityViolationException e) {
+            if (isExclusionViolation(e)) {
+                throw new IsExistException("Предмет с id = " + booking.getItem().getId() +
+                        " уже забронирован на это время");
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public void updateStatuses(List<Booking> bookings, Map<Long, Status> statuses) {
+        try {
+            bookingRepository.updateStatuses(statuses);
+        } catch (DataIntegrityViolationException e) {
+            if (isExclusionViolation(e)) {
+                throw new IsExistException("Одно из бронирований пересекается с другим бронированием " +
+                        "того же предмета");
+            }
+            throw e;
+        }
+    }
+
+    private static boolean isExclusionViolation(DataIntegrityViolationException e) {
+        Throwable cause = NestedExceptionUtils.getMostSpecificCause(e);
+        return cause instanceof SQLException && EXCLUSION_VIOLATION.equals(((SQLException) cause).getSQLState());
+    }
+}
@@ -0,0 +1,14 @@
+package ru.practicum.shareit.booking.repository;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/*Бронирования арендодателя, которые еще не закончились: active - текущие и будущие вместе, future - только будущие*/
+@Getter
+@AllArgsConstructor
+public class ActiveBookingCounts {
+
+    private long active;
+
+    private long future;
+}
@@ -2,102 +2,216 @@ package ru.practicum.shareit.booking.repository;
 
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import ru.practicum.shareit.booking.interval.BookingInterval;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.Status;
 
+import javax.persistence.LockModeType;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface BookingRepository extends JpaRepository<Booking, Long> {
+public interface BookingRepository extends JpaRepository<Booking, Long>, BookingRepositoryCustom {
 
     Booking findById(long id);
 
+    /*Решение по бронированию читает статус под блокировкой строки: иначе два параллельных подтверждения
+    одного WAITING оба прошли бы проверку и дважды изменили сводку booking_owner_summary*/
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT b FROM Booking AS b WHERE b.id = ?1")
+    Booking findByIdForUpdate(long id);
+
+    /*Строки блокируются в порядке id, чтобы пакеты решений с общими бронированиями не ждали друг друга по кругу*/
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT b FROM Booking AS b JOIN FETCH b.item JOIN FETCH b.booker " +
+            "WHERE b.id IN ?1 " +
+            "ORDER BY b.id")
+    List<Booking> findAllWithItemAndBookerByIdIn(Collection<Long> ids);
+
+    /*В запросах списков предмет и арендатор загружаются тем же запросом через JOIN FETCH,
+    иначе каждая строка страницы порождает отдельные select по items и users*/
+    @Query("SELECT b FROM Booking AS b JOIN FETCH b.item AS i JOIN FETCH b.booker " +
+            "WHERE b.booker.id = ?1 " +
+            "ORDER BY b.start DESC")
     List<Booking> findAllByBookerIdOrderByStartDesc(long bookerId);
 
     /*Запросы для арендатора с пагинацией*/
-    @Query("SELECT b FROM Booking AS b " +
+    @Query("SELECT b FROM Booking AS b JOIN FETCH b.item AS i JOIN FETCH b.booker " +
             "WHERE b.booker.id = ?1 AND ?2 BETWEEN b.start AND b.end " +
             "ORDER BY b.start DESC")
     List<Booking> findAllByBookerCurrent(long id, LocalDateTime dateTime, Pageable pageable);
 
+    @Query("SELECT b FROM Booking AS b JOIN FETCH b.item AS i JOIN FETCH b.booker " +
+            "WHERE b.booker.id = ?1 AND b.end < ?2 " +
+            "ORDER BY b.start DESC")
     List<Booking> findAllByBookerIdAndEndBeforeOrderByStartDesc(long id, LocalDateTime dateTime, Pageable pageable);
 
+    @Query("SELECT b FROM Booking AS b JOIN FETCH b.item AS i JOIN FETCH b.booker " +
+            "WHERE b.booker.id = ?1 AND b.start > ?2 " +
+            "ORDER BY b.start DESC")
     List<Booking> findAllByBookerIdAndStartAfterOrderByStartDesc(long id, LocalDateTime dateTime, Pageable pageable);
 
+    @Query("SELECT b FROM Booking AS b JOIN FETCH b.item AS i JOIN FETCH b.booker " +
+            "WHERE b.booker.id = ?1 AND b.status = ?2 " +
+            "ORDER BY b.start DESC")
     List<Booking> findAllByBookerIdAndStatusOrderByStartDesc(long bookerId, Status status, Pageable pageable);
 
+    @Query("SELECT b FROM Booking AS b JOIN FETCH b.item AS i JOIN FETCH b.booker " +
+            "WHERE b.booker.id = ?1 " +
+            "ORDER BY b.start DESC")
     List<Booking> findAllByBookerIdOrderByStartDesc(long bookerId, Pageable pageable);
 
     /*Запросы для арендатора без пагинации*/
-    @Query("SELECT b FROM Booking AS b " +
+    @Query("SELECT b FROM Booking AS b JOIN FETCH b.item AS i JOIN FETCH b.booker " +
             "WHERE b.booker.id = ?1 AND ?2 BETWEEN b.start AND b.end " +
             "ORDER BY b.start DESC")
     List<Booking> findAllByBookerCurrent(long id, LocalDateTime dateTime);
 
+    @Query("SELECT b FROM Booking AS b JOIN FETCH b.item AS i JOIN FETCH b.booker " +
+            "WHERE b.booker.id = ?1 AND b.end < ?2 " +
+            "ORDER BY b.start DESC")
     List<Booking> findAllByBookerIdAndEndBeforeOrderByStartDesc(long id, LocalDateTime dateTime);
 
+    @Query("SELECT b FROM Booking AS b JOIN FETCH b.item AS i JOIN FETCH b.booker " +
+            "WHERE b.booker.id = ?1 AND b.start > ?2 " +
+            "ORDER BY b.start DESC")
     List<Booking> findAllByBookerIdAndStartAfterOrderByStartDesc(long id, LocalDateTime dateTime);
 
+    @Query("SELECT b FROM Booking AS b JOIN FETCH b.item AS i JOIN FETCH b.booker " +
+            "WHERE b.booker.id = ?1 AND b.status = ?2 " +
+            "ORDER BY b.start DESC")
     List<Booking> findAllByBookerIdAndStatusOrderByStartDesc(long bookerId, Status status);
 
 
     /*Запросы для арендодателя с пагинацией*/
-    @Query("SELECT b FROM Booking AS b " +
-            "WHERE b.item.owner.id = ?1 " +
+    @Query("SELECT b FROM Booking AS b JOIN FETCH b.item AS i JOIN FETCH b.booker " +
+            "WHERE i.owner.id = ?1 " +
             "ORDER BY b.start DESC")
     List<Booking> findAllBookingByOwner(long id, Pageable pageable);
 
-    @Query("SELECT b FROM Booking AS b " +
-            "WHERE b.item.owner.id = ?1 AND ?2 BETWEEN b.start AND b.end " +
+    @Query("SELECT b FROM Booking AS b JOIN FETCH b.item AS i JOIN FETCH b.booker " +
+            "WHERE i.owner.id = ?1 AND ?2 BETWEEN b.start AND b.end " +
             "ORDER BY b.start DESC")
     List<Booking> findCurrentBookingByOwner(long id, LocalDateTime dateTime, Pageable pageable);
 
-    @Query("SELECT b FROM Booking AS b " +
-            "WHERE b.item.owner.id = ?1 AND ?2 < b.start " +
+    @Query("SELECT b FROM Booking AS b JOIN FETCH b.item AS i JOIN FETCH b.booker " +
+            "WHERE i.owner.id = ?1 AND ?2 < b.start " +
             "ORDER BY b.start DESC")
     List<Booking> findFutureBookingByOwner(long id, LocalDateTime dateTime, Pageable pageable);
 
-    @Query("SELECT b FROM Booking AS b " +
-            "WHERE b.item.owner.id = ?1 AND ?2 > b.end " +
+    @Query("SELECT b FROM Booking AS b JOIN FETCH b.item AS i JOIN FETCH b.booker " +
+            "WHERE i.owner.id = ?1 AND ?2 > b.end " +
             "ORDER BY b.start DESC")
     List<Booking> findPastBookingByOwner(long id, LocalDateTime dateTime, Pageable pageable);
 
-    @Query("SELECT b FROM Booking AS b " +
-            "WHERE b.item.owner.id = ?1 AND b.status = ?2 " +
+    @Query("SELECT b FROM Booking AS b JOIN FETCH b.item AS i JOIN FETCH b.booker " +
+            "WHERE i.owner.id = ?1 AND b.status = ?2 " +
             "ORDER BY b.start DESC")
     List<Booking> findBookingByOwnerIdAndStatus(long id, Status status, Pageable pageable);
 
     /*Запросы для арендодателя без пагинации*/
-    @Query("SELECT b FROM Booking AS b " +
-            "WHERE b.item.owner.id = ?1 " +
+    @Query("SELECT b FROM Booking AS b JOIN FETCH b.item AS i JOIN FETCH b.booker " +
+            "WHERE i.owner.id = ?1 " +
             "ORDER BY b.start DESC")
     List<Booking> findAllBookingByOwner(long id);
 
-    @Query("SELECT b FROM Booking AS b " +
-            "WHERE b.item.owner.id = ?1 AND ?2 BETWEEN b.start AND b.end " +
+    @Query("SELECT b FROM Booking AS b JOIN FETCH b.item AS i JOIN FETCH b.booker " +
+            "WHERE i.owner.id = ?1 AND ?2 BETWEEN b.start AND b.end " +
             "ORDER BY b.start DESC")
     List<Booking> findCurrentBookingByOwner(long id, LocalDateTime dateTime);
 
-    @Query("SELECT b FROM Booking AS b " +
-            "WHERE b.item.owner.id = ?1 AND ?2 < b.start " +
+    @Query("SELECT b FROM Booking AS b JOIN FETCH b.item AS i JOIN FETCH b.booker " +
+            "WHERE i.owner.id = ?1 AND ?2 < b.start " +
             "ORDER BY b.start DESC")
     List<Booking> findFutureBookingByOwner(long id, LocalDateTime dateTime);
 
-    @Query("SELECT b FROM Booking AS b " +
-            "WHERE b.item.owner.id = ?1 AND ?2 > b.end " +
+    @Query("SELECT b FROM Booking AS b JOIN FETCH b.item AS i JOIN FETCH b.booker " +
+            "WHERE i.owner.id = ?1 AND ?2 > b.end " +
             "ORDER BY b.start DESC")
     List<Booking> findPastBookingByOwner(long id, LocalDateTime dateTime);
 
-    @Query("SELECT b FROM Booking AS b " +
-            "WHERE b.item.owner.id = ?1 AND b.status = ?2 " +
+    @Query("SELECT b FROM Booking AS b JOIN FETCH b.item AS i JOIN FETCH b.booker " +
+            "WHERE i.owner.id = ?1 AND b.status = ?2 " +
             "ORDER BY b.start DESC")
     List<Booking> findBookingByOwnerIdAndStatus(long id, Status status);
 
 
+    /*Запросы для арендатора с курсором (start, id) последней полученной записи*/
+    @Query("SELECT b FROM Booking AS b JOIN FETCH b.item AS i JOIN FETCH b.booker " +
+            "WHERE b.booker.id = ?1 " +
+            "AND (b.start < ?2 OR (b.start = ?2 AND b.id < ?3)) " +
+            "ORDER BY b.start DESC, b.id DESC")
+    List<Booking> findBookerBookingsAfter(long id, LocalDateTime cursorStart, long cursorId, Pageable pageable);
+
+    @Query("SELECT b FROM Booking AS b JOIN FETCH b.item AS i JOIN FETCH b.booker " +
+            "WHERE b.booker.id = ?1 AND ?2 BETWEEN b.start AND b.end " +
+            "AND (b.start < ?3 OR (b.start = ?3 AND b.id < ?4)) " +
+            "ORDER BY b.start DESC, b.id DESC")
+    List<Booking> findBookerCurrentBookingsAfter(long id, LocalDateTime dateTime,
+                                                 LocalDateTime cursorStart, long cursorId, Pageable pageable);
+
+    @Query("SELECT b FROM Booking AS b JOIN FETCH b.item AS i JOIN FETCH b.booker " +
+            "WHERE b.booker.id = ?1 AND ?2 > b.end " +
+            "AND (b.start < ?3 OR (b.start = ?3 AND b.id < ?4)) " +
+            "ORDER BY b.start DESC, b.id DESC")
+    List<Booking> findBookerPastBookingsAfter(long id, LocalDateTime dateTime,
+                                              LocalDateTime cursorStart, long cursorId, Pageable pageable);
+
+    @Query("SELECT b FROM Booking AS b JOIN FETCH b.item AS i JOIN FETCH b.booker " +
+            "WHERE b.booker.id = ?1 AND ?2 < b.start " +
+            "AND (b.start < ?3 OR (b.start = ?3 AND b.id < ?4)) " +
+            "ORDER BY b.start DESC, b.id DESC")
+    List<Booking> findBookerFutureBookingsAfter(long id, LocalDateTime dateTime,
+                                                LocalDateTime cursorStart, long cursorId, Pageable pageable);
+
+    @Query("SELECT b FROM Booking AS b JOIN FETCH b.item AS i JOIN FETCH b.booker " +
+            "WHERE b.booker.id = ?1 AND b.status = ?2 " +
+            "AND (b.start < ?3 OR (b.start = ?3 AND b.id < ?4)) " +
+            "ORDER BY b.start DESC, b.id DESC")
+    List<Booking> findBookerBookingsByStatusAfter(long id, Status status,
+                                                  LocalDateTime cursorStart, long cursorId, Pageable pageable);
+
+    /*Запросы для арендодателя с курсором (start, id) последней полученной записи*/
+    @Query("SELECT b FROM Booking AS b JOIN FETCH b.item AS i JOIN FETCH b.booker " +
+            "WHERE i.owner.id = ?1 " +
+            "AND (b.start < ?2 OR (b.start = ?2 AND b.id < ?3)) " +
+            "ORDER BY b.start DESC, b.id DESC")
+    List<Booking> findOwnerBookingsAfter(long id, LocalDateTime cursorStart, long cursorId, Pageable pageable);
+
+    @Query("SELECT b FROM Booking AS b JOIN FETCH b.item AS i JOIN FETCH b.booker " +
+            "WHERE i.owner.id = ?1 AND ?2 BETWEEN b.start AND b.end " +
+            "AND (b.start < ?3 OR (b.start = ?3 AND b.id < ?4)) " +
+            "ORDER BY b.start DESC, b.id DESC")
+    List<Booking> findOwnerCurrentBookingsAfter(long id, LocalDateTime dateTime,
+                                                LocalDateTime cursorStart, long cursorId, Pageable pageable);
+
+    @Query("SELECT b FROM Booking AS b JOIN FETCH b.item AS i JOIN FETCH b.booker " +
+            "WHERE i.owner.id = ?1 AND ?2 > b.end " +
+            "AND (b.start < ?3 OR (b.start = ?3 AND b.id < ?4)) " +
+            "ORDER BY b.start DESC, b.id DESC")
+    List<Booking> findOwnerPastBookingsAfter(long id, LocalDateTime dateTime,
+                                             LocalDateTime cursorStart, long cursorId, Pageable pageable);
+
+    @Query("SELECT b FROM Booking AS b JOIN FETCH b.item AS i JOIN FETCH b.booker " +
+            "WHERE i.owner.id = ?1 AND ?2 < b.start " +
+            "AND (b.start < ?3 OR (b.start = ?3 AND b.id < ?4)) " +
+            "ORDER BY b.start DESC, b.id DESC")
+    List<Booking> findOwnerFutureBookingsAfter(long id, LocalDateTime dateTime,
+                                               LocalDateTime cursorStart, long cursorId, Pageable pageable);
+
+    @Query("SELECT b FROM Booking AS b JOIN FETCH b.item AS i JOIN FETCH b.booker " +
+            "WHERE i.owner.id = ?1 AND b.status = ?2 " +
+            "AND (b.start < ?3 OR (b.start = ?3 AND b.id < ?4)) " +
+            "ORDER BY b.start DESC, b.id DESC")
+    List<Booking> findOwnerBookingsByStatusAfter(long id, Status status,
+                                                 LocalDateTime cursorStart, long cursorId, Pageable pageable);
+
+
     @Query(value = "SELECT b.* FROM booking AS b " +
             "WHERE b.item_id = ?1 " +
             "AND ?2 > b.start_time AND b.status = 'APPROVED' " +
@@ -112,8 +226,47 @@ public interface BookingRepository extends JpaRepository<Booking, Long> {
             "LIMIT 1", nativeQuery = true)
     Optional<Booking> findItemNextBooking(long id, LocalDateTime dateTime);
 
-    @Query("SELECT b FROM Booking AS b " +
-            "WHERE b.item.id = ?1 AND b.booker.id = ?2 " +
-            "AND ?3 > b.end")
-    List<Booking> findFinishedBookingsByItem(long itemId, long bookerId, LocalDateTime dateTime);
+    /*Те же условия, что в findItemLastBooking и findItemNextBooking, но одним запросом и только id*/
+    @Query(value = "SELECT " +
+            "(SELECT b.id FROM booking AS b " +
+            "WHERE b.item_id = ?1 AND ?2 > b.start_time AND b.status = 'APPROVED' " +
+            "ORDER BY b.start_time DESC LIMIT 1) AS lastId, " +
+            "(SELECT b.id FROM booking AS b " +
+            "WHERE b.item_id = ?1 AND ?2 < b.start_time AND b.status = 'APPROVED' " +
+            "ORDER BY b.start_time LIMIT 1) AS nextId", nativeQuery = true)
+    ItemBookingIds findItemBookingIds(long id, LocalDateTime dateTime);
+
+    /*Последнее и следующее бронирование сразу для списка вещей*/
+    @Query("SELECT b FROM Booking AS b JOIN FETCH b.booker " +
+            "WHERE b.item.id IN ?1 AND b.status = ru.practicum.shareit.booking.model.Status.APPROVED " +
+            "AND b.start = (SELECT MAX(lb.start) FROM Booking AS lb " +
+            "WHERE lb.item.id = b.item.id AND lb.status = ru.practicum.shareit.booking.model.Status.APPROVED " +
+            "AND lb.start < ?2)")
+    List<Booking> findItemsLastBookings(Collection<Long> itemIds, LocalDateTime dateTime);
+
+    @Query("SELECT b FROM Booking AS b JOIN FETCH b.booker " +
+            "WHERE b.item.id IN ?1 AND b.status = ru.practicum.shareit.booking.model.Status.APPROVED " +
+            "AND b.start = (SELECT MIN(nb.start) FROM Booking AS nb " +
+            "WHERE nb.item.id = b.item.id AND nb.status = ru.practicum.shareit.booking.model.Status.APPROVED " +
+            "AND nb.start > ?2)")
+    List<Booking> findItemsNextBookings(Collection<Long> itemIds, LocalDateTime dateTime);
+
+    /*Есть ли у арендатора закончившееся бронирование предмета. Строки бронирований не загружаются,
+    запрос останавливается на первой найденной*/
+    boolean existsByItemIdAndBookerIdAndEndBefore(long itemId, long bookerId, LocalDateTime dateTime);
+
+    /*Периоды бронирований предмета, которые занимают его время*/
+    @Query("SELECT new ru.practicum.shareit.booking.interval.BookingInterval(b.id, b.start, b.end) " +
+            "FROM Booking AS b " +
+            "WHERE b.item.id = ?1 AND b.status IN (ru.practicum.shareit.booking.model.Status.WAITING, " +
+            "ru.practicum.shareit.booking.model.Status.APPROVED)")
+    List<BookingInterval> findItemActiveIntervals(long itemId);
+
+    /*Счетчики для GET /bookings/owner/counts. Закончившиеся бронирования не читаются:
+    прошедшие считаются как разность общего числа из сводки и этих счетчиков*/
+    @Query("SELECT new ru.practicum.shareit.booking.repository.ActiveBookingCounts(COUNT(b), " +
+            "COALESCE(SUM(CASE WHEN b.start > ?2 THEN 1 ELSE 0 END), 0)) " +
+            "FROM Booking AS b " +
+            "WHERE b.item.owner.id = ?1 AND b.end >= ?2")
+    ActiveBookingCounts countActiveBookingsByOwner(long id, LocalDateTime dateTime);
 }
@@ -0,0 +1,12 @@
+package ru.practicum.shareit.booking.repository;
+
+import ru.practicum.shareit.booking.model.Status;
+
+import java.util.Map;
+
+public interface BookingRepositoryCustom {
+
+    /*Меняет статусы бронирований одним пакетным UPDATE в обход JPA.
+    Загруженные в текущей транзакции сущности после этого хранят прежний статус*/
+    void updateStatuses(Map<Long, Status> statuses);
+}
@@ -0,0 +1,26 @@
+package ru.practicum.shareit.booking.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.booking.model.Status;
+
+import java.util.Map;
+
+public class BookingRepositoryCustomImpl implements BookingRepositoryCustom {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public BookingRepositoryCustomImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void updateStatuses(Map<Long, Status> statuses) {
+        jdbcTemplate.batchUpdate("UPDATE booking SET status = ? WHERE id = ?", statuses.entrySet(), statuses.size(),
+                (statement, status) -> {
+                    statement.setString(1, status.getValue().name());
+                    statement.setLong(2, status.getKey());
+                });
+    }
+}
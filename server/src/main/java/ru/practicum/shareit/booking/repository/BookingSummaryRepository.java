@@ -0,0 +1,93 @@
+package ru.practicum.shareit.booking.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import ru.practicum.shareit.booking.model.Status;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/*Сводная таблица booking_owner_summary: число бронирований арендодателя в каждом статусе.
+Обновляется вместе с бронированиями в той же транзакции, поэтому подсчет по статусам
+не читает сами бронирования. Если бронирования менялись в обход сервисов, таблицу пересчитывает rebuild()*/
+@Repository
+public class BookingSummaryRepository {
+
+    private static final String POSTGRES_UPSERT = "INSERT INTO booking_owner_summary (owner_id, status, bookings) " +
+            "VALUES (?, ?, ?) " +
+            "ON CONFLICT (owner_id, status) DO UPDATE SET bookings = booking_owner_summary.bookings + EXCLUDED.bookings";
+    /*PostgreSQL 13 не поддерживает MERGE, а H2 не поддерживает ON CONFLICT*/
+    private static final String MERGE_UPSERT = "MERGE INTO booking_owner_summary AS s " +
+            "USING (VALUES (CAST(? AS BIGINT), CAST(? AS VARCHAR(55)), CAST(? AS BIGINT))) " +
+            "AS d (owner_id, status, delta) " +
+            "ON s.owner_id = d.owner_id AND s.status = d.status " +
+            "WHEN MATCHED THEN UPDATE SET bookings = s.bookings + d.delta " +
+            "WHEN NOT MATCHED THEN INSERT (owner_id, status, bookings) VALUES (d.owner_id, d.status, d.delta)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManager entityManager;
+    private final String upsert;
+
+    @Autowired
+    public BookingSummaryRepository(JdbcTemplate jdbcTemplate, EntityManager entityManager,
+                                    @Value("${spring.sql.init.platform}") String platform) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.entityManager = entityManager;
+        this.upsert = "postgresql".equals(platform) ? POSTGRES_UPSERT : MERGE_UPSERT;
+    }
+
+    public Map<Status, Long> findCounts(long ownerId) {
+        Map<Status, Long> counts = new EnumMap<>(Status.class);
+        jdbcTemplate.query("SELECT status, bookings FROM booking_owner_summary WHERE owner_id = ?",
+                resultSet -> {
+                    counts.put(Status.valueOf(resultSet.getString("status")), resultSet.getLong("bookings"));
+                }, ownerId);
+        return counts;
+    }
+
+    /*deltas - изменение числа бронирований арендодателя по статусам, нулевые изменения пропускаются*/
+    public void changeCounts(long ownerId, Map<Status, Long> deltas) {
+        List<Object[]> rows = new ArrayList<>();
+        deltas.forEach((status, delta) -> {
+            if (delta != 0) {
+                rows.add(new Object[]{ownerId, status.name(), delta});
+            }
+        });
+        if (!rows.isEmpty()) {
+            /*Пользователи и вещи читаются из кэша второго уровня без запроса, который сбросил бы
+            несохраненные вставки, а строка сводки ссылается на пользователя внешним ключом*/
+            entityManager.flush();
+            jdbcTemplate.batchUpdate(upsert, rows);
+        }
+    }
+
+    /*Бронирования арендатора удаляются каскадно вместе с ним, поэтому их нужно вычесть из сводки владельцев.
+    Сначала бронирования блокируются: иначе параллельное подтверждение успеет сменить статус после подсчета,
+    и из сводки вычтется уже неверный статус*/
+    public void removeBookingsOfBooker(long bookerId) {
+        entityManager.flush();
+        jdbcTemplate.queryForList("SELECT id FROM booking WHERE booker = ? FOR UPDATE", Long.class, bookerId);
+        List<Object[]> rows = jdbcTemplate.query("SELECT i.owner, b.status, COUNT(*) FROM booking AS b " +
+                        "JOIN items AS i ON i.id = b.item_id " +
+                        "WHERE b.booker = ? " +
+                        "GROUP BY i.owner, b.status",
+                (resultSet, rowNum) -> new Object[]{resultSet.getLong(1), resultSet.getString(2),
+                        -resultSet.getLong(3)}, bookerId);
+        if (!rows.isEmpty()) {
+            jdbcTemplate.batchUpdate(upsert, rows);
+        }
+    }
+
+    public void rebuild() {
+        jdbcTemplate.update("DELETE FROM booking_owner_summary");
+        jdbcTemplate.update("INSERT INTO booking_owner_summary (owner_id, status, bookings) " +
+                "SELECT i.owner, b.status, COUNT(*) FROM booking AS b " +
+                "JOIN items AS i ON i.id = b.item_id " +
+                "GROUP BY i.owner, b.status");
+    }
+}
@@ -0,0 +1,9 @@
+package ru.practicum.shareit.booking.repository;
+
+/*id последнего и следующего подтвержденных бронирований предмета, null - если такого нет*/
+public interface ItemBookingIds {
+
+    Long getLastId();
+
+    Long getNextId();
+}
@@ -1,17 +1,25 @@
 package ru.practicum.shareit.booking.service;
 
+import io.micrometer.core.annotation.Timed;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.IncomingBookingDto;
+import ru.practicum.shareit.booking.interval.BookingIntervalGuard;
 import ru.practicum.shareit.booking.mapper.BookingMapper;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.State;
 import ru.practicum.shareit.booking.model.Status;
+import ru.practicum.shareit.booking.repository.ActiveBookingCounts;
 import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.repository.BookingSummaryRepository;
+import ru.practicum.shareit.booking.repository.OffsetPageRequest;
+import ru.practicum.shareit.config.MetricsConfig;
 import ru.practicum.shareit.exceptions.AvailableException;
 import ru.practicum.shareit.exceptions.NotFoundException;
 import ru.practicum.shareit.exceptions.ValidationException;
@@ -24,23 +32,32 @@ import ru.practicum.shareit.user.repository.UserRepository;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
+@Timed(MetricsConfig.SERVICE_TIMER)
 @Transactional(readOnly = true)
 public class BookingService {
 
     private final BookingRepository bookingRepository;
     private final UserRepository userRepository;
     private final ItemRepository itemRepository;
+    private final BookingIntervalGuard bookingIntervalGuard;
+    private final BookingSummaryRepository bookingSummaryRepository;
 
     @Autowired
     public BookingService(BookingRepository bookingRepository, UserRepository userRepository,
-                          ItemRepository itemRepository) {
+                          ItemRepository itemRepository, BookingIntervalGuard bookingIntervalGuard,
+                          BookingSummaryRepository bookingSummaryRepository) {
         this.bookingRepository = bookingRepository;
         this.userRepository = userRepository;
         this.itemRepository = itemRepository;
+        this.bookingIntervalGuard = bookingIntervalGuard;
+        this.bookingSummaryRepository = bookingSummaryRepository;
     }
 
     @Transactional
@@ -69,7 +86,8 @@ public class BookingService {
                     " недоступен для бронирования");
         }
         Booking booking = BookingMapper.toBooking(incomingBookingDto, item, user, Status.WAITING);
-        Booking bookingStorage = bookingRepository.save(booking);
+        Booking bookingStorage = bookingIntervalGuard.save(booking);
+        bookingSummaryRepository.changeCounts(item.getOwner().getId(), Map.of(Status.WAITING, 1L));
         return BookingMapper.toBookingDto(bookingStorage, ItemMapper.toItemDto(item), UserMapper.toShortUserDto(user));
     }
 
@@ -79,7 +97,7 @@ public class BookingService {
         if (user == null) {
             throw new NotFoundException("Арендодатель с id = " + ownerId + " не найден");
         }
-        Booking booking = bookingRepository.findById(bookingId);
+        Booking booking = bookingRepository.findByIdForUpdate(bookingId);
         if (booking == null) {
             throw new NotFoundException("Запрос с id = " + ownerId + " не найден");
         }
@@ -91,16 +109,88 @@ public class BookingService {
             throw new NotFoundException("У пользователя с id = " + user.getId() + " не найден такой предмет");
         }
         User booker = booking.getBooker();
+        Status previousStatus = booking.getStatus();
         if (approved) {
             booking.setStatus(Status.APPROVED);
         } else {
             booking.setStatus(Status.REJECTED);
         }
-        Booking bookingStorage = bookingRepository.save(booking);
+        Booking bookingStorage = bookingIntervalGuard.save(booking);
+        bookingSummaryRepository.changeCounts(user.getId(), statusChange(previousStatus, booking.getStatus()));
         return BookingMapper.toBookingDto(bookingStorage, ItemMapper.toItemDto(booking.getItem()),
                 UserMapper.toShortUserDto(booker));
     }
 
+    /*Решения владельца по нескольким бронированиям: бронирования с предметами загружаются одним запросом с IN,
+    статусы записываются одним пакетным UPDATE. Если хотя бы одно решение недопустимо, не меняется ни один статус*/
+    @Transactional
+    public List<BookingDto> changeApproveStatuses(long ownerId, List<BookingDecisionDto> decisions) {
+        User user = userRepository.findById(ownerId);
+        if (user == null) {
+            throw new NotFoundException("Арендодатель с id = " + ownerId + " не найден");
+        }
+        if (decisions.isEmpty()) {
+            throw new ValidationException("Список решений по бронированиям пуст");
+        }
+        Map<Long, Status> statuses = new LinkedHashMap<>();
+        for (BookingDecisionDto decision : decisions) {
+            Status status = decision.isApproved() ? Status.APPROVED : Status.REJECTED;
+            if (statuses.put(decision.getBookingId(), status) != null) {
+                throw new ValidationException("Решение по бронированию с id = " + decision.getBookingId() +
+                        " указано несколько раз");
+            }
+        }
+        Map<Long, Booking> bookings = bookingRepository.findAllWithItemAndBookerByIdIn(statuses.keySet()).stream()
+                .collect(Collectors.toMap(Booking::getId, booking -> booking));
+        for (Long bookingId : statuses.keySet()) {
+            Booking booking = bookings.get(bookingId);
+            if (booking == null) {
+                throw new NotFoundException("Запрос с id = " + bookingId + " не найден");
+            }
+            if (booking.getStatus() == Status.APPROVED) {
+                throw new ValidationException("Статус бронирования с id = " + bookingId + " уже подтвержден");
+            }
+            if (booking.getItem().getOwner().getId() != user.getId()) {
+                throw new NotFoundException("У пользователя с id = " + user.getId() + " не найден такой предмет");
+            }
+        }
+        bookingIntervalGuard.updateStatuses(new ArrayList<>(bookings.values()), statuses);
+        Map<Status, Long> deltas = new EnumMap<>(Status.class);
+        statuses.forEach((bookingId, status) -> statusChange(bookings.get(bookingId).getStatus(), status)
+                .forEach((changedStatus, delta) -> deltas.merge(changedStatus, delta, Long::sum)));
+        bookingSummaryRepository.changeCounts(user.getId(), deltas);
+        /*Сущности не меняются, чтобы Hibernate не повторил UPDATE при коммите*/
+        return statuses.entrySet().stream()
+                .map(status -> {
+                    Booking booking = bookings.get(status.getKey());
+                    BookingDto bookingDto = BookingMapper.toBookingDto(booking,
+                            ItemMapper.toItemDto(booking.getItem()), UserMapper.toShortUserDto(booking.getBooker()));
+                    bookingDto.setStatus(status.getValue());
+                    return bookingDto;
+                })
+                .collect(Collectors.toList());
+    }
+
+    /*Число бронирований арендодателя для каждого State одним обращением: ALL, WAITING и REJECTED берутся
+    из сводной таблицы, CURRENT и FUTURE считаются по незакончившимся бронированиям, PAST - остаток*/
+    public Map<State, Long> getBookingCountsByOwner(long ownerId) {
+        User user = userRepository.findById(ownerId);
+        if (user == null) {
+            throw new NotFoundException("Пользователь с id = " + ownerId + " не найден");
+        }
+        Map<Status, Long> statusCounts = bookingSummaryRepository.findCounts(ownerId);
+        ActiveBookingCounts activeCounts = bookingRepository.countActiveBookingsByOwner(ownerId, LocalDateTime.now());
+        long all = statusCounts.values().stream().mapToLong(Long::longValue).sum();
+        Map<State, Long> counts = new EnumMap<>(State.class);
+        counts.put(State.ALL, all);
+        counts.put(State.CURRENT, activeCounts.getActive() - activeCounts.getFuture());
+        counts.put(State.PAST, all - activeCounts.getActive());
+        counts.put(State.FUTURE, activeCounts.getFuture());
+        counts.put(State.WAITING, statusCounts.getOrDefault(Status.WAITING, 0L));
+        counts.put(State.REJECTED, statusCounts.getOrDefault(Status.REJECTED, 0L));
+        return counts;
+    }
+
     public BookingDto getBookingById(long userId, long bookingId) {
         Booking booking = bookingRepository.findById(bookingId);
         if (booking == null) {
@@ -151,9 +241,85 @@ public class BookingService {
         return toListBookingDto(bookings);
     }
 
+    public List<BookingDto> getBookingByBookerAfter(long bookerId, State state, LocalDateTime cursorStart,
+                                                    long cursorId, Integer size) {
+        User user = userRepository.findById(bookerId);
+        if (user == null) {
+            throw new NotFoundException("Пользователь с id = " + bookerId + " не найден");
+        }
+        validateCursorPageSize(size);
+        Pageable pageable = PageRequest.of(0, size);
+        List<Booking> bookings = new ArrayList<>();
+
+        switch (state) {
+            case ALL:
+                bookings = bookingRepository.findBookerBookingsAfter(bookerId, cursorStart, cursorId, pageable);
+                break;
+            case CURRENT:
+                bookings = bookingRepository.findBookerCurrentBookingsAfter(bookerId, LocalDateTime.now(),
+                        cursorStart, cursorId, pageable);
+                break;
+            case PAST:
+                bookings = bookingRepository.findBookerPastBookingsAfter(bookerId, LocalDateTime.now(),
+                        cursorStart, cursorId, pageable);
+                break;
+            case FUTURE:
+                bookings = bookingRepository.findBookerFutureBookingsAfter(bookerId, LocalDateTime.now(),
+                        cursorStart, cursorId, pageable);
+                break;
+            case WAITING:
+                bookings = bookingRepository.findBookerBookingsByStatusAfter(bookerId, Status.WAITING,
+                        cursorStart, cursorId, pageable);
+                break;
+            case REJECTED:
+                bookings = bookingRepository.findBookerBookingsByStatusAfter(bookerId, Status.REJECTED,
+                        cursorStart, cursorId, pageable);
+                break;
+        }
+        return toListBookingDto(bookings);
+    }
+
+    public List<BookingDto> getBookingByOwnerAfter(long ownerId, State state, LocalDateTime cursorStart,
+                                                   long cursorId, Integer size) {
+        User user = userRepository.findById(ownerId);
+        if (user == null) {
+            throw new NotFoundException("Пользователь с id = " + ownerId + " не найден");
+        }
+        validateCursorPageSize(size);
+        Pageable pageable = PageRequest.of(0, size);
+        List<Booking> bookings = new ArrayList<>();
+
+        switch (state) {
+            case ALL:
+                bookings = bookingRepository.findOwnerBookingsAfter(ownerId, cursorStart, cursorId, pageable);
+                break;
+            case CURRENT:
+                bookings = bookingRepository.findOwnerCurrentBookingsAfter(ownerId, LocalDateTime.now(),
+                        cursorStart, cursorId, pageable);
+                break;
+            case PAST:
+                bookings = bookingRepository.findOwnerPastBookingsAfter(ownerId, LocalDateTime.now(),
+                        cursorStart, cursorId, pageable);
+                break;
+            case FUTURE:
+                bookings = bookingRepository.findOwnerFutureBookingsAfter(ownerId, LocalDateTime.now(),
+                        cursorStart, cursorId, pageable);
+                break;
+            case WAITING:
+                bookings = bookingRepository.findOwnerBookingsByStatusAfter(ownerId, Status.WAITING,
+                        cursorStart, cursorId, pageable);
+                break;
+            case REJECTED:
+                bookings = bookingRepository.findOwnerBookingsByStatusAfter(ownerId, Status.REJECTED,
+                        cursorStart, cursorId, pageable);
+                break;
+        }
+        return toListBookingDto(bookings);
+    }
+
     private List<Booking> getBookingByBookerWithPaginated(long bookerId, State state, Integer from, Integer size) {
         List<Booking> bookings = new ArrayList<>();
-        Pageable pageable = PageRequest.of(from / size, size);
+        Pageable pageable = new OffsetPageRequest(from, size, Sort.by(Sort.Direction.DESC, "id"));
 
         switch (state) {
             case ALL:
@@ -211,7 +377,7 @@ public class BookingService {
 
     private List<Booking> getBookingByOwnerWithPaginated(long ownerId, State state, Integer from, Integer size) {
         List<Booking> bookings = new ArrayList<>();
-        Pageable pageable = PageRequest.of(from / size, size);
+        Pageable pageable = new OffsetPageRequest(from, size, Sort.by(Sort.Direction.DESC, "id"));
 
         switch (state) {
             case ALL:
@@ -264,6 +430,12 @@ public class BookingService {
         return bookings;
     }
 
+    private void validateCursorPageSize(Integer size) {
+        if (size == null || size <= 0) {
+            throw new ValidationException("Ошибка в значениях пагинации: size должен быть больше 0");
+        }
+    }
+
     private List<BookingDto> toListBookingDto(List<Booking> bookings) {
         return bookings.stream()
                 .map(booking -> BookingMapper.toBookingDto(
@@ -273,4 +445,14 @@ public class BookingService {
                 ))
                 .collect(Collectors.toList());
     }
+
+    /*Изменение сводки арендодателя, когда одно бронирование переходит из статуса from в статус to*/
+    private static Map<Status, Long> statusChange(Status from, Status to) {
+        Map<Status, Long> deltas = new EnumMap<>(Status.class);
+        if (from != to) {
+            deltas.put(from, -1L);
+            deltas.put(to, 1L);
+        }
+        return deltas;
+    }
 }
@@ -0,0 +1,100 @@
+package ru.practicum.shareit.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.JCacheMetrics;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cache.jcache.internal.JCacheRegionFactory;
+import org.hibernate.cache.spi.RegionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.UUID;
+
+/*Кэш второго уровня Hibernate на Caffeine через JCache. Пользователи, предметы и запросы кэшируются
+по первичному ключу (READ_WRITE, с учетом @Version), выборки предметов владельца и предметов по запросу
+кэшируются в кэше запросов. Размер и время жизни задаются для каждого региона в
+shareit.cache.regions.<регион>.*, по умолчанию берутся shareit.cache.maximum-size и expire-after-write.
+Hibernate не видит изменений, сделанных в обход него (JdbcTemplate, ON DELETE CASCADE),
+такие изменения не должны касаться закэшированных таблиц или должны сопровождаться очисткой регионов*/
+@Configuration
+public class CacheConfig {
+
+    public static final String USERS = "users";
+    public static final String ITEMS = "items";
+    public static final String ITEM_REQUESTS = "item-requests";
+    public static final String ITEMS_BY_OWNER = "items-by-owner";
+    public static final String ITEMS_BY_REQUEST = "items-by-request";
+
+    private static final List<String> REGIONS = List.of(USERS, ITEMS, ITEM_REQUESTS, ITEMS_BY_OWNER, ITEMS_BY_REQUEST,
+            RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME);
+
+    /*Провайдер отдает один менеджер на URI во всей JVM, поэтому URI у каждого контекста свой,
+    иначе контексты с разными базами делили бы кэш*/
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(name = "shareit.cache.enabled", havingValue = "true", matchIfMissing = true)
+    public CacheManager hibernateCacheManager(Environment environment, MeterRegistry meterRegistry,
+                                              @Value("${shareit.cache.maximum-size:10000}") long maximumSize,
+                                              @Value("${shareit.cache.expire-after-write:10m}") Duration expireAfterWrite) {
+        CacheManager cacheManager = Caching.getCachingProvider(CaffeineCachingProvider.class.getName())
+                .getCacheManager(URI.create("shareit-" + UUID.randomUUID()), getClass().getClassLoader());
+        for (String region : REGIONS) {
+            String prefix = "shareit.cache.regions." + region;
+            cacheManager.createCache(region, regionConfiguration(
+                    OptionalLong.of(environment.getProperty(prefix + ".maximum-size", Long.class, maximumSize)),
+                    OptionalLong.of(environment.getProperty(prefix + ".expire-after-write", Duration.class,
+                            expireAfterWrite).toNanos())));
+            JCacheMetrics.monitor(meterRegistry, cacheManager.getCache(region));
+        }
+        /*Метки последних изменений таблиц нельзя вытеснять, иначе кэш запросов отдаст устаревший результат*/
+        cacheManager.createCache(RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME,
+                regionConfiguration(OptionalLong.empty(), OptionalLong.empty()));
+        return cacheManager;
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "shareit.cache.enabled", havingValue = "true", matchIfMissing = true)
+    public HibernatePropertiesCustomizer secondLevelCacheCustomizer(CacheManager hibernateCacheManager) {
+        return properties -> {
+            properties.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, true);
+            properties.put(AvailableSettings.USE_QUERY_CACHE, true);
+            properties.put(AvailableSettings.CACHE_REGION_FACTORY, JCacheRegionFactory.class.getName());
+            properties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+            properties.put(ConfigSettings.MISSING_CACHE_STRATEGY, "fail");
+        };
+    }
+
+    /*Без явного запрета Hibernate включает кэш сам: hibernate-jcache лежит в classpath, а сущности помечены @Cache.
+    Регионы тогда создаются в общем для JVM менеджере с настройками по умолчанию*/
+    @Bean
+    @ConditionalOnProperty(name = "shareit.cache.enabled", havingValue = "false")
+    public HibernatePropertiesCustomizer disabledSecondLevelCacheCustomizer() {
+        return properties -> {
+            properties.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, false);
+            properties.put(AvailableSettings.USE_QUERY_CACHE, false);
+        };
+    }
+
+    /*Hibernate сам копирует состояние сущностей в записи кэша, поэтому копия по значению не нужна*/
+    private static CaffeineConfiguration<Object, Object> regionConfiguration(OptionalLong maximumSize,
+                                                                             OptionalLong expireAfterWriteNanos) {
+        CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+        configuration.setStoreByValue(false);
+        configuration.setStatisticsEnabled(true);
+        configuration.setMaximumSize(maximumSize);
+        configuration.setExpireAfterWrite(expireAfterWriteNanos);
+        return configuration;
+    }
+}
@@ -0,0 +1,35 @@
+package ru.practicum.shareit.config;
+
+import org.apache.coyote.UpgradeProtocol;
+import org.apache.coyote.http2.Http2Protocol;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatConnectorCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/*Шлюз ходит на сервер по HTTP/2 без TLS (h2c) через несколько долгоживущих соединений.
+Tomcat по умолчанию выполняет только 20 потоков одного соединения одновременно, а остальные ставит в очередь,
+и закрывает соединение после 20 секунд простоя, раньше, чем шлюз перестает его переиспользовать*/
+@Configuration
+@ConditionalOnProperty(name = "server.http2.enabled", havingValue = "true")
+public class Http2Config {
+
+    @Bean
+    public TomcatConnectorCustomizer http2StreamLimitsCustomizer(
+            @Value("${shareit.http2.max-concurrent-streams:200}") int maxConcurrentStreams,
+            @Value("${shareit.http2.keep-alive-timeout:60s}") Duration keepAliveTimeout) {
+        return connector -> {
+            for (UpgradeProtocol upgradeProtocol : connector.findUpgradeProtocols()) {
+                if (upgradeProtocol instanceof Http2Protocol) {
+                    Http2Protocol http2Protocol = (Http2Protocol) upgradeProtocol;
+                    http2Protocol.setMaxConcurrentStreams(maxConcurrentStreams);
+                    http2Protocol.setMaxConcurrentStreamExecution(maxConcurrentStreams);
+                    http2Protocol.setKeepAliveTimeout(keepAliveTimeout.toMillis());
+                }
+            }
+        };
+    }
+}
@@ -0,0 +1,20 @@
+package ru.practicum.shareit.config;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/*Таймеры методов сервисов. Сервисы помечены @Timed(SERVICE_TIMER), аспект добавляет теги class и method,
+перцентили и гистограмма включаются в application.properties.
+Методы репозиториев Spring Data измеряет сам Spring Boot в таймере spring.data.repository.invocations*/
+@Configuration
+public class MetricsConfig {
+
+    public static final String SERVICE_TIMER = "shareit.service";
+
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry meterRegistry) {
+        return new TimedAspect(meterRegistry);
+    }
+}
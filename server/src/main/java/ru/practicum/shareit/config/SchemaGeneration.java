@@ -0,0 +1,26 @@
+package ru.practicum.shareit.config;
+
+import lombok.Getter;
+import org.springframework.boot.sql.init.dependency.DependsOnDatabaseInitialization;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+
+/*Метка поколения базы из schema_generation, общая часть всех ETag. Версии и id после пересоздания схемы
+начинаются заново, поэтому ETag без метки совпал бы у новой записи и удаленной с тем же id.
+Читается один раз: схема пересоздается только при запуске сервера*/
+@Component
+@DependsOnDatabaseInitialization
+public class SchemaGeneration {
+
+    @Getter
+    private final String token;
+
+    public SchemaGeneration(JdbcTemplate jdbcTemplate) {
+        Timestamp created = jdbcTemplate.queryForObject("SELECT MAX(created) FROM schema_generation", Timestamp.class);
+        token = DigestUtils.md5DigestAsHex(String.valueOf(created).getBytes(StandardCharsets.UTF_8)).substring(0, 8);
+    }
+}
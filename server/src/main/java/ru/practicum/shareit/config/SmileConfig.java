@@ -0,0 +1,19 @@
+package ru.practicum.shareit.config;
+
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+/*По заголовку Accept: application/x-jackson-smile сервер отвечает в бинарном Smile вместо JSON.
+Mapper собирается из того же Jackson2ObjectMapperBuilder, что и JSON, поэтому даты и остальные
+настройки Spring Boot одинаковы в обоих форматах и шлюз переводит Smile в JSON без разбора в объекты*/
+@Configuration
+public class SmileConfig {
+
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2SmileHttpMessageConverter(builder.factory(new SmileFactory()).build());
+    }
+}
@@ -0,0 +1,63 @@
+package ru.practicum.shareit.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/*Запросы Tomcat и асинхронные задачи выполняются на виртуальных потоках,
+поэтому ожидание JDBC не занимает поток платформы.
+Число одновременных запросов к базе по-прежнему ограничено пулом Hikari: Tomcat больше не сдерживает
+нагрузку, и запросы сверх пула ждут соединение до spring.datasource.hikari.connection-timeout, а потом
+завершаются ошибкой 500. Поэтому с виртуальными потоками пул задается отдельно,
+shareit.threads.virtual.max-db-connections, и должен помещаться в max_connections Postgres
+вместе с пулами остальных экземпляров сервера.
+Требует JDK 21+ (сборка с профилем maven virtual-threads)*/
+@Configuration
+@ConditionalOnProperty(name = "shareit.threads.virtual.enabled", havingValue = "true")
+public class VirtualThreadConfig {
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadProtocolHandlerCustomizer() {
+        return protocolHandler -> protocolHandler.setExecutor(newVirtualThreadPerTaskExecutor());
+    }
+
+    @Bean(name = {TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME, "taskExecutor"})
+    public AsyncTaskExecutor applicationTaskExecutor() {
+        return new TaskExecutorAdapter(newVirtualThreadPerTaskExecutor());
+    }
+
+    @Bean
+    public static BeanPostProcessor virtualThreadConnectionPoolSizer(Environment environment) {
+        int maxDbConnections = environment.getProperty("shareit.threads.virtual.max-db-connections",
+                Integer.class, 50);
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof HikariDataSource) {
+                    ((HikariDataSource) bean).setMaximumPoolSize(maxDbConnections);
+                }
+                return bean;
+            }
+        };
+    }
+
+    /*Вызов через reflection, чтобы основная сборка оставалась совместимой с Java 11*/
+    static ExecutorService newVirtualThreadPerTaskExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Виртуальные потоки недоступны в JDK " + Runtime.version().feature() +
+                    ", нужен JDK 21 или новее", e);
+        }
+    }
+}
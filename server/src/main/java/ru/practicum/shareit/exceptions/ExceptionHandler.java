@@ -1,7 +1,10 @@
 package ru.practicum.shareit.exceptions;
 
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 
@@ -16,6 +19,14 @@ public class ExceptionHandler {
         return new ErrorResponse(String.format("Ошибка с полем \"%s\".", e.getMessage()));
     }
 
+    /*Запись изменили параллельно, клиенту нужно перечитать ее и повторить запрос*/
+    @org.springframework.web.bind.annotation.ExceptionHandler
+    @ResponseStatus(HttpStatus.CONFLICT)
+    public ErrorResponse handleOptimisticLockingFailureException(final OptimisticLockingFailureException e) {
+        log.info("409: {}", e.getMessage());
+        return new ErrorResponse("Запись изменена другим запросом, повторите запрос");
+    }
+
     @org.springframework.web.bind.annotation.ExceptionHandler
     @ResponseStatus(HttpStatus.NOT_FOUND)
     public ErrorResponse handleNotFoundException(final NotFoundException e) {
@@ -43,4 +54,13 @@ public class ExceptionHandler {
         log.info("500: {}", e.getMessage());
         return new ErrorResponse(String.format(e.getMessage()));
     }
+
+    /*Retry-After подсказывает клиенту и шлюзу, когда повторить запрос*/
+    @org.springframework.web.bind.annotation.ExceptionHandler
+    public ResponseEntity<ErrorResponse> handleServiceUnavailableException(final ServiceUnavailableException e) {
+        log.warn("503: {}", e.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .body(new ErrorResponse(e.getMessage()));
+    }
 }
@@ -0,0 +1,16 @@
+package ru.practicum.shareit.exceptions;
+
+/*Сервер временно не принимает запрос из-за перегрузки, клиенту стоит повторить его позже*/
+public class ServiceUnavailableException extends RuntimeException {
+
+    private final int retryAfterSeconds;
+
+    public ServiceUnavailableException(String message, int retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public int getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -2,9 +2,14 @@ package ru.practicum.shareit.item;
 
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import ru.practicum.shareit.item.comment.dto.IncomingCommentDto;
 import ru.practicum.shareit.item.comment.dto.OutCommentDto;
+import ru.practicum.shareit.item.dto.EtaggedItemDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemFullDto;
 import ru.practicum.shareit.item.service.ItemService;
@@ -32,10 +37,27 @@ public class ItemController {
         return itemService.addItem(userId, itemDto);
     }
 
+    @PostMapping("/batch")
+    public List<ItemDto> createItems(@RequestHeader("X-Sharer-User-Id") long userId,
+                                     @RequestBody List<ItemDto> itemDtos) {
+        log.info("Запрос на добавление {} предметов пользователем с id = {}", itemDtos.size(), userId);
+        return itemService.addItems(userId, itemDtos);
+    }
+
     @GetMapping("/{itemId}")
-    public ItemFullDto getItemById(@RequestHeader("X-Sharer-User-Id") long userId, @PathVariable("itemId") long itemId) {
+    public ResponseEntity<ItemFullDto> getItemById(@RequestHeader("X-Sharer-User-Id") long userId,
+                                                   @PathVariable("itemId") long itemId, WebRequest webRequest) {
         log.info("Запрос на вывод предмета с id = " + itemId);
-        return itemService.getItemById(userId, itemId);
+        /*На If-None-Match с текущим ETag отвечаем 304, не собирая и не сериализуя предмет.
+        Без заголовка ETag считается по данным ответа, и предмет загружается один раз*/
+        if (webRequest.getHeader(HttpHeaders.IF_NONE_MATCH) != null
+                && webRequest.checkNotModified(itemService.getItemEtag(userId, itemId))) {
+            return null;
+        }
+        EtaggedItemDto item = itemService.getItemWithEtag(userId, itemId);
+        return ResponseEntity.ok()
+                .eTag(item.getEtag())
+                .body(item.getItem());
     }
 
     @PatchMapping("/{id}")
@@ -52,19 +74,24 @@ public class ItemController {
     }
 
     @GetMapping("/search")
-    public List<ItemDto> getItemsByText(@RequestParam String text) {
+    public List<ItemDto> getItemsByText(@RequestParam String text,
+                                        @RequestParam(required = false) Integer from,
+                                        @RequestParam(required = false) Integer size) {
         log.info("Запрос на поиск предметов по тексту в названии или описании");
         if (text == null || text.isBlank()) {
             return new ArrayList<>();
         }
-        return itemService.findItemsByText(text);
+        return itemService.findItemsByText(text, from, size);
     }
 
     @PostMapping("/{itemId}/comment")
-    public OutCommentDto addCommentToItem(@RequestHeader("X-Sharer-User-Id") long userId,
-                                          @PathVariable("itemId") long itemId,
-                                          @RequestBody IncomingCommentDto incomingCommentDto) {
+    public ResponseEntity<OutCommentDto> addCommentToItem(@RequestHeader("X-Sharer-User-Id") long userId,
+                                                          @PathVariable("itemId") long itemId,
+                                                          @RequestBody IncomingCommentDto incomingCommentDto) {
         log.info("Запрос на добавление комментария к предмету");
-        return itemService.addComment(userId, itemId, incomingCommentDto);
+        OutCommentDto comment = itemService.addComment(userId, itemId, incomingCommentDto);
+        /*202: комментарий проверен и поставлен в очередь, id появится после записи*/
+        return ResponseEntity.status(itemService.isCommentWriteAsync() ? HttpStatus.ACCEPTED : HttpStatus.OK)
+                .body(comment);
     }
 }
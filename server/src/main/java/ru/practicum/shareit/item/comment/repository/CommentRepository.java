@@ -1,12 +1,24 @@
 package ru.practicum.shareit.item.comment.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import ru.practicum.shareit.item.comment.model.Comment;
 import ru.practicum.shareit.item.model.Item;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface CommentRepository extends JpaRepository<Comment, Long> {
 
     List<Comment> findAllByItem(Item item);
+
+    @Query("SELECT c FROM Comment AS c JOIN FETCH c.author " +
+            "WHERE c.item.id IN ?1")
+    List<Comment> findAllByItemIdIn(Collection<Long> itemIds);
+
+    @Query("SELECT new ru.practicum.shareit.item.comment.repository.CommentStamp(COUNT(c.id), " +
+            "COALESCE(MAX(c.id), 0), COALESCE(SUM(c.author.version), 0)) " +
+            "FROM Comment AS c " +
+            "WHERE c.item.id = ?1")
+    CommentStamp findCommentStampByItemId(long itemId);
 }
@@ -0,0 +1,17 @@
+package ru.practicum.shareit.item.comment.repository;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/*Комментарии не редактируются, поэтому их число и наибольший id меняются при любом добавлении или удалении.
+В ответе есть имена авторов, и их переименование видно по сумме версий авторов*/
+@Getter
+@AllArgsConstructor
+public class CommentStamp {
+
+    private long comments;
+
+    private long lastId;
+
+    private long authorVersions;
+}
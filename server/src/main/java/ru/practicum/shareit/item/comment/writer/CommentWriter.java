@@ -0,0 +1,13 @@
+package ru.practicum.shareit.item.comment.writer;
+
+import ru.practicum.shareit.item.comment.model.Comment;
+
+public interface CommentWriter {
+
+    /*Сохраняет уже проверенный комментарий. Возвращает сохраненный комментарий
+    или тот же комментарий без id, если он только поставлен в очередь на запись*/
+    Comment write(Comment comment);
+
+    /*true, если write не дожидается записи в базу*/
+    boolean isAsync();
+}
@@ -0,0 +1,30 @@
+package ru.practicum.shareit.item.comment.writer;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.comment.model.Comment;
+import ru.practicum.shareit.item.comment.repository.CommentRepository;
+
+/*Комментарий сохраняется в транзакции запроса*/
+@Component
+@ConditionalOnProperty(name = "shareit.comments.ingestion", havingValue = "sync")
+public class DirectCommentWriter implements CommentWriter {
+
+    private final CommentRepository commentRepository;
+
+    @Autowired
+    public DirectCommentWriter(CommentRepository commentRepository) {
+        this.commentRepository = commentRepository;
+    }
+
+    @Override
+    public Comment write(Comment comment) {
+        return commentRepository.save(comment);
+    }
+
+    @Override
+    public boolean isAsync() {
+        return false;
+    }
+}
@@ -0,0 +1,126 @@
+package ru.practicum.shareit.item.comment.writer;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.exceptions.ServiceUnavailableException;
+import ru.practicum.shareit.item.comment.model.Comment;
+import ru.practicum.shareit.item.comment.repository.CommentRepository;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/*Проверенные комментарии складываются в ограниченную очередь, фоновый поток записывает их пакетами
+в отдельных транзакциях. Когда очередь заполнена, запрос получает 503 с Retry-After,
+и шлюз передает этот ответ клиенту. Комментарии, которые еще в очереди, пропадут при аварийной остановке*/
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "shareit.comments.ingestion", havingValue = "async")
+public class QueuedCommentWriter implements CommentWriter {
+
+    public static final String QUEUE_GAUGE = "shareit.comments.queue";
+    private static final long POLL_TIMEOUT_MS = 200;
+    private static final long STOP_TIMEOUT_MS = 30_000;
+
+    private final CommentRepository commentRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final BlockingQueue<Comment> queue;
+    private final int batchSize;
+    private final int retryAfterSeconds;
+    private volatile boolean running;
+    private Thread writerThread;
+
+    @Autowired
+    public QueuedCommentWriter(CommentRepository commentRepository, PlatformTransactionManager transactionManager,
+                               MeterRegistry meterRegistry,
+                               @Value("${shareit.comments.queue-capacity:10000}") int queueCapacity,
+                               @Value("${shareit.comments.batch-size:100}") int batchSize,
+                               @Value("${shareit.comments.retry-after:1}") int retryAfterSeconds) {
+        this.commentRepository = commentRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+        this.retryAfterSeconds = retryAfterSeconds;
+        Gauge.builder(QUEUE_GAUGE, queue, BlockingQueue::size)
+                .description("Комментарии, ожидающие записи в базу")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Comment write(Comment comment) {
+        if (!queue.offer(comment)) {
+            throw new ServiceUnavailableException("Очередь комментариев заполнена, повторите запрос позже",
+                    retryAfterSeconds);
+        }
+        return comment;
+    }
+
+    @Override
+    public boolean isAsync() {
+        return true;
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        writerThread = new Thread(this::drain, "comment-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    /*Веб-сервер к этому моменту уже не принимает запросы, поэтому очередь только убывает*/
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        writerThread.join(STOP_TIMEOUT_MS);
+    }
+
+    private void drain() {
+        while (running || !queue.isEmpty()) {
+            try {
+                Comment comment = queue.poll(POLL_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+                if (comment == null) {
+                    continue;
+                }
+                List<Comment> batch = new ArrayList<>(batchSize);
+                batch.add(comment);
+                queue.drainTo(batch, batchSize - 1);
+                writeBatch(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                log.warn("Запись комментариев прервана, в очереди осталось {}", queue.size());
+                return;
+            }
+        }
+    }
+
+    /*Если пакет не записался, комментарии пишутся по одному, чтобы один неудачный не отменил остальные*/
+    private void writeBatch(List<Comment> batch) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> commentRepository.saveAll(batch));
+        } catch (RuntimeException e) {
+            log.warn("Пакет из {} комментариев не записан: {}", batch.size(), e.getMessage());
+            for (Comment comment : batch) {
+                /*id мог быть выдан при неудачной попытке*/
+                comment.setId(0);
+                try {
+                    transactionTemplate.executeWithoutResult(status -> commentRepository.save(comment));
+                } catch (RuntimeException commentException) {
+                    log.error("Комментарий пользователя с id = {} к предмету с id = {} не сохранен",
+                            comment.getAuthor().getId(), comment.getItem().getId(), commentException);
+                }
+            }
+        }
+    }
+}
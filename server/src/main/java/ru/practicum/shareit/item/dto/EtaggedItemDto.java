@@ -0,0 +1,14 @@
+package ru.practicum.shareit.item.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/*Ответ getItemById вместе с ETag, посчитанным по тем же загруженным данным*/
+@Getter
+@AllArgsConstructor
+public class EtaggedItemDto {
+
+    private ItemFullDto item;
+
+    private String etag;
+}
@@ -1,26 +1,61 @@
 package ru.practicum.shareit.item.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
+import ru.practicum.shareit.config.CacheConfig;
+import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.model.Item;
 
+import javax.persistence.QueryHint;
 import java.util.Collection;
 import java.util.List;
 
+import static org.hibernate.jpa.QueryHints.HINT_CACHEABLE;
+import static org.hibernate.jpa.QueryHints.HINT_CACHE_REGION;
+
 @Repository
 public interface ItemRepository extends JpaRepository<Item, Long> {
 
-    Item getItemById(long id);
+    /*Оба метода ищут по первичному ключу через EntityManager.find и берут предмет из кэша второго уровня*/
+    default Item getItemById(long id) {
+        return findById(Long.valueOf(id)).orElse(null);
+    }
 
-    Item findById(long id);
+    default Item findById(long id) {
+        return getItemById(id);
+    }
 
+    @QueryHints({@QueryHint(name = HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HINT_CACHE_REGION, value = CacheConfig.ITEMS_BY_OWNER)})
     Collection<Item> findAllByOwnerIdOrderById(long id);
 
-    List<Item> findItemsByNameOrDescriptionContainingIgnoreCase(String name, String description);
+    /*Выражение tsvector должно совпадать с выражением индекса idx_items_search из schema-postgresql.sql*/
+    @Query(value = "SELECT i.* FROM items AS i " +
+            "WHERE i.available AND (setweight(to_tsvector('simple', i.name), 'A') || " +
+            "setweight(to_tsvector('simple', i.description), 'B')) @@ to_tsquery('simple', ?1) " +
+            "ORDER BY ts_rank(setweight(to_tsvector('simple', i.name), 'A') || " +
+            "setweight(to_tsvector('simple', i.description), 'B'), to_tsquery('simple', ?1)) DESC, i.id " +
+            "LIMIT ?2 OFFSET ?3", nativeQuery = true)
+    List<Item> searchAvailableItems(String tsQuery, int limit, int offset);
 
-    List<Item> findItemsByItemRequestId(long id);
+    @Query("SELECT i.id FROM Item AS i WHERE i.id IN ?1")
+    List<Long> findIdsByIdIn(Collection<Long> ids);
 
-    List<Item> findItemsByItemRequestIdIn(Collection<Long> id);
+    @QueryHints({@QueryHint(name = HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HINT_CACHE_REGION, value = CacheConfig.ITEMS_BY_REQUEST)})
+    List<Item> findItemsByItemRequestId(long id);
 
-    List<Item> findByItemRequest_IdIn(Collection<Long> id);
+    @Query("SELECT new ru.practicum.shareit.item.repository.ItemVersion(i.id, i.version) " +
+            "FROM Item AS i " +
+            "WHERE i.itemRequest.id = ?1 " +
+            "ORDER BY i.id")
+    List<ItemVersion> findItemVersionsByItemRequestId(long requestId);
+
+    @Query("SELECT new ru.practicum.shareit.item.dto.ItemDto(i.id, i.name, i.description, i.available, " +
+            "i.itemRequest.id) " +
+            "FROM Item AS i " +
+            "WHERE i.itemRequest.id IN ?1")
+    List<ItemDto> findItemDtosByItemRequestIdIn(Collection<Long> requestIds);
 }
@@ -0,0 +1,13 @@
+package ru.practicum.shareit.item.repository;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class ItemVersion {
+
+    private long id;
+
+    private long version;
+}
@@ -0,0 +1,223 @@
+package ru.practicum.shareit.item.search;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.request.repository.ItemRequestRepository;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/*Инвертированный индекс в памяти процесса для H2, где нет полнотекстового поиска.
+Слова из названия весят больше слов из описания. Изменения попадают в индекс после коммита транзакции,
+которая их сделала: откаченные название или доступность искаться не должны*/
+@Component
+@ConditionalOnProperty(name = "shareit.search.engine", havingValue = "memory")
+public class InMemoryItemSearchEngine implements ItemSearchEngine {
+
+    private static final int NAME_WEIGHT = 2;
+    private static final int DESCRIPTION_WEIGHT = 1;
+
+    private final ItemRepository itemRepository;
+    private final ItemRequestRepository itemRequestRepository;
+    private final TermIndex items = new TermIndex();
+    private final TermIndex requests = new TermIndex();
+    private final Set<Long> availableItems = ConcurrentHashMap.newKeySet();
+    private final Map<Long, Long> requestors = new ConcurrentHashMap<>();
+    private final Map<Long, Long> owners = new ConcurrentHashMap<>();
+
+    @Autowired
+    public InMemoryItemSearchEngine(ItemRepository itemRepository, ItemRequestRepository itemRequestRepository) {
+        this.itemRepository = itemRepository;
+        this.itemRequestRepository = itemRequestRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        itemRepository.findAll().forEach(this::index);
+        itemRequestRepository.findAll().forEach(this::index);
+    }
+
+    /*Слова считаются сразу, пока сущность еще в транзакции, а в индекс кладутся после коммита*/
+    @Override
+    public void index(Item item) {
+        long id = item.getId();
+        Map<String, Integer> weights = new HashMap<>();
+        SearchTokenizer.tokenize(item.getName()).forEach(term -> weights.merge(term, NAME_WEIGHT, Integer::sum));
+        SearchTokenizer.tokenize(item.getDescription())
+                .forEach(term -> weights.merge(term, DESCRIPTION_WEIGHT, Integer::sum));
+        boolean available = Boolean.TRUE.equals(item.getAvailable());
+        Long ownerId = item.getOwner() == null ? null : item.getOwner().getId();
+        afterCommit(() -> putItem(id, weights, available, ownerId));
+    }
+
+    @Override
+    public void index(ItemRequest itemRequest) {
+        long id = itemRequest.getId();
+        Map<String, Integer> weights = new HashMap<>();
+        SearchTokenizer.tokenize(itemRequest.getDescription())
+                .forEach(term -> weights.merge(term, DESCRIPTION_WEIGHT, Integer::sum));
+        long requestorId = itemRequest.getRequestor().getId();
+        afterCommit(() -> putRequest(id, weights, requestorId));
+    }
+
+    @Override
+    public void removeUser(long userId) {
+        afterCommit(() -> removeDocumentsOf(userId));
+    }
+
+    private synchronized void putItem(long id, Map<String, Integer> weights, boolean available, Long ownerId) {
+        availableItems.remove(id);
+        items.put(id, weights);
+        if (ownerId != null) {
+            owners.put(id, ownerId);
+        }
+        if (available) {
+            availableItems.add(id);
+        }
+    }
+
+    private synchronized void putRequest(long id, Map<String, Integer> weights, long requestorId) {
+        requests.put(id, weights);
+        requestors.put(id, requestorId);
+    }
+
+    private synchronized void removeDocumentsOf(long userId) {
+        Set<Long> itemIds = new HashSet<>();
+        owners.forEach((id, ownerId) -> {
+            if (ownerId == userId) {
+                itemIds.add(id);
+            }
+        });
+        itemIds.forEach(id -> {
+            items.remove(id);
+            availableItems.remove(id);
+            owners.remove(id);
+        });
+        Set<Long> requestIds = new HashSet<>();
+        requestors.forEach((id, requestorId) -> {
+            if (requestorId == userId) {
+                requestIds.add(id);
+            }
+        });
+        requestIds.forEach(id -> {
+            requests.remove(id);
+            requestors.remove(id);
+        });
+    }
+
+    @Override
+    public List<Item> search(String text, int from, int size) {
+        List<String> tokens = SearchTokenizer.tokenize(text);
+        if (tokens.isEmpty()) {
+            return List.of();
+        }
+        List<Long> ids = items.score(tokens, availableItems::contains).entrySet().stream()
+                .sorted(Map.Entry.<Long, Integer>comparingByValue().reversed()
+                        .thenComparing(Map.Entry.comparingByKey()))
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toList());
+        return page(ids, from, size, chunk -> {
+            Map<Long, Item> found = itemRepository.findAllById(chunk).stream()
+                    .collect(Collectors.toMap(Item::getId, Function.identity()));
+            return chunk.stream()
+                    .map(found::get)
+                    .filter(Objects::nonNull)
+                    .collect(Collectors.toList());
+        });
+    }
+
+    @Override
+    public List<SearchHit> searchWithRequests(String text, long userId, int from, int size) {
+        List<String> tokens = SearchTokenizer.tokenize(text);
+        if (tokens.isEmpty()) {
+            return List.of();
+        }
+        List<ScoredHit> hits = new ArrayList<>();
+        items.score(tokens, availableItems::contains)
+                .forEach((id, score) -> hits.add(new ScoredHit(SearchDocumentType.ITEM, id, score)));
+        requests.score(tokens, id -> !Objects.equals(requestors.get(id), userId))
+                .forEach((id, score) -> hits.add(new ScoredHit(SearchDocumentType.REQUEST, id, score)));
+        /*Порядок при равной релевантности тот же, что в PostgresItemSearchEngine*/
+        hits.sort(Comparator.comparingInt(ScoredHit::getScore).reversed()
+                .thenComparing(ScoredHit::getType)
+                .thenComparingLong(ScoredHit::getId));
+        return page(hits, from, size, chunk -> {
+            Set<Long> itemIds = new HashSet<>(itemRepository.findIdsByIdIn(idsOf(chunk, SearchDocumentType.ITEM)));
+            Set<Long> requestIds = new HashSet<>(itemRequestRepository.findIdsByIdIn(
+                    idsOf(chunk, SearchDocumentType.REQUEST)));
+            return chunk.stream()
+                    .filter(hit -> (hit.getType() == SearchDocumentType.ITEM ? itemIds : requestIds)
+                            .contains(hit.getId()))
+                    .collect(Collectors.toList());
+        });
+    }
+
+    /*Страница из отсортированных кандидатов без записей, которых уже нет в базе: их удаляют из индекса
+    только после коммита. Кандидаты проверяются частями по from + size, обычно хватает одной*/
+    private static <T, R> List<R> page(List<T> candidates, int from, int size, Function<List<T>, List<? extends R>> existing) {
+        List<R> page = new ArrayList<>();
+        int chunkSize = from + size;
+        int skipped = 0;
+        for (int start = 0; start < candidates.size() && page.size() < size; start += chunkSize) {
+            for (R found : existing.apply(candidates.subList(start, Math.min(start + chunkSize, candidates.size())))) {
+                if (skipped < from) {
+                    skipped++;
+                } else if (page.size() < size) {
+                    page.add(found);
+                }
+            }
+        }
+        return page;
+    }
+
+    private static List<Long> idsOf(List<? extends SearchHit> hits, SearchDocumentType type) {
+        return hits.stream()
+                .filter(hit -> hit.getType() == type)
+                .map(SearchHit::getId)
+                .collect(Collectors.toList());
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private static class ScoredHit extends SearchHit {
+
+        private final int score;
+
+        ScoredHit(SearchDocumentType type, long id, int score) {
+            super(type, id);
+            this.score = score;
+        }
+
+        int getScore() {
+            return score;
+        }
+    }
+}
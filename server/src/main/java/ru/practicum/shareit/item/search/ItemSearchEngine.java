@@ -0,0 +1,24 @@
+package ru.practicum.shareit.item.search;
+
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.request.model.ItemRequest;
+
+import java.util.List;
+
+public interface ItemSearchEngine {
+
+    /*Доступные предметы, в названии или описании которых есть слова, начинающиеся на слова из text.
+    Результат отсортирован по релевантности*/
+    List<Item> search(String text, int from, int size);
+
+    /*То же по предметам и по запросам других пользователей вместе. Слова описания запроса весят
+    столько же, сколько слова описания предмета, поэтому их релевантность сравнима*/
+    List<SearchHit> searchWithRequests(String text, long userId, int from, int size);
+
+    void index(Item item);
+
+    void index(ItemRequest itemRequest);
+
+    /*Предметы и запросы пользователя удаляет база вместе с ним*/
+    void removeUser(long userId);
+}
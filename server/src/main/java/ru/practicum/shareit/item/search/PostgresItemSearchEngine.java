@@ -0,0 +1,83 @@
+package ru.practicum.shareit.item.search;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.request.model.ItemRequest;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+@Component
+@ConditionalOnProperty(name = "shareit.search.engine", havingValue = "postgres", matchIfMissing = true)
+public class PostgresItemSearchEngine implements ItemSearchEngine {
+
+    /*Выражения tsvector должны совпадать с выражениями индексов idx_items_search и idx_requests_search
+    из schema-postgresql.sql. Описание запроса получает вес B, как описание предмета*/
+    private static final String SEARCH_WITH_REQUESTS = "SELECT 'ITEM' AS type, i.id, " +
+            "ts_rank(setweight(to_tsvector('simple', i.name), 'A') || " +
+            "setweight(to_tsvector('simple', i.description), 'B'), q) AS rank " +
+            "FROM items AS i, to_tsquery('simple', ?) AS q " +
+            "WHERE i.available AND (setweight(to_tsvector('simple', i.name), 'A') || " +
+            "setweight(to_tsvector('simple', i.description), 'B')) @@ q " +
+            "UNION ALL " +
+            "SELECT 'REQUEST' AS type, r.id, " +
+            "ts_rank(setweight(to_tsvector('simple', r.description), 'B'), q) AS rank " +
+            "FROM requests AS r, to_tsquery('simple', ?) AS q " +
+            "WHERE r.requestor_id <> ? AND to_tsvector('simple', r.description) @@ q " +
+            "ORDER BY rank DESC, type, id " +
+            "LIMIT ? OFFSET ?";
+
+    private final ItemRepository itemRepository;
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public PostgresItemSearchEngine(ItemRepository itemRepository, JdbcTemplate jdbcTemplate) {
+        this.itemRepository = itemRepository;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public List<Item> search(String text, int from, int size) {
+        List<String> tokens = SearchTokenizer.tokenize(text);
+        if (tokens.isEmpty()) {
+            return List.of();
+        }
+        return itemRepository.searchAvailableItems(toTsQuery(tokens), size, from);
+    }
+
+    @Override
+    public List<SearchHit> searchWithRequests(String text, long userId, int from, int size) {
+        List<String> tokens = SearchTokenizer.tokenize(text);
+        if (tokens.isEmpty()) {
+            return List.of();
+        }
+        String query = toTsQuery(tokens);
+        return jdbcTemplate.query(SEARCH_WITH_REQUESTS,
+                (resultSet, rowNum) -> new SearchHit(SearchDocumentType.valueOf(resultSet.getString("type")),
+                        resultSet.getLong("id")),
+                query, query, userId, size, from);
+    }
+
+    @Override
+    public void index(Item item) {
+        /*GIN-индекс по tsvector обновляет сама база*/
+    }
+
+    @Override
+    public void index(ItemRequest itemRequest) {
+    }
+
+    @Override
+    public void removeUser(long userId) {
+    }
+
+    private String toTsQuery(List<String> tokens) {
+        return tokens.stream()
+                .map(token -> token + ":*")
+                .collect(Collectors.joining(" & "));
+    }
+}
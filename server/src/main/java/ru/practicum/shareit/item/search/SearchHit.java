@@ -0,0 +1,14 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/*Найденный предмет или запрос, сами записи загружает сервис поиска*/
+@Getter
+@AllArgsConstructor
+public class SearchHit {
+
+    private SearchDocumentType type;
+
+    private long id;
+}
@@ -0,0 +1,61 @@
+package ru.practicum.shareit.item.search;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.LongPredicate;
+
+/*Инвертированный индекс: слово -> id документов с весом слова в документе*/
+class TermIndex {
+
+    private final NavigableMap<String, Map<Long, Integer>> postings = new ConcurrentSkipListMap<>();
+    private final Map<Long, Set<String>> documentTerms = new ConcurrentHashMap<>();
+
+    void put(long id, Map<String, Integer> weights) {
+        remove(id);
+        weights.forEach((term, weight) -> postings.computeIfAbsent(term, t -> new ConcurrentHashMap<>())
+                .put(id, weight));
+        documentTerms.put(id, weights.keySet());
+    }
+
+    void remove(long id) {
+        Set<String> terms = documentTerms.remove(id);
+        if (terms != null) {
+            terms.forEach(term -> {
+                Map<Long, Integer> posting = postings.get(term);
+                if (posting != null) {
+                    posting.remove(id);
+                    if (posting.isEmpty()) {
+                        postings.remove(term);
+                    }
+                }
+            });
+        }
+    }
+
+    /*Документы, прошедшие filter, в которых на каждое слово из tokens начинается хотя бы одно слово документа.
+    Значение - сумма весов совпавших слов*/
+    Map<Long, Integer> score(List<String> tokens, LongPredicate filter) {
+        Map<Long, Integer> scores = null;
+        for (String token : tokens) {
+            Map<Long, Integer> tokenScores = new HashMap<>();
+            postings.subMap(token, true, token + Character.MAX_VALUE, true).values()
+                    .forEach(posting -> posting.forEach((id, weight) -> {
+                        if (filter.test(id)) {
+                            tokenScores.merge(id, weight, Integer::sum);
+                        }
+                    }));
+            if (scores == null) {
+                scores = tokenScores;
+            } else {
+                scores.keySet().retainAll(tokenScores.keySet());
+                scores.replaceAll((id, score) -> score + tokenScores.get(id));
+            }
+        }
+        return scores == null ? new HashMap<>() : scores;
+    }
+}
@@ -1,12 +1,18 @@
 package ru.practicum.shareit.item.service;
 
+import io.micrometer.core.annotation.Timed;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.DigestUtils;
 import ru.practicum.shareit.booking.dto.BookingForItemDto;
 import ru.practicum.shareit.booking.mapper.BookingMapper;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.repository.ItemBookingIds;
+import ru.practicum.shareit.config.MetricsConfig;
+import ru.practicum.shareit.config.SchemaGeneration;
 import ru.practicum.shareit.exceptions.NotFoundException;
 import ru.practicum.shareit.exceptions.ValidationException;
 import ru.practicum.shareit.item.comment.dto.IncomingCommentDto;
@@ -14,24 +20,34 @@ import ru.practicum.shareit.item.comment.dto.OutCommentDto;
 import ru.practicum.shareit.item.comment.mapper.CommentMapper;
 import ru.practicum.shareit.item.comment.model.Comment;
 import ru.practicum.shareit.item.comment.repository.CommentRepository;
+import ru.practicum.shareit.item.comment.repository.CommentStamp;
+import ru.practicum.shareit.item.comment.writer.CommentWriter;
+import ru.practicum.shareit.item.dto.EtaggedItemDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemFullDto;
 import ru.practicum.shareit.item.mapper.ItemMapper;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.search.ItemSearchEngine;
 import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.request.repository.ItemRequestRepository;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
+@Timed(MetricsConfig.SERVICE_TIMER)
 @Transactional(readOnly = true)
 public class ItemService {
 
@@ -40,51 +56,129 @@ public class ItemService {
     private final BookingRepository bookingRepository;
     private final CommentRepository commentRepository;
     private final ItemRequestRepository itemRequestRepository;
+    private final ItemSearchEngine itemSearchEngine;
+    private final CommentWriter commentWriter;
+    private final int searchMaxResults;
+    private final SchemaGeneration schemaGeneration;
 
     @Autowired
     public ItemService(ItemRepository itemRepository, UserRepository userRepository,
                        BookingRepository bookingRepository, CommentRepository commentRepository,
-                       ItemRequestRepository itemRequestRepository) {
+                       ItemRequestRepository itemRequestRepository, ItemSearchEngine itemSearchEngine,
+                       CommentWriter commentWriter, SchemaGeneration schemaGeneration,
+                       @Value("${shareit.search.max-results:100}") int searchMaxResults) {
         this.itemRepository = itemRepository;
         this.userRepository = userRepository;
         this.bookingRepository = bookingRepository;
         this.commentRepository = commentRepository;
         this.itemRequestRepository = itemRequestRepository;
+        this.itemSearchEngine = itemSearchEngine;
+        this.commentWriter = commentWriter;
+        this.searchMaxResults = searchMaxResults;
+        this.schemaGeneration = schemaGeneration;
     }
 
     @Transactional
     public ItemDto addItem(long userId, ItemDto itemDto) {
-        Item item = ItemMapper.toItem(userRepository.findById(userId), itemDto);
+        User user = userRepository.findById(userId);
+        Item item = ItemMapper.toItem(user, itemDto);
         if (itemDto.getRequestId() != null) {
             ItemRequest itemRequest = itemRequestRepository.getReferenceById(itemDto.getRequestId());
             item.setItemRequest(itemRequest);
         }
         validate(item);
-        if (userRepository.findById(userId) == null) {
+        if (user == null) {
             throw new NotFoundException("Пользователь с id = " + userId + " не найден");
         }
         Item itemStorage = itemRepository.save(item);
+        itemSearchEngine.index(itemStorage);
         return ItemMapper.toItemDto(itemStorage);
     }
 
-    public ItemFullDto getItemById(long userId, long itemId) {
+    /*Импорт каталога одной транзакцией: запросы проверяются одним SELECT, вставки уходят пакетами*/
+    @Transactional
+    public List<ItemDto> addItems(long userId, List<ItemDto> itemDtos) {
         User user = userRepository.findById(userId);
         if (user == null) {
             throw new NotFoundException("Пользователь с id = " + userId + " не найден");
         }
-        Item item = itemRepository.getItemById(itemId);
-        if (item == null) {
-            throw new NotFoundException("Предмет с id = " + itemId + " не найден");
+        if (itemDtos.isEmpty()) {
+            throw new ValidationException("Список предметов пуст");
+        }
+        Set<Long> requestIds = itemDtos.stream()
+                .map(ItemDto::getRequestId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Map<Long, ItemRequest> itemRequests = itemRequestRepository.findAllById(requestIds).stream()
+                .collect(Collectors.toMap(ItemRequest::getId, itemRequest -> itemRequest));
+        List<Item> items = new ArrayList<>();
+        for (ItemDto itemDto : itemDtos) {
+            Item item = ItemMapper.toItem(user, itemDto);
+            /*С заданным id save() выполнил бы merge с лишним SELECT на каждую запись*/
+            item.setId(0);
+            if (itemDto.getRequestId() != null) {
+                ItemRequest itemRequest = itemRequests.get(itemDto.getRequestId());
+                if (itemRequest == null) {
+                    throw new NotFoundException("Запрос с id = " + itemDto.getRequestId() + " не найден");
+                }
+                item.setItemRequest(itemRequest);
+            }
+            validate(item);
+            items.add(item);
+        }
+        List<Item> itemsStorage = itemRepository.saveAll(items);
+        itemsStorage.forEach(itemSearchEngine::index);
+        return itemsStorage.stream()
+                .map(ItemMapper::toItemDto)
+                .collect(Collectors.toList());
+    }
+
+    public ItemFullDto getItemById(long userId, long itemId) {
+        return getItemWithEtag(userId, itemId).getItem();
+    }
+
+    /*Предмет и его ETag из одних и тех же загруженных данных: версии предмета, комментариев с версиями
+    авторов и, для владельца, последнего и следующего бронирований*/
+    public EtaggedItemDto getItemWithEtag(long userId, long itemId) {
+        Item item = getItemForUser(userId, itemId);
+        List<Comment> comments = commentRepository.findAllByItem(item);
+        long lastCommentId = 0;
+        long authorVersions = 0;
+        for (Comment comment : comments) {
+            lastCommentId = Math.max(lastCommentId, comment.getId());
+            authorVersions += comment.getAuthor().getVersion();
         }
+        List<OutCommentDto> commentDtos = comments.stream()
+                .map(CommentMapper::toOutCommentDto)
+                .collect(Collectors.toList());
         ItemFullDto itemFullDto;
+        String etag;
         if (userId == item.getOwner().getId()) {
             LocalDateTime dateTime = LocalDateTime.now();
-            itemFullDto = ItemMapper.toItemFullDto(item, getLastItemBooking(item, dateTime),
-                    getNextItemBooking(item, dateTime), getItemComments(item));
+            BookingForItemDto lastBooking = getLastItemBooking(item, dateTime);
+            BookingForItemDto nextBooking = getNextItemBooking(item, dateTime);
+            itemFullDto = ItemMapper.toItemFullDto(item, lastBooking, nextBooking, commentDtos);
+            etag = itemEtag(item, comments.size(), lastCommentId, authorVersions,
+                    lastBooking == null ? null : lastBooking.getId(), nextBooking == null ? null : nextBooking.getId());
         } else {
-            itemFullDto = ItemMapper.toItemFullDto(item, null, null, getItemComments(item));
+            itemFullDto = ItemMapper.toItemFullDto(item, null, null, commentDtos);
+            etag = itemEtag(item, comments.size(), lastCommentId, authorVersions);
+        }
+        return new EtaggedItemDto(itemFullDto, etag);
+    }
+
+    /*ETag для проверки If-None-Match без сборки ответа: предмет обычно берется из кэша второго уровня,
+    дальше один запрос отметки комментариев и, для владельца, один запрос id бронирований.
+    Совпадает с ETag из getItemWithEtag при тех же данных*/
+    public String getItemEtag(long userId, long itemId) {
+        Item item = getItemForUser(userId, itemId);
+        CommentStamp commentStamp = commentRepository.findCommentStampByItemId(itemId);
+        if (userId == item.getOwner().getId()) {
+            ItemBookingIds bookingIds = bookingRepository.findItemBookingIds(itemId, LocalDateTime.now());
+            return itemEtag(item, commentStamp.getComments(), commentStamp.getLastId(),
+                    commentStamp.getAuthorVersions(), bookingIds.getLastId(), bookingIds.getNextId());
         }
-        return itemFullDto;
+        return itemEtag(item, commentStamp.getComments(), commentStamp.getLastId(), commentStamp.getAuthorVersions());
     }
 
     @Transactional
@@ -93,12 +187,11 @@ public class ItemService {
         if (user == null) {
             throw new NotFoundException("Нельзя обновить предмет у несуществующего пользователя");
         }
-        Item item = ItemMapper.toItem(userRepository.findById(userId), itemDto);
-        Item itemIsExist = itemRepository.findById(id);
-        if (itemIsExist == null) {
+        Item item = ItemMapper.toItem(user, itemDto);
+        Item updateItem = itemRepository.findById(id);
+        if (updateItem == null) {
             throw new NotFoundException("Невозможно обновить несуществующий предмет");
         }
-        Item updateItem = itemRepository.findById(id);
         long ownerId = updateItem.getOwner().getId();
         if (ownerId != item.getOwner().getId()) {
             throw new NotFoundException("У пользователя с id = " + item.getOwner().getId() + " нет такого предмета");
@@ -114,6 +207,7 @@ public class ItemService {
         }
         validate(updateItem);
         Item itemStorage = itemRepository.save(updateItem);
+        itemSearchEngine.index(itemStorage);
         return ItemMapper.toItemDto(itemStorage);
     }
 
@@ -122,16 +216,36 @@ public class ItemService {
         if (user == null) {
             throw new NotFoundException("Пользователь с id = " + id + " не найден");
         }
+        Collection<Item> items = itemRepository.findAllByOwnerIdOrderById(id);
+        if (items.isEmpty()) {
+            return new ArrayList<>();
+        }
+        List<Long> itemIds = items.stream()
+                .map(Item::getId)
+                .collect(Collectors.toList());
         LocalDateTime dateTime = LocalDateTime.now();
-        return itemRepository.findAllByOwnerIdOrderById(id).stream()
-                .map(item -> ItemMapper.toItemFullDto(item, getLastItemBooking(item, dateTime),
-                        getNextItemBooking(item, dateTime), getItemComments(item)))
+        /*Бронирования и комментарии получаем одним запросом на все вещи, а не по запросу на каждую*/
+        Map<Long, BookingForItemDto> lastBookings =
+                toItemBookingMap(bookingRepository.findItemsLastBookings(itemIds, dateTime));
+        Map<Long, BookingForItemDto> nextBookings =
+                toItemBookingMap(bookingRepository.findItemsNextBookings(itemIds, dateTime));
+        Map<Long, List<OutCommentDto>> comments = commentRepository.findAllByItemIdIn(itemIds).stream()
+                .collect(Collectors.groupingBy(comment -> comment.getItem().getId(),
+                        Collectors.mapping(CommentMapper::toOutCommentDto, Collectors.toList())));
+        return items.stream()
+                .map(item -> ItemMapper.toItemFullDto(item, lastBookings.get(item.getId()),
+                        nextBookings.get(item.getId()), comments.getOrDefault(item.getId(), new ArrayList<>())))
                 .collect(Collectors.toList());
     }
 
-    public List<ItemDto> findItemsByText(String text) {
-        return itemRepository.findItemsByNameOrDescriptionContainingIgnoreCase(text, text).stream()
-                .filter(Item::getAvailable)
+    public List<ItemDto> findItemsByText(String text, Integer from, Integer size) {
+        if (from == null || size == null) {
+            from = 0;
+            size = searchMaxResults;
+        } else if (from < 0 || size <= 0) {
+            throw new ValidationException("Ошибка в значениях пагинации: from < 0 или size <= 0");
+        }
+        return itemSearchEngine.search(text, from, size).stream()
                 .map(ItemMapper::toItemDto)
                 .collect(Collectors.toList());
     }
@@ -150,16 +264,44 @@ public class ItemService {
             throw new NotFoundException("Пользователь с id = " + userId + " не найден");
         }
         LocalDateTime dateTime = LocalDateTime.now();
-        List<Booking> bookings = bookingRepository.findFinishedBookingsByItem(itemId, userId, dateTime);
-        if (bookings == null || bookings.size() == 0) {
+        if (!bookingRepository.existsByItemIdAndBookerIdAndEndBefore(itemId, userId, dateTime)) {
             throw new ValidationException("У пользователя с id = " + userId +
                     " нет завершенной аренды предмета с id = " + itemId);
         }
         Comment comment = CommentMapper.toComment(incomingCommentDto, item, user, dateTime);
-        Comment commentStorage = commentRepository.save(comment);
+        Comment commentStorage = commentWriter.write(comment);
         return CommentMapper.toOutCommentDto(commentStorage);
     }
 
+    /*true, если addComment только ставит комментарий в очередь (shareit.comments.ingestion=async)*/
+    public boolean isCommentWriteAsync() {
+        return commentWriter.isAsync();
+    }
+
+    private Item getItemForUser(long userId, long itemId) {
+        User user = userRepository.findById(userId);
+        if (user == null) {
+            throw new NotFoundException("Пользователь с id = " + userId + " не найден");
+        }
+        Item item = itemRepository.getItemById(itemId);
+        if (item == null) {
+            throw new NotFoundException("Предмет с id = " + itemId + " не найден");
+        }
+        return item;
+    }
+
+    private String itemEtag(Item item, long comments, long lastCommentId, long authorVersions) {
+        return DigestUtils.md5DigestAsHex((schemaGeneration.getToken() + ":" + item.getVersion() + ":" + comments +
+                ":" + lastCommentId + ":" + authorVersions).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private String itemEtag(Item item, long comments, long lastCommentId, long authorVersions,
+                            Long lastBookingId, Long nextBookingId) {
+        return DigestUtils.md5DigestAsHex((schemaGeneration.getToken() + ":" + item.getVersion() + ":" + comments +
+                ":" + lastCommentId + ":" + authorVersions + ":" + Objects.requireNonNullElse(lastBookingId, 0L) + ":" +
+                Objects.requireNonNullElse(nextBookingId, 0L)).getBytes(StandardCharsets.UTF_8));
+    }
+
     private BookingForItemDto getLastItemBooking(Item item, LocalDateTime dateTime) {
         BookingForItemDto lastBooking = null;
         Optional<Booking> optionalBooking = bookingRepository.findItemLastBooking(item.getId(), dateTime);
@@ -178,14 +320,12 @@ public class ItemService {
         return nextBooking;
     }
 
-    private List<OutCommentDto> getItemComments(Item item) {
-        List<Comment> comments = commentRepository.findAllByItem(item);
-        if (comments != null && !comments.isEmpty()) {
-            return comments.stream()
-                    .map(CommentMapper::toOutCommentDto)
-                    .collect(Collectors.toList());
+    private Map<Long, BookingForItemDto> toItemBookingMap(List<Booking> bookings) {
+        Map<Long, BookingForItemDto> itemBookings = new HashMap<>();
+        for (Booking booking : bookings) {
+            itemBookings.putIfAbsent(booking.getItem().getId(), BookingMapper.toBookingForItemDto(booking));
         }
-        return new ArrayList<>();
+        return itemBookings;
     }
 
     private void validate(Item item) {
@@ -2,7 +2,11 @@ package ru.practicum.shareit.request;
 
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import ru.practicum.shareit.request.dto.EtaggedItemRequestDto;
 import ru.practicum.shareit.request.dto.IncomingItemRequestDto;
 import ru.practicum.shareit.request.dto.OutItemRequestDto;
 import ru.practicum.shareit.request.dto.OutLongItemRequestDto;
@@ -30,10 +34,19 @@ public class ItemRequestController {
     }
 
     @GetMapping("/{requestId}")
-    public OutLongItemRequestDto getRequestById(@RequestHeader("X-Sharer-User-Id") long requestorId,
-                                                @PathVariable("requestId") long requestId) {
+    public ResponseEntity<OutLongItemRequestDto> getRequestById(@RequestHeader("X-Sharer-User-Id") long requestorId,
+                                                                @PathVariable("requestId") long requestId,
+                                                                WebRequest webRequest) {
         log.info("Запрос на показ запроса по заданному id");
-        return itemRequestService.getItemRequestById(requestorId, requestId);
+        /*Отдельный расчет ETag нужен только для If-None-Match, иначе он берется из загруженного ответа*/
+        if (webRequest.getHeader(HttpHeaders.IF_NONE_MATCH) != null
+                && webRequest.checkNotModified(itemRequestService.getItemRequestEtag(requestorId, requestId))) {
+            return null;
+        }
+        EtaggedItemRequestDto itemRequest = itemRequestService.getItemRequestWithEtag(requestorId, requestId);
+        return ResponseEntity.ok()
+                .eTag(itemRequest.getEtag())
+                .body(itemRequest.getRequest());
     }
 
     @GetMapping
@@ -0,0 +1,14 @@
+package ru.practicum.shareit.request.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/*Запрос с предметами и ETag, посчитанный по тем же загруженным запросу и предметам*/
+@Getter
+@AllArgsConstructor
+public class EtaggedItemRequestDto {
+
+    private OutLongItemRequestDto request;
+
+    private String etag;
+}
@@ -6,15 +6,21 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 import ru.practicum.shareit.request.model.ItemRequest;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface ItemRequestRepository extends JpaRepository<ItemRequest, Long> {
 
-    ItemRequest findById(long id);
+    default ItemRequest findById(long id) {
+        return findById(Long.valueOf(id)).orElse(null);
+    }
 
     List<ItemRequest> findItemRequestByRequestorIdOrderByCreatedDesc(long requestorId);
 
+    @Query("SELECT ir.id FROM ItemRequest AS ir WHERE ir.id IN ?1")
+    List<Long> findIdsByIdIn(Collection<Long> ids);
+
     @Query("SELECT ir FROM ItemRequest AS ir " +
             "WHERE ir.requestor.id <> ?1 " +
             "ORDER BY ir.created DESC")
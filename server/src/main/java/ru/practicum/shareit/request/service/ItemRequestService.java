@@ -1,15 +1,23 @@
 package ru.practicum.shareit.request.service;
 
+import io.micrometer.core.annotation.Timed;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.DigestUtils;
+import ru.practicum.shareit.config.MetricsConfig;
+import ru.practicum.shareit.config.SchemaGeneration;
 import ru.practicum.shareit.exceptions.NotFoundException;
 import ru.practicum.shareit.exceptions.ValidationException;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.mapper.ItemMapper;
+import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.repository.ItemVersion;
+import ru.practicum.shareit.item.search.ItemSearchEngine;
+import ru.practicum.shareit.request.dto.EtaggedItemRequestDto;
 import ru.practicum.shareit.request.dto.IncomingItemRequestDto;
 import ru.practicum.shareit.request.dto.OutItemRequestDto;
 import ru.practicum.shareit.request.dto.OutLongItemRequestDto;
@@ -19,26 +27,36 @@ import ru.practicum.shareit.request.repository.ItemRequestRepository;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 import static java.util.stream.Collectors.toList;
 
 @Service
+@Timed(MetricsConfig.SERVICE_TIMER)
 @Transactional(readOnly = true)
 public class ItemRequestService {
 
     private final ItemRequestRepository requestRepository;
     private final UserRepository userRepository;
     private final ItemRepository itemRepository;
+    private final ItemSearchEngine itemSearchEngine;
+    private final SchemaGeneration schemaGeneration;
 
     @Autowired
     public ItemRequestService(ItemRequestRepository requestRepository, UserRepository userRepository,
-                              ItemRepository itemRepository) {
+                              ItemRepository itemRepository, ItemSearchEngine itemSearchEngine,
+                              SchemaGeneration schemaGeneration) {
         this.requestRepository = requestRepository;
         this.userRepository = userRepository;
         this.itemRepository = itemRepository;
+        this.itemSearchEngine = itemSearchEngine;
+        this.schemaGeneration = schemaGeneration;
     }
 
     @Transactional
@@ -50,22 +68,34 @@ public class ItemRequestService {
         LocalDateTime dateTime = LocalDateTime.now();
         ItemRequest itemRequest = ItemRequestMapper.toItemRequest(user, itemRequestDto, dateTime);
         ItemRequest itemRequestStorage = requestRepository.save(itemRequest);
+        itemSearchEngine.index(itemRequestStorage);
         return ItemRequestMapper.toOutItemRequestDto(itemRequestStorage);
     }
 
     public OutLongItemRequestDto getItemRequestById(long requestorId, long requestId) {
-        User user = userRepository.findById(requestorId);
-        if (user == null) {
-            throw new NotFoundException("Пользователь с id = " + requestorId + " не найден");
-        }
-        ItemRequest itemRequest = requestRepository.findById(requestId);
-        if (itemRequest == null) {
-            throw new NotFoundException("Запрос с id = " + requestId + " не найден");
-        }
-        List<ItemDto> items = itemRepository.findItemsByItemRequestId(requestId).stream()
+        return getItemRequestWithEtag(requestorId, requestId).getRequest();
+    }
+
+    /*Запрос, его предметы и ETag по одним и тем же загруженным данным*/
+    public EtaggedItemRequestDto getItemRequestWithEtag(long requestorId, long requestId) {
+        ItemRequest itemRequest = getItemRequest(requestorId, requestId);
+        List<Item> items = itemRepository.findItemsByItemRequestId(requestId);
+        List<ItemVersion> itemVersions = items.stream()
+                .map(item -> new ItemVersion(item.getId(), item.getVersion()))
+                .sorted(Comparator.comparingLong(ItemVersion::getId))
+                .collect(toList());
+        List<ItemDto> itemDtos = items.stream()
                 .map(ItemMapper::toItemDto)
                 .collect(toList());
-        return ItemRequestMapper.toOutLongItemRequestDto(itemRequest, items);
+        return new EtaggedItemRequestDto(ItemRequestMapper.toOutLongItemRequestDto(itemRequest, itemDtos),
+                itemRequestEtag(itemRequest, itemVersions));
+    }
+
+    /*ETag ответа getItemRequestById: версия запроса и версии предметов, добавленных по нему.
+    Предметы читаются без загрузки сущностей, только id и версия*/
+    public String getItemRequestEtag(long requestorId, long requestId) {
+        ItemRequest itemRequest = getItemRequest(requestorId, requestId);
+        return itemRequestEtag(itemRequest, itemRepository.findItemVersionsByItemRequestId(requestId));
     }
 
     public List<OutLongItemRequestDto> getRequestorItemRequest(long requestorId) {
@@ -74,16 +104,7 @@ public class ItemRequestService {
             throw new NotFoundException("Пользователь с id = " + requestorId + " не найден");
         }
         List<ItemRequest> itemRequests = requestRepository.findItemRequestByRequestorIdOrderByCreatedDesc(requestorId);
-        List<Long> requestIds = itemRequests.stream()
-                .map(ItemRequest::getId)
-                .collect(toList());
-        List<ItemDto> items = itemRepository.findByItemRequest_IdIn(requestIds).stream()
-                .map(ItemMapper::toItemDto)
-                .collect(Collectors.toList());
-        /*Теперь в стриме нет обращения к базе*/
-        return itemRequests.stream()
-                .map(itemRequest -> ItemRequestMapper.toOutLongItemRequestDto(itemRequest, items))
-                .collect(Collectors.toList());
+        return toOutLongItemRequestDtos(itemRequests);
     }
 
     public List<OutLongItemRequestDto> getAllOtherItemRequest(long requestorId, Integer from, Integer size) {
@@ -101,15 +122,45 @@ public class ItemRequestService {
         } else {
             itemRequests = requestRepository.findAllOtherItemRequest(requestorId);
         }
+        return toOutLongItemRequestDtos(itemRequests);
+    }
+
+    private ItemRequest getItemRequest(long requestorId, long requestId) {
+        User user = userRepository.findById(requestorId);
+        if (user == null) {
+            throw new NotFoundException("Пользователь с id = " + requestorId + " не найден");
+        }
+        ItemRequest itemRequest = requestRepository.findById(requestId);
+        if (itemRequest == null) {
+            throw new NotFoundException("Запрос с id = " + requestId + " не найден");
+        }
+        return itemRequest;
+    }
+
+    /*Предметы идут в порядке id*/
+    private String itemRequestEtag(ItemRequest itemRequest, List<ItemVersion> itemVersions) {
+        StringBuilder state = new StringBuilder(schemaGeneration.getToken())
+                .append(':')
+                .append(itemRequest.getVersion());
+        for (ItemVersion itemVersion : itemVersions) {
+            state.append(':').append(itemVersion.getId()).append('-').append(itemVersion.getVersion());
+        }
+        return DigestUtils.md5DigestAsHex(state.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private List<OutLongItemRequestDto> toOutLongItemRequestDtos(List<ItemRequest> itemRequests) {
+        if (itemRequests.isEmpty()) {
+            return new ArrayList<>();
+        }
         List<Long> requestIds = itemRequests.stream()
                 .map(ItemRequest::getId)
                 .collect(toList());
-        List<ItemDto> items = itemRepository.findItemsByItemRequestIdIn(requestIds).stream()
-                .map(ItemMapper::toItemDto)
-                .collect(Collectors.toList());
-        /*тут тоже поправил*/
+        /*Вещи всех запросов одним запросом к базе, раскладываем по id запроса*/
+        Map<Long, List<ItemDto>> items = itemRepository.findItemDtosByItemRequestIdIn(requestIds).stream()
+                .collect(Collectors.groupingBy(ItemDto::getRequestId));
         return itemRequests.stream()
-                .map(itemRequest -> ItemRequestMapper.toOutLongItemRequestDto(itemRequest, items))
+                .map(itemRequest -> ItemRequestMapper.toOutLongItemRequestDto(itemRequest,
+                        items.getOrDefault(itemRequest.getId(), new ArrayList<>())))
                 .collect(Collectors.toList());
     }
 }
@@ -0,0 +1,38 @@
+package ru.practicum.shareit.search;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import ru.practicum.shareit.search.dto.SearchResultDto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@RestController
+@Slf4j
+@RequestMapping("/search")
+public class SearchController {
+
+    private final SearchService searchService;
+
+    @Autowired
+    public SearchController(SearchService searchService) {
+        this.searchService = searchService;
+    }
+
+    @GetMapping
+    public List<SearchResultDto> search(@RequestHeader("X-Sharer-User-Id") long userId,
+                                        @RequestParam String text,
+                                        @RequestParam(required = false) Integer from,
+                                        @RequestParam(required = false) Integer size) {
+        log.info("Запрос на поиск предметов и запросов по тексту");
+        if (text == null || text.isBlank()) {
+            return new ArrayList<>();
+        }
+        return searchService.search(userId, text, from, size);
+    }
+}
@@ -0,0 +1,101 @@
+package ru.practicum.shareit.search;
+
+import io.micrometer.core.annotation.Timed;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.config.MetricsConfig;
+import ru.practicum.shareit.exceptions.NotFoundException;
+import ru.practicum.shareit.exceptions.ValidationException;
+import ru.practicum.shareit.item.mapper.ItemMapper;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.search.ItemSearchEngine;
+import ru.practicum.shareit.item.search.SearchDocumentType;
+import ru.practicum.shareit.item.search.SearchHit;
+import ru.practicum.shareit.request.mapper.ItemRequestMapper;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.request.repository.ItemRequestRepository;
+import ru.practicum.shareit.search.dto.SearchResultDto;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Service
+@Timed(MetricsConfig.SERVICE_TIMER)
+@Transactional(readOnly = true)
+public class SearchService {
+
+    private final ItemSearchEngine itemSearchEngine;
+    private final ItemRepository itemRepository;
+    private final ItemRequestRepository itemRequestRepository;
+    private final UserRepository userRepository;
+    private final int searchMaxResults;
+
+    @Autowired
+    public SearchService(ItemSearchEngine itemSearchEngine, ItemRepository itemRepository,
+                         ItemRequestRepository itemRequestRepository, UserRepository userRepository,
+                         @Value("${shareit.search.max-results:100}") int searchMaxResults) {
+        this.itemSearchEngine = itemSearchEngine;
+        this.itemRepository = itemRepository;
+        this.itemRequestRepository = itemRequestRepository;
+        this.userRepository = userRepository;
+        this.searchMaxResults = searchMaxResults;
+    }
+
+    /*Доступные предметы и запросы других пользователей по убыванию релевантности.
+    Движок возвращает только id первых size результатов, записи догружаются двумя запросами по id*/
+    public List<SearchResultDto> search(long userId, String text, Integer from, Integer size) {
+        if (userRepository.findById(userId) == null) {
+            throw new NotFoundException("Пользователь с id = " + userId + " не найден");
+        }
+        if (from == null || size == null) {
+            from = 0;
+            size = searchMaxResults;
+        } else if (from < 0 || size <= 0) {
+            throw new ValidationException("Ошибка в значениях пагинации: from < 0 или size <= 0");
+        }
+        List<SearchHit> hits = itemSearchEngine.searchWithRequests(text, userId, from, size);
+        if (hits.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, Item> items = itemRepository.findAllById(idsOf(hits, SearchDocumentType.ITEM)).stream()
+                .collect(Collectors.toMap(Item::getId, Function.identity()));
+        Map<Long, ItemRequest> requests = itemRequestRepository.findAllById(idsOf(hits, SearchDocumentType.REQUEST))
+                .stream()
+                .collect(Collectors.toMap(ItemRequest::getId, Function.identity()));
+        /*Запись могли удалить после индексации, такие результаты пропускаются*/
+        return hits.stream()
+                .map(hit -> toSearchResultDto(hit, items, requests))
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
+    private List<Long> idsOf(List<SearchHit> hits, SearchDocumentType type) {
+        return hits.stream()
+                .filter(hit -> hit.getType() == type)
+                .map(SearchHit::getId)
+                .collect(Collectors.toList());
+    }
+
+    private SearchResultDto toSearchResultDto(SearchHit hit, Map<Long, Item> items,
+                                              Map<Long, ItemRequest> requests) {
+        if (hit.getType() == SearchDocumentType.ITEM) {
+            Item item = items.get(hit.getId());
+            return item == null ? null : SearchResultDto.builder()
+                    .type(SearchDocumentType.ITEM)
+                    .item(ItemMapper.toItemDto(item))
+                    .build();
+        }
+        ItemRequest itemRequest = requests.get(hit.getId());
+        return itemRequest == null ? null : SearchResultDto.builder()
+                .type(SearchDocumentType.REQUEST)
+                .request(ItemRequestMapper.toOutItemRequestDto(itemRequest))
+                .build();
+    }
+}
@@ -0,0 +1,21 @@
+package ru.practicum.shareit.search.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Setter;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.search.SearchDocumentType;
+import ru.practicum.shareit.request.dto.OutItemRequestDto;
+
+/*Заполнено item или request в зависимости от type*/
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+public class SearchResultDto {
+
+    private SearchDocumentType type;
+    private ItemDto item;
+    private OutItemRequestDto request;
+}
@@ -2,7 +2,11 @@ package ru.practicum.shareit.user;
 
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import ru.practicum.shareit.user.dto.EtaggedUserDto;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.service.UserService;
 
@@ -27,10 +31,23 @@ public class UserController {
         return userService.addUser(userDto);
     }
 
+    @PostMapping("/batch")
+    public List<UserDto> createUsers(@RequestBody List<UserDto> userDtos) {
+        log.info("Запрос на добавление {} пользователей", userDtos.size());
+        return userService.addUsers(userDtos);
+    }
+
     @GetMapping("/{id}")
-    public UserDto getUserById(@PathVariable("id") long id) {
+    public ResponseEntity<UserDto> getUserById(@PathVariable("id") long id, WebRequest webRequest) {
         log.info("Запрос на показ пользователя c id = " + id);
-        return userService.getUserById(id);
+        if (webRequest.getHeader(HttpHeaders.IF_NONE_MATCH) != null
+                && webRequest.checkNotModified(userService.getUserEtag(id))) {
+            return null;
+        }
+        EtaggedUserDto user = userService.getUserWithEtag(id);
+        return ResponseEntity.ok()
+                .eTag(user.getEtag())
+                .body(user.getUser());
     }
 
     @PatchMapping("/{id}")
@@ -0,0 +1,14 @@
+package ru.practicum.shareit.user.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/*Пользователь и ETag, посчитанный по той же загруженной сущности*/
+@Getter
+@AllArgsConstructor
+public class EtaggedUserDto {
+
+    private UserDto user;
+
+    private String etag;
+}
@@ -4,9 +4,18 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 import ru.practicum.shareit.user.model.User;
 
+import java.util.Collection;
+import java.util.List;
+
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
 
-    User findById(long id);
+    /*Производный запрос findById(long) всегда шел бы в базу, а EntityManager.find берет пользователя
+    из кэша второго уровня*/
+    default User findById(long id) {
+        return findById(Long.valueOf(id)).orElse(null);
+    }
+
+    List<User> findAllByEmailIn(Collection<String> emails);
 }
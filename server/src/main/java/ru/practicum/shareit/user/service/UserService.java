@@ -1,28 +1,55 @@
 package ru.practicum.shareit.user.service;
 
+import io.micrometer.core.annotation.Timed;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.hibernate.SessionFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.booking.repository.BookingSummaryRepository;
+import ru.practicum.shareit.config.MetricsConfig;
+import ru.practicum.shareit.config.SchemaGeneration;
+import ru.practicum.shareit.exceptions.IsExistException;
 import ru.practicum.shareit.exceptions.NotFoundException;
 import ru.practicum.shareit.exceptions.ValidationException;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.search.ItemSearchEngine;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.user.dto.EtaggedUserDto;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.mapper.UserMapper;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 
 @Service
+@Timed(MetricsConfig.SERVICE_TIMER)
 @Transactional(readOnly = true)
 public class UserService {
 
     private final UserRepository userRepository;
+    private final BookingSummaryRepository bookingSummaryRepository;
+    private final EntityManagerFactory entityManagerFactory;
+    private final ItemSearchEngine itemSearchEngine;
+    private final SchemaGeneration schemaGeneration;
 
     @Autowired
-    public UserService(UserRepository userRepository) {
+    public UserService(UserRepository userRepository, BookingSummaryRepository bookingSummaryRepository,
+                       EntityManagerFactory entityManagerFactory, ItemSearchEngine itemSearchEngine,
+                       SchemaGeneration schemaGeneration) {
         this.userRepository = userRepository;
+        this.bookingSummaryRepository = bookingSummaryRepository;
+        this.entityManagerFactory = entityManagerFactory;
+        this.itemSearchEngine = itemSearchEngine;
+        this.schemaGeneration = schemaGeneration;
     }
 
 
@@ -34,35 +61,81 @@ public class UserService {
         return UserMapper.toUserDto(userStorage);
     }
 
+    /*Все пользователи сохраняются одной транзакцией, Hibernate отправляет вставки пакетами*/
+    @Transactional
+    public List<UserDto> addUsers(List<UserDto> userDtos) {
+        if (userDtos.isEmpty()) {
+            throw new ValidationException("Список пользователей пуст");
+        }
+        List<User> users = new ArrayList<>();
+        Set<String> emails = new HashSet<>();
+        for (UserDto userDto : userDtos) {
+            User user = UserMapper.toUser(userDto);
+            /*С заданным id save() выполнил бы merge с лишним SELECT на каждую запись*/
+            user.setId(0);
+            validate(user);
+            if (!emails.add(user.getEmail())) {
+                throw new IsExistException("Email " + user.getEmail() + " указан несколько раз");
+            }
+            users.add(user);
+        }
+        List<User> existingUsers = userRepository.findAllByEmailIn(emails);
+        if (!existingUsers.isEmpty()) {
+            throw new IsExistException("Пользователь с email " + existingUsers.get(0).getEmail() + " уже существует");
+        }
+        return userRepository.saveAll(users).stream()
+                .map(UserMapper::toUserDto)
+                .collect(Collectors.toList());
+    }
+
     @Transactional
     public UserDto updateUser(UserDto userDto, long id) {
         User user = UserMapper.toUser(userDto);
-        User updateUser = userRepository.findById(id);
-        if (updateUser == null) {
+        User storedUser = userRepository.findById(id);
+        if (storedUser == null) {
             throw new NotFoundException("Невозможно обновить несуществующего пользователя");
         }
         if (user.getEmail() != null) {
-            updateUser.setEmail(user.getEmail());
+            storedUser.setEmail(user.getEmail());
         }
         if (user.getName() != null) {
-            updateUser.setName(user.getName());
+            storedUser.setName(user.getName());
         }
-        validate(updateUser);
-        User userStorage = userRepository.save(updateUser);
+        validate(storedUser);
+        User userStorage = userRepository.save(storedUser);
         return UserMapper.toUserDto(userStorage);
     }
 
     public UserDto getUserById(long id) {
-        User user = userRepository.findById(id);
-        if (user == null) {
-            throw new NotFoundException("Пользователь с id = " + id + " не найден");
-        }
-        return UserMapper.toUserDto(user);
+        return getUserWithEtag(id).getUser();
     }
 
+    public EtaggedUserDto getUserWithEtag(long id) {
+        User user = getUser(id);
+        return new EtaggedUserDto(UserMapper.toUserDto(user), userEtag(user));
+    }
+
+    /*Пользователь обычно берется из кэша второго уровня, поэтому проверка ETag не обращается к базе*/
+    public String getUserEtag(long id) {
+        return userEtag(getUser(id));
+    }
+
+    /*Предметы и запросы пользователя удаляет база (ON DELETE CASCADE) в обход Hibernate, поэтому после коммита
+    они и кэшированные выборки убираются из кэша второго уровня. До коммита нельзя: параллельный запрос
+    успел бы положить в кэш еще не удаленные строки*/
     @Transactional
     public void removeUser(long id) {
+        bookingSummaryRepository.removeBookingsOfBooker(id);
         userRepository.deleteById(id);
+        itemSearchEngine.removeUser(id);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                entityManagerFactory.getCache().evict(Item.class);
+                entityManagerFactory.getCache().evict(ItemRequest.class);
+                entityManagerFactory.unwrap(SessionFactory.class).getCache().evictQueryRegions();
+            }
+        });
     }
 
     public List<UserDto> getAllUsers() {
@@ -71,6 +144,18 @@ public class UserService {
                 .collect(Collectors.toList());
     }
 
+    private User getUser(long id) {
+        User user = userRepository.findById(id);
+        if (user == null) {
+            throw new NotFoundException("Пользователь с id = " + id + " не найден");
+        }
+        return user;
+    }
+
+    private String userEtag(User user) {
+        return schemaGeneration.getToken() + "-" + user.getVersion();
+    }
+
     private void validate(User user) {
         if (user.getEmail() == null || user.getEmail().equals("") || user.getEmail().isBlank() ||
                 user.getEmail().isEmpty()) {
@@ -0,0 +1,18 @@
+-- Индексы из schema.sql для уже существующей базы PostgreSQL.
+-- CONCURRENTLY не блокирует запись в таблицы, поэтому скрипт выполняется вне транзакции.
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_requests_requestor_created ON requests (requestor_id, created DESC);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_requests_created ON requests (created DESC);
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_items_owner_id ON items (owner, id);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_items_request_id ON items (request_id);
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_booking_booker_start ON booking (booker, start_time DESC);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_booking_item_status_start ON booking (item_id, status, start_time);
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_comments_item_id ON comments (item_id);
+
+ANALYZE requests;
+ANALYZE items;
+ANALYZE booking;
+ANALYZE comments;
@@ -0,0 +1,7 @@
+-- Полнотекстовый индекс для поиска предметов (см. schema-postgresql.sql).
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_items_search ON items
+    USING GIN ((setweight(to_tsvector('simple', name), 'A') || setweight(to_tsvector('simple', description), 'B')))
+    WHERE available;
+
+ANALYZE items;
@@ -0,0 +1,11 @@
+-- Запрет пересекающихся действующих бронирований одного предмета (см. schema-postgresql.sql).
+-- Ограничение не добавится, если такие бронирования уже есть. Найти их можно так:
+-- SELECT a.id, b.id FROM booking a JOIN booking b ON a.item_id = b.item_id AND a.id < b.id
+--     AND tsrange(a.start_time, a.end_time) && tsrange(b.start_time, b.end_time)
+--     WHERE a.status IN ('WAITING', 'APPROVED') AND b.status IN ('WAITING', 'APPROVED');
+
+CREATE EXTENSION IF NOT EXISTS btree_gist;
+
+ALTER TABLE booking ADD CONSTRAINT booking_no_overlap
+    EXCLUDE USING GIST (item_id WITH =, tsrange(start_time, end_time) WITH &&)
+    WHERE (status IN ('WAITING', 'APPROVED'));
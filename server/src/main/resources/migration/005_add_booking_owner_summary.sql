@@ -0,0 +1,24 @@
+-- Сводка бронирований арендодателя по статусам для GET /bookings/owner/counts.
+-- Заполняется по текущим бронированиям, дальше ее ведет сервер. Выполнять до запуска новой версии сервера,
+-- иначе бронирования, созданные во время пересчета, не попадут в сводку.
+-- Индекс строится с CONCURRENTLY, чтобы не блокировать запись в booking, поэтому скрипт выполняется
+-- вне транзакции (без psql -1). Если построение прервалось, невалидный индекс нужно удалить
+-- и запустить CREATE INDEX заново: IF NOT EXISTS его пропустит.
+
+CREATE TABLE IF NOT EXISTS booking_owner_summary
+(
+    owner_id BIGINT NOT NULL REFERENCES users (id) ON DELETE CASCADE,
+    status VARCHAR(55) NOT NULL,
+    bookings BIGINT NOT NULL,
+    PRIMARY KEY (owner_id, status)
+    );
+
+INSERT INTO booking_owner_summary (owner_id, status, bookings)
+SELECT i.owner, b.status, COUNT(*) FROM booking AS b
+JOIN items AS i ON i.id = b.item_id
+GROUP BY i.owner, b.status
+ON CONFLICT (owner_id, status) DO UPDATE SET bookings = EXCLUDED.bookings;
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_booking_item_end ON booking (item_id, end_time);
+
+ANALYZE booking;
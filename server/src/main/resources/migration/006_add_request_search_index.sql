@@ -0,0 +1,6 @@
+-- Полнотекстовый индекс для поиска по описаниям запросов в GET /search (см. schema-postgresql.sql).
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_requests_search ON requests
+    USING GIN (to_tsvector('simple', description));
+
+ANALYZE requests;
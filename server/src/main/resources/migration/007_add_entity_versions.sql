@@ -0,0 +1,6 @@
+-- Версии записей для @Version и ETag в GET /items/{itemId}, /users/{id}, /requests/{requestId}.
+-- Столбец с постоянным DEFAULT добавляется без перезаписи таблицы.
+
+ALTER TABLE users ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE requests ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE items ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
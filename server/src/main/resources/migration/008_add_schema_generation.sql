@@ -0,0 +1,10 @@
+-- Метка поколения базы для ETag (см. schema.sql). При обновлении существующей базы данные сохраняются,
+-- поэтому метка ставится один раз, и ETag, выданные до обновления, остаются в силе.
+
+CREATE TABLE IF NOT EXISTS schema_generation
+(
+    created TIMESTAMP NOT NULL
+    );
+
+INSERT INTO schema_generation (created)
+SELECT CURRENT_TIMESTAMP WHERE NOT EXISTS (SELECT 1 FROM schema_generation);
@@ -0,0 +1,10 @@
+CREATE INDEX IF NOT EXISTS idx_items_search ON items
+    USING GIN ((setweight(to_tsvector('simple', name), 'A') || setweight(to_tsvector('simple', description), 'B')))
+    WHERE available;
+
+CREATE INDEX IF NOT EXISTS idx_requests_search ON requests USING GIN (to_tsvector('simple', description));
+
+CREATE EXTENSION IF NOT EXISTS btree_gist;
+ALTER TABLE booking ADD CONSTRAINT booking_no_overlap
+    EXCLUDE USING GIST (item_id WITH =, tsrange(start_time, end_time) WITH &&)
+    WHERE (status IN ('WAITING', 'APPROVED'));
@@ -3,35 +3,61 @@ DROP TABLE IF EXISTS items CASCADE;
 DROP TABLE IF EXISTS booking CASCADE;
 DROP TABLE IF EXISTS comments CASCADE;
 DROP TABLE IF EXISTS requests CASCADE;
+DROP TABLE IF EXISTS booking_owner_summary CASCADE;
+DROP TABLE IF EXISTS schema_generation;
+DROP SEQUENCE IF EXISTS users_seq;
+DROP SEQUENCE IF EXISTS requests_seq;
+DROP SEQUENCE IF EXISTS items_seq;
+DROP SEQUENCE IF EXISTS booking_seq;
+DROP SEQUENCE IF EXISTS comments_seq;
+
+-- Шаг равен allocationSize в сущностях: Hibernate берет из последовательности сразу блок из 50 id
+CREATE SEQUENCE IF NOT EXISTS users_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS requests_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS items_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS booking_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS comments_seq START WITH 1 INCREMENT BY 50;
+
+-- Когда схема создана заново. Входит в ETag: после пересоздания записи снова получают id с 1 и версию 0,
+-- и без метки их ETag совпал бы с ETag удаленных записей, которые еще лежат в кэше шлюза
+CREATE TABLE IF NOT EXISTS schema_generation
+(
+    created TIMESTAMP NOT NULL
+    );
+
+INSERT INTO schema_generation (created) VALUES (CURRENT_TIMESTAMP);
 
 CREATE TABLE IF NOT EXISTS users
 (
-    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    id BIGINT DEFAULT nextval('users_seq') PRIMARY KEY,
     name VARCHAR(255) NOT NULL,
-    email VARCHAR(255) UNIQUE NOT NULL
+    email VARCHAR(255) UNIQUE NOT NULL,
+    version BIGINT NOT NULL DEFAULT 0
     );
 
 CREATE TABLE IF NOT EXISTS requests
 (
-    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    id BIGINT DEFAULT nextval('requests_seq') PRIMARY KEY,
     description VARCHAR(510) NOT NULL,
     requestor_id BIGINT NOT NULL REFERENCES users (id) ON DELETE CASCADE,
-    created TIMESTAMP NOT NULL
+    created TIMESTAMP NOT NULL,
+    version BIGINT NOT NULL DEFAULT 0
     );
 
 CREATE TABLE IF NOT EXISTS items
 (
-    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    id BIGINT DEFAULT nextval('items_seq') PRIMARY KEY,
     name VARCHAR(255) NOT NULL,
     description VARCHAR(510) NOT NULL,
     available BOOLEAN NOT NULL,
     owner BIGINT NOT NULL REFERENCES users (id) ON DELETE CASCADE,
-    request_id BIGINT REFERENCES requests (id)
+    request_id BIGINT REFERENCES requests (id),
+    version BIGINT NOT NULL DEFAULT 0
     );
 
 CREATE TABLE IF NOT EXISTS booking
 (
-    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    id BIGINT DEFAULT nextval('booking_seq') PRIMARY KEY,
     start_time TIMESTAMP NOT NULL,
     end_time TIMESTAMP NOT NULL,
     item_id BIGINT NOT NULL REFERENCES items (id) ON DELETE CASCADE,
@@ -39,12 +65,34 @@ CREATE TABLE IF NOT EXISTS booking
     status VARCHAR(55) NOT NULL
     );
 
+-- Число бронирований арендодателя в каждом статусе, ведет BookingService
+CREATE TABLE IF NOT EXISTS booking_owner_summary
+(
+    owner_id BIGINT NOT NULL REFERENCES users (id) ON DELETE CASCADE,
+    status VARCHAR(55) NOT NULL,
+    bookings BIGINT NOT NULL,
+    PRIMARY KEY (owner_id, status)
+    );
+
 CREATE TABLE IF NOT EXISTS comments
 (
-    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    id BIGINT DEFAULT nextval('comments_seq') PRIMARY KEY,
     text VARCHAR(510) NOT NULL,
     item_id BIGINT NOT NULL REFERENCES items (id) ON DELETE CASCADE,
     author BIGINT NOT NULL REFERENCES users (id) ON DELETE CASCADE,
     created TIMESTAMP NOT NULL
     );
 
+
+
+CREATE INDEX IF NOT EXISTS idx_requests_requestor_created ON requests (requestor_id, created DESC);
+CREATE INDEX IF NOT EXISTS idx_requests_created ON requests (created DESC);
+
+CREATE INDEX IF NOT EXISTS idx_items_owner_id ON items (owner, id);
+CREATE INDEX IF NOT EXISTS idx_items_request_id ON items (request_id);
+
+CREATE INDEX IF NOT EXISTS idx_booking_booker_start ON booking (booker, start_time DESC);
+CREATE INDEX IF NOT EXISTS idx_booking_item_status_start ON booking (item_id, status, start_time);
+CREATE INDEX IF NOT EXISTS idx_booking_item_end ON booking (item_id, end_time);
+
+CREATE INDEX IF NOT EXISTS idx_comments_item_id ON comments (item_id);
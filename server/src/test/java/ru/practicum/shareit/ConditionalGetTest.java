@@ -0,0 +1,213 @@
+package ru.practicum.shareit;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.Status;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.item.comment.model.Comment;
+import ru.practicum.shareit.item.comment.repository.CommentRepository;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.request.repository.ItemRequestRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import javax.persistence.EntityManagerFactory;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureMockMvc
+public class ConditionalGetTest {
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Autowired
+    UserRepository userRepository;
+
+    @Autowired
+    ItemRepository itemRepository;
+
+    @Autowired
+    ItemRequestRepository itemRequestRepository;
+
+    @Autowired
+    CommentRepository commentRepository;
+
+    @Autowired
+    BookingRepository bookingRepository;
+
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    User owner;
+
+    User booker;
+
+    Item item;
+
+    @BeforeEach
+    void setUp() {
+        owner = userRepository.save(User.builder().name("Owner").email(UUID.randomUUID() + "@ya.ru").build());
+        booker = userRepository.save(User.builder().name("Booker").email(UUID.randomUUID() + "@ya.ru").build());
+        item = itemRepository.save(Item.builder()
+                .name("Item")
+                .description("Description")
+                .available(true)
+                .owner(owner)
+                .build());
+    }
+
+    @Test
+    void itemIsNotModifiedUntilItemOrCommentsChange() throws Exception {
+        String etag = getEtag("/items/" + item.getId(), booker.getId());
+
+        mockMvc.perform(get("/items/" + item.getId())
+                        .header("X-Sharer-User-Id", booker.getId())
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, etag))
+                .andExpect(content().string(""));
+
+        commentRepository.save(Comment.builder()
+                .text("Отличная вещь")
+                .item(item)
+                .author(booker)
+                .created(LocalDateTime.now())
+                .build());
+        String commentedEtag = getEtag("/items/" + item.getId(), booker.getId());
+        Assertions.assertNotEquals(etag, commentedEtag);
+
+        mockMvc.perform(patch("/items/" + item.getId())
+                        .header("X-Sharer-User-Id", owner.getId())
+                        .content("{\"name\":\"Новое название\"}")
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/items/" + item.getId())
+                        .header("X-Sharer-User-Id", booker.getId())
+                        .header(HttpHeaders.IF_NONE_MATCH, commentedEtag))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void ownerEtagFollowsApprovedBookings() throws Exception {
+        String etag = getEtag("/items/" + item.getId(), owner.getId());
+        String bookerEtag = getEtag("/items/" + item.getId(), booker.getId());
+
+        mockMvc.perform(get("/items/" + item.getId())
+                        .header("X-Sharer-User-Id", owner.getId())
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+
+        bookingRepository.save(Booking.builder()
+                .start(LocalDateTime.now().plusDays(1))
+                .end(LocalDateTime.now().plusDays(2))
+                .item(item)
+                .booker(booker)
+                .status(Status.APPROVED)
+                .build());
+        mockMvc.perform(get("/items/" + item.getId())
+                        .header("X-Sharer-User-Id", owner.getId())
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk());
+        String bookedEtag = getEtag("/items/" + item.getId(), owner.getId());
+        mockMvc.perform(get("/items/" + item.getId())
+                        .header("X-Sharer-User-Id", owner.getId())
+                        .header(HttpHeaders.IF_NONE_MATCH, bookedEtag))
+                .andExpect(status().isNotModified());
+        Assertions.assertEquals(bookerEtag, getEtag("/items/" + item.getId(), booker.getId()));
+    }
+
+    @Test
+    void userIsNotModifiedUntilUpdated() throws Exception {
+        String etag = getEtag("/users/" + owner.getId(), owner.getId());
+
+        mockMvc.perform(get("/users/" + owner.getId())
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+
+        mockMvc.perform(patch("/users/" + owner.getId())
+                        .content("{\"name\":\"Renamed\"}")
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk());
+        Assertions.assertNotEquals(etag, getEtag("/users/" + owner.getId(), owner.getId()));
+    }
+
+    @Test
+    void requestChangesWhenItemIsAddedForIt() throws Exception {
+        ItemRequest itemRequest = itemRequestRepository.save(ItemRequest.builder()
+                .description("Нужна палатка")
+                .requestor(booker)
+                .created(LocalDateTime.now())
+                .build());
+        String etag = getEtag("/requests/" + itemRequest.getId(), booker.getId());
+
+        mockMvc.perform(get("/requests/" + itemRequest.getId())
+                        .header("X-Sharer-User-Id", booker.getId())
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+
+        itemRepository.save(Item.builder()
+                .name("Палатка")
+                .description("Трехместная")
+                .available(true)
+                .owner(owner)
+                .itemRequest(itemRequest)
+                .build());
+        mockMvc.perform(get("/requests/" + itemRequest.getId())
+                        .header("X-Sharer-User-Id", booker.getId())
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk());
+    }
+
+    /*Без If-None-Match ETag берется из загруженного ответа: пользователь читается один раз,
+    для запроса - пользователь, сам запрос и его предметы*/
+    @Test
+    void okResponseLoadsDataOnce() throws Exception {
+        ItemRequest itemRequest = itemRequestRepository.save(ItemRequest.builder()
+                .description("Нужна палатка")
+                .requestor(booker)
+                .created(LocalDateTime.now())
+                .build());
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        long before = statistics.getPrepareStatementCount();
+        getEtag("/users/" + owner.getId(), owner.getId());
+        Assertions.assertEquals(1, statistics.getPrepareStatementCount() - before);
+
+        before = statistics.getPrepareStatementCount();
+        getEtag("/requests/" + itemRequest.getId(), booker.getId());
+        Assertions.assertEquals(3, statistics.getPrepareStatementCount() - before);
+    }
+
+    private String getEtag(String path, long userId) throws Exception {
+        MvcResult result = mockMvc.perform(get(path)
+                        .header("X-Sharer-User-Id", userId))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.ETAG))
+                .andReturn();
+        return result.getResponse().getHeader(HttpHeaders.ETAG);
+    }
+}
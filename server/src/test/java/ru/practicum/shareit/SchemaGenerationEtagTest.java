@@ -0,0 +1,67 @@
+package ru.practicum.shareit;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/*Два запуска сервера на одной базе: второй запуск пересоздает схему, как при перезапуске в проде.
+Шлюз после этого приходит с ETag удаленного пользователя с тем же id и версией*/
+public class SchemaGenerationEtagTest {
+
+    private final String databaseUrl = "jdbc:h2:mem:generation-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1";
+
+    @Test
+    void recreatedUserDoesNotMatchEtagOfDeletedOne() throws Exception {
+        long userId;
+        String etag;
+        try (ConfigurableApplicationContext context = startServer()) {
+            MockMvc mockMvc = mockMvc(context);
+            userId = addUser(mockMvc, "Old");
+            etag = mockMvc.perform(get("/users/" + userId))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        }
+
+        try (ConfigurableApplicationContext context = startServer()) {
+            MockMvc mockMvc = mockMvc(context);
+            Assertions.assertEquals(userId, addUser(mockMvc, "New"));
+            mockMvc.perform(get("/users/" + userId)
+                            .header(HttpHeaders.IF_NONE_MATCH, etag))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.name").value("New"));
+        }
+    }
+
+    private ConfigurableApplicationContext startServer() {
+        return new SpringApplicationBuilder(ShareItApp.class)
+                .run("--server.port=0", "--spring.datasource.url=" + databaseUrl);
+    }
+
+    private static MockMvc mockMvc(ConfigurableApplicationContext context) {
+        return MockMvcBuilders.webAppContextSetup((WebApplicationContext) context).build();
+    }
+
+    private static long addUser(MockMvc mockMvc, String name) throws Exception {
+        String json = mockMvc.perform(post("/users")
+                        .content("{\"name\":\"" + name + "\",\"email\":\"user@ya.ru\"}")
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return Long.parseLong(json.replaceAll(".*\"id\":(\\d+).*", "$1"));
+    }
+}
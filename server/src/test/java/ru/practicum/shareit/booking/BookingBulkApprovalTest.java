@@ -0,0 +1,133 @@
+package ru.practicum.shareit.booking;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.Status;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.exceptions.IsExistException;
+import ru.practicum.shareit.exceptions.NotFoundException;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import javax.persistence.EntityManager;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@SpringBootTest
+@Transactional
+public class BookingBulkApprovalTest {
+
+    @Autowired
+    BookingService bookingService;
+
+    @Autowired
+    UserRepository userRepository;
+
+    @Autowired
+    ItemRepository itemRepository;
+
+    @Autowired
+    BookingRepository bookingRepository;
+
+    @Autowired
+    EntityManager entityManager;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    User owner;
+
+    User booker;
+
+    Item item;
+
+    LocalDateTime start;
+
+    @BeforeEach
+    void setUp() {
+        owner = userRepository.save(User.builder().name("Owner").email("bulk-owner@ya.ru").build());
+        booker = userRepository.save(User.builder().name("Booker").email("bulk-booker@ya.ru").build());
+        item = itemRepository.save(Item.builder()
+                .name("Item")
+                .description("Description")
+                .available(true)
+                .owner(owner)
+                .build());
+        start = LocalDateTime.now().plusDays(1);
+    }
+
+    @Test
+    void statusesAreChangedWithOneBatch() {
+        Booking first = saveBooking(item, start, Status.WAITING);
+        Booking second = saveBooking(item, start.plusDays(2), Status.WAITING);
+        Booking third = saveBooking(item, start.plusDays(4), Status.REJECTED);
+
+        List<BookingDto> bookings = bookingService.changeApproveStatuses(owner.getId(), List.of(
+                new BookingDecisionDto(first.getId(), true),
+                new BookingDecisionDto(second.getId(), false),
+                new BookingDecisionDto(third.getId(), true)));
+
+        Assertions.assertEquals(List.of(Status.APPROVED, Status.REJECTED, Status.APPROVED),
+                List.of(bookings.get(0).getStatus(), bookings.get(1).getStatus(), bookings.get(2).getStatus()));
+        Assertions.assertEquals("APPROVED", status(first));
+        Assertions.assertEquals("REJECTED", status(second));
+        Assertions.assertEquals("APPROVED", status(third));
+    }
+
+    @Test
+    void nothingIsChangedWhenOneBookingBelongsToAnotherOwner() {
+        Item foreignItem = itemRepository.save(Item.builder()
+                .name("Foreign")
+                .description("Description")
+                .available(true)
+                .owner(booker)
+                .build());
+        Booking own = saveBooking(item, start, Status.WAITING);
+        Booking foreign = saveBooking(foreignItem, start, Status.WAITING);
+
+        Assertions.assertThrows(NotFoundException.class,
+                () -> bookingService.changeApproveStatuses(owner.getId(), List.of(
+                        new BookingDecisionDto(own.getId(), true),
+                        new BookingDecisionDto(foreign.getId(), true))));
+        Assertions.assertEquals("WAITING", status(own));
+        Assertions.assertEquals("WAITING", status(foreign));
+    }
+
+    @Test
+    void rejectedBookingCannotBeApprovedOverAnotherActiveBooking() {
+        saveBooking(item, start, Status.APPROVED);
+        Booking rejected = saveBooking(item, start.plusHours(1), Status.REJECTED);
+
+        Assertions.assertThrows(IsExistException.class,
+                () -> bookingService.changeApproveStatuses(owner.getId(), List.of(
+                        new BookingDecisionDto(rejected.getId(), true))));
+        Assertions.assertEquals("REJECTED", status(rejected));
+    }
+
+    private Booking saveBooking(Item bookedItem, LocalDateTime bookingStart, Status status) {
+        Booking booking = bookingRepository.save(Booking.builder()
+                .item(bookedItem)
+                .booker(booker)
+                .start(bookingStart)
+                .end(bookingStart.plusDays(1))
+                .status(status)
+                .build());
+        entityManager.flush();
+        return booking;
+    }
+
+    private String status(Booking booking) {
+        return jdbcTemplate.queryForObject("SELECT status FROM booking WHERE id = ?", String.class, booking.getId());
+    }
+}
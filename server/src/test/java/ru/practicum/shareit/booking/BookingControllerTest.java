@@ -1,6 +1,9 @@
 package ru.practicum.shareit.booking;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -9,8 +12,10 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.IncomingBookingDto;
+import ru.practicum.shareit.booking.model.State;
 import ru.practicum.shareit.booking.model.Status;
 import ru.practicum.shareit.booking.service.BookingService;
 import ru.practicum.shareit.item.dto.ItemDto;
@@ -20,10 +25,13 @@ import ru.practicum.shareit.user.mapper.UserMapper;
 import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 
 import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -127,6 +135,54 @@ public class BookingControllerTest {
                 .andExpect(jsonPath("$.status").value(bookingDto.getStatus().toString()));
     }
 
+    @Test
+    void bookingIsWrittenInSmileForGateway() throws Exception {
+        when(bookingService.getBookingById(anyLong(), anyLong())).thenReturn(bookingDto);
+
+        byte[] smile = mockMvc.perform(get("/bookings/1")
+                        .header("X-Sharer-User-Id", 1L)
+                        .accept(MediaType.parseMediaType("application/x-jackson-smile"), MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-jackson-smile"))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        JsonNode booking = new SmileMapper().readTree(smile);
+        Assertions.assertEquals(bookingDto.getId(), booking.get("id").asLong());
+        Assertions.assertEquals(bookingDto.getStart().toString(), booking.get("start").asText());
+        Assertions.assertEquals(bookingDto.getStatus().toString(), booking.get("status").asText());
+    }
+
+    @Test
+    void approveBookingsTest() throws Exception {
+        bookingDto.setStatus(Status.APPROVED);
+        when(bookingService.changeApproveStatuses(anyLong(), anyList()))
+                .thenReturn(List.of(bookingDto));
+
+        mockMvc.perform(patch("/bookings")
+                        .header("X-Sharer-User-Id", 1L)
+                        .content(mapper.writeValueAsString(List.of(new BookingDecisionDto(1L, true))))
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(bookingDto.getId()))
+                .andExpect(jsonPath("$[0].status").value(Status.APPROVED.toString()));
+    }
+
+    @Test
+    void getBookingCountsForOwnerTest() throws Exception {
+        when(bookingService.getBookingCountsByOwner(anyLong()))
+                .thenReturn(Map.of(State.ALL, 5L, State.WAITING, 5L, State.PAST, 0L));
+
+        mockMvc.perform(get("/bookings/owner/counts")
+                        .header("X-Sharer-User-Id", 1L)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.ALL").value(5))
+                .andExpect(jsonPath("$.WAITING").value(5))
+                .andExpect(jsonPath("$.PAST").value(0));
+    }
+
     @Test
     void getBookingByIdTest() throws Exception {
         when(bookingService.getBookingById(anyLong(), anyLong()))
@@ -182,6 +238,33 @@ public class BookingControllerTest {
                 .andExpect(jsonPath("$.[0].status").value(bookingDto.getStatus().toString()));
     }
 
+    @Test
+    void shouldReturnListOfBookingsOfItemOwnerAfterCursor() throws Exception {
+        when(bookingService.getBookingByOwnerAfter(anyLong(), any(), any(LocalDateTime.class), anyLong(), anyInt()))
+                .thenReturn(List.of(bookingDto));
+        mockMvc.perform(get("/bookings/owner?state=all&cursorStart=2023-10-12T10:10:30&cursorId=2&size=1")
+                        .header("X-Sharer-User-Id", 1L)
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.[0].id").value(bookingDto.getId()))
+                .andExpect(jsonPath("$.[0].start").value(bookingDto.getStart().toString()));
+    }
+
+    @Test
+    void shouldRejectPartialCursor() throws Exception {
+        mockMvc.perform(get("/bookings?state=all&cursorStart=2030-01-01T00:00:00")
+                        .header("X-Sharer-User-Id", 1L)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/bookings/owner?state=all&cursorId=2&size=1")
+                        .header("X-Sharer-User-Id", 1L)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+        verifyNoInteractions(bookingService);
+    }
+
     @Test
     void shouldReturnExceptionOfBookingsOfBooker() throws Exception {
         mockMvc.perform(get("/bookings?state=unsupported&from=0&size=1")
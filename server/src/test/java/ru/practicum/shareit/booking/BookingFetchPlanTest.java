@@ -0,0 +1,127 @@
+package ru.practicum.shareit.booking;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.State;
+import ru.practicum.shareit.booking.model.Status;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Supplier;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Transactional
+public class BookingFetchPlanTest {
+
+    private static final int PAGE_SIZE = 100;
+
+    @Autowired
+    BookingService bookingService;
+
+    @Autowired
+    UserRepository userRepository;
+
+    @Autowired
+    ItemRepository itemRepository;
+
+    @Autowired
+    BookingRepository bookingRepository;
+
+    @Autowired
+    EntityManager entityManager;
+
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    Statistics statistics;
+
+    User owner;
+
+    User booker;
+
+    @BeforeEach
+    void setUp() {
+        owner = userRepository.save(User.builder().name("Owner").email("fetch-owner@ya.ru").build());
+        booker = userRepository.save(User.builder().name("Booker").email("fetch-booker@ya.ru").build());
+        LocalDateTime now = LocalDateTime.now();
+        Status[] statuses = {Status.WAITING, Status.APPROVED, Status.REJECTED};
+        for (int i = 0; i < PAGE_SIZE; i++) {
+            Item item = itemRepository.save(Item.builder()
+                    .name("Item " + i)
+                    .description("Description " + i)
+                    .available(true)
+                    .owner(owner)
+                    .build());
+            /*У каждой брони свой предмет и свой арендатор, чтобы N+1 проявился и на items, и на users*/
+            User otherBooker = userRepository.save(User.builder()
+                    .name("Booker " + i)
+                    .email("fetch-booker-" + i + "@ya.ru")
+                    .build());
+            LocalDateTime start = now.plusDays(i % 3 - 1).minusHours(1);
+            bookingRepository.save(booking(item, booker, start, statuses[i % 3]));
+            bookingRepository.save(booking(item, otherBooker, start.plusYears(1), statuses[i % 3]));
+        }
+        entityManager.flush();
+        entityManager.clear();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void bookerPagesAreLoadedWithOneStatement() {
+        for (State state : State.values()) {
+            assertOneListingStatement(state, () -> bookingService.getBookingByBooker(booker.getId(), state, 0, PAGE_SIZE));
+            assertOneListingStatement(state, () -> bookingService.getBookingByBooker(booker.getId(), state, null, null));
+            assertOneListingStatement(state, () -> bookingService.getBookingByBookerAfter(booker.getId(), state,
+                    LocalDateTime.now().plusYears(5), Long.MAX_VALUE, PAGE_SIZE));
+        }
+    }
+
+    @Test
+    void ownerPagesAreLoadedWithOneStatement() {
+        for (State state : State.values()) {
+            assertOneListingStatement(state, () -> bookingService.getBookingByOwner(owner.getId(), state, 0, PAGE_SIZE));
+            assertOneListingStatement(state, () -> bookingService.getBookingByOwner(owner.getId(), state, null, null));
+            assertOneListingStatement(state, () -> bookingService.getBookingByOwnerAfter(owner.getId(), state,
+                    LocalDateTime.now().plusYears(5), Long.MAX_VALUE, PAGE_SIZE));
+        }
+        Assertions.assertEquals(PAGE_SIZE,
+                bookingService.getBookingByOwner(owner.getId(), State.ALL, 0, PAGE_SIZE).size());
+    }
+
+    /*Первый запрос - проверка существования пользователя, второй - сама страница*/
+    private void assertOneListingStatement(State state, Supplier<List<BookingDto>> listing) {
+        entityManager.clear();
+        statistics.clear();
+
+        List<BookingDto> bookings = listing.get();
+
+        Assertions.assertFalse(bookings.isEmpty(), state.name());
+        Assertions.assertEquals(2, statistics.getPrepareStatementCount(), state.name());
+    }
+
+    private Booking booking(Item item, User booker, LocalDateTime start, Status status) {
+        return Booking.builder()
+                .item(item)
+                .booker(booker)
+                .start(start)
+                .end(start.plusHours(2))
+                .status(status)
+                .build();
+    }
+}
@@ -0,0 +1,207 @@
+package ru.practicum.shareit.booking;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.IncomingBookingDto;
+import ru.practicum.shareit.booking.model.State;
+import ru.practicum.shareit.booking.model.Status;
+import ru.practicum.shareit.booking.repository.BookingSummaryRepository;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.exceptions.ValidationException;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.user.service.UserService;
+
+import javax.persistence.EntityManager;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+@SpringBootTest
+@Transactional
+public class BookingOwnerCountsTest {
+
+    @Autowired
+    BookingService bookingService;
+
+    @Autowired
+    UserService userService;
+
+    @Autowired
+    BookingSummaryRepository bookingSummaryRepository;
+
+    @Autowired
+    UserRepository userRepository;
+
+    @Autowired
+    ItemRepository itemRepository;
+
+    @Autowired
+    EntityManager entityManager;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    User owner;
+
+    User booker;
+
+    User secondBooker;
+
+    Item item;
+
+    @BeforeEach
+    void setUp() {
+        owner = userRepository.save(User.builder().name("Owner").email("counts-owner@ya.ru").build());
+        booker = userRepository.save(User.builder().name("Booker").email("counts-booker@ya.ru").build());
+        secondBooker = userRepository.save(User.builder().name("Second").email("counts-second@ya.ru").build());
+        item = itemRepository.save(Item.builder()
+                .name("Item")
+                .description("Description")
+                .available(true)
+                .owner(owner)
+                .build());
+    }
+
+    @Test
+    void countsMatchOwnerBookingLists() {
+        LocalDateTime now = LocalDateTime.now();
+        BookingDto past = addBooking(booker, now.minusDays(10), now.minusDays(9));
+        BookingDto current = addBooking(booker, now.minusDays(1), now.plusDays(1));
+        BookingDto future = addBooking(secondBooker, now.plusDays(2), now.plusDays(3));
+        addBooking(secondBooker, now.plusDays(4), now.plusDays(5));
+        bookingService.changeApproveStatus(owner.getId(), past.getId(), true);
+        bookingService.changeApproveStatuses(owner.getId(), List.of(
+                new BookingDecisionDto(current.getId(), true),
+                new BookingDecisionDto(future.getId(), false)));
+
+        Map<State, Long> counts = bookingService.getBookingCountsByOwner(owner.getId());
+
+        for (State state : State.values()) {
+            Assertions.assertEquals(bookingService.getBookingByOwner(owner.getId(), state, null, null).size(),
+                    counts.get(state), state.name());
+        }
+        Assertions.assertEquals(Map.of(State.ALL, 4L, State.CURRENT, 1L, State.PAST, 1L, State.FUTURE, 2L,
+                State.WAITING, 1L, State.REJECTED, 1L), counts);
+    }
+
+    @Test
+    void removedBookerIsSubtractedFromSummary() {
+        LocalDateTime now = LocalDateTime.now();
+        addBooking(booker, now.plusDays(1), now.plusDays(2));
+        addBooking(secondBooker, now.plusDays(3), now.plusDays(4));
+        /*В приложении бронирования уже сохранены предыдущими запросами, а сводку читает JdbcTemplate*/
+        entityManager.flush();
+
+        userService.removeUser(secondBooker.getId());
+        entityManager.flush();
+
+        Map<State, Long> counts = bookingService.getBookingCountsByOwner(owner.getId());
+        Assertions.assertEquals(1L, counts.get(State.ALL));
+        Assertions.assertEquals(1L, counts.get(State.WAITING));
+        Map<Status, Long> incremental = bookingSummaryRepository.findCounts(owner.getId());
+        bookingSummaryRepository.rebuild();
+        Assertions.assertEquals(bookingSummaryRepository.findCounts(owner.getId()), incremental);
+    }
+
+    /*Без общей транзакции: два подтверждения идут параллельно в своих транзакциях*/
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void concurrentApprovalsChangeSummaryOnce() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            long bookingId = addBooking(booker, now.plusDays(1), now.plusDays(2)).getId();
+            CyclicBarrier barrier = new CyclicBarrier(2);
+            Callable<BookingDto> approve = () -> {
+                barrier.await();
+                return bookingService.changeApproveStatus(owner.getId(), bookingId, true);
+            };
+            List<Future<BookingDto>> results = new ArrayList<>();
+            results.add(executor.submit(approve));
+            results.add(executor.submit(approve));
+
+            int approved = 0;
+            int rejected = 0;
+            for (Future<BookingDto> result : results) {
+                try {
+                    result.get(10, TimeUnit.SECONDS);
+                    approved++;
+                } catch (ExecutionException e) {
+                    Assertions.assertInstanceOf(ValidationException.class, e.getCause());
+                    rejected++;
+                }
+            }
+            Assertions.assertEquals(1, approved);
+            Assertions.assertEquals(1, rejected);
+            Assertions.assertEquals(Map.of(Status.APPROVED, 1L, Status.WAITING, 0L),
+                    bookingSummaryRepository.findCounts(owner.getId()));
+        } finally {
+            executor.shutdownNow();
+            userService.removeUser(booker.getId());
+            userService.removeUser(secondBooker.getId());
+            userService.removeUser(owner.getId());
+        }
+    }
+
+    /*Подтверждение заблокировало бронирование и еще не зафиксировано, когда начинается удаление арендатора.
+    Удаление должно дождаться фиксации и вычесть из сводки уже подтвержденное бронирование*/
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void removingBookerWaitsForApprovalInProgress() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            long bookingId = addBooking(booker, now.plusDays(1), now.plusDays(2)).getId();
+            CountDownLatch approved = new CountDownLatch(1);
+            CountDownLatch commit = new CountDownLatch(1);
+            Future<?> approval = executor.submit(() -> transactionTemplate.executeWithoutResult(status -> {
+                bookingService.changeApproveStatus(owner.getId(), bookingId, true);
+                approved.countDown();
+                try {
+                    commit.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }));
+            Assertions.assertTrue(approved.await(10, TimeUnit.SECONDS));
+
+            Future<?> removal = executor.submit(() -> userService.removeUser(booker.getId()));
+            Assertions.assertThrows(TimeoutException.class, () -> removal.get(300, TimeUnit.MILLISECONDS));
+            commit.countDown();
+            approval.get(10, TimeUnit.SECONDS);
+            removal.get(10, TimeUnit.SECONDS);
+
+            Assertions.assertEquals(Map.of(Status.APPROVED, 0L, Status.WAITING, 0L),
+                    bookingSummaryRepository.findCounts(owner.getId()));
+        } finally {
+            executor.shutdownNow();
+            userService.removeUser(secondBooker.getId());
+            userService.removeUser(owner.getId());
+        }
+    }
+
+    private BookingDto addBooking(User bookingUser, LocalDateTime start, LocalDateTime end) {
+        return bookingService.addBooking(bookingUser.getId(), new IncomingBookingDto(item.getId(), start, end));
+    }
+}
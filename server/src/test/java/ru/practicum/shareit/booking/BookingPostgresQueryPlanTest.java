@@ -0,0 +1,135 @@
+package ru.practicum.shareit.booking;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/*Те же запросы, что в BookingQueryPlanTest, но на Postgres: на маленькой таблице планировщик
+выбирает полный просмотр при любых индексах, поэтому перед EXPLAIN таблицы заполняются
+и собирается статистика. Без Docker тест пропускается*/
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=" +
+                "ru.practicum.shareit.booking.BookingQueryPlanTest$SqlRecorder",
+        "spring.datasource.driverClassName=org.postgresql.Driver",
+        "spring.sql.init.platform=postgresql"})
+@Testcontainers(disabledWithoutDocker = true)
+@Transactional
+public class BookingPostgresQueryPlanTest {
+
+    private static final int USERS = 2_000;
+    private static final int ITEMS = 20_000;
+    private static final int BOOKINGS = 200_000;
+
+    /*booking_owner_summary под это условие не попадает*/
+    private static final Pattern BOOKING_SEQ_SCAN = Pattern.compile("Seq Scan on booking\\b");
+
+    @Container
+    static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:14-alpine");
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", POSTGRES::getJdbcUrl);
+        registry.add("spring.datasource.username", POSTGRES::getUsername);
+        registry.add("spring.datasource.password", POSTGRES::getPassword);
+    }
+
+    @Autowired
+    BookingRepository bookingRepository;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Test
+    void bookingRepositoryQueriesDoNotScanBookingTable() throws Exception {
+        seed();
+        for (Method method : BookingRepository.class.getDeclaredMethods()) {
+            BookingQueryPlanTest.SqlRecorder.STATEMENTS.clear();
+            method.invoke(bookingRepository, BookingQueryPlanTest.arguments(method));
+
+            Assertions.assertFalse(BookingQueryPlanTest.SqlRecorder.STATEMENTS.isEmpty(), method.getName());
+            for (String sql : BookingQueryPlanTest.SqlRecorder.STATEMENTS) {
+                String plan = explain(sql);
+                Assertions.assertFalse(BOOKING_SEQ_SCAN.matcher(plan).find(),
+                        method.getName() + " выполняет полный просмотр таблицы booking:\n" + plan);
+            }
+        }
+    }
+
+    /*У каждого предмета по одному бронированию в день начиная с пяти дней назад, так что есть
+    прошедшие, текущие и будущие. Бронирования одного предмета не пересекаются
+    и не нарушают booking_no_overlap*/
+    private void seed() {
+        jdbcTemplate.update("INSERT INTO users (id, name, email) " +
+                "SELECT n, 'user' || n, 'user' || n || '@mail.ru' FROM generate_series(1, ?) AS n", USERS);
+        jdbcTemplate.update("INSERT INTO items (id, name, description, available, owner) " +
+                "SELECT n, 'item' || n, 'description' || n, TRUE, n % ? + 1 FROM generate_series(1, ?) AS n",
+                USERS, ITEMS);
+        jdbcTemplate.update("INSERT INTO booking (id, start_time, end_time, item_id, booker, status) " +
+                "SELECT n + 1, " +
+                "LOCALTIMESTAMP - INTERVAL '5 days' + (n / ?) * INTERVAL '1 day', " +
+                "LOCALTIMESTAMP - INTERVAL '5 days' + (n / ?) * INTERVAL '1 day' + INTERVAL '12 hours', " +
+                "n % ? + 1, n % (? - 1) + 1, " +
+                "(ARRAY['WAITING', 'APPROVED', 'REJECTED', 'CANCELED'])[(n / ?) % 4 + 1] " +
+                "FROM generate_series(0, ? - 1) AS n", ITEMS, ITEMS, ITEMS, USERS, ITEMS, BOOKINGS);
+        jdbcTemplate.execute("ANALYZE users, items, booking");
+    }
+
+    /*Запрос Hibernate готовится как PREPARE, а для EXPLAIN EXECUTE значения параметров подбираются
+    по выведенным Postgres типам: так план строится под конкретные значения, как при обычном вызове*/
+    private String explain(String sql) {
+        jdbcTemplate.execute("PREPARE plan AS " + numberParameters(sql));
+        try {
+            List<String> types = jdbcTemplate.queryForList("SELECT unnest(parameter_types)::text " +
+                    "FROM pg_prepared_statements WHERE name = 'plan'", String.class);
+            String values = types.stream()
+                    .map(BookingPostgresQueryPlanTest::parameterValue)
+                    .collect(Collectors.joining(", ", "(", ")"));
+            return String.join("\n", jdbcTemplate.queryForList("EXPLAIN EXECUTE plan" +
+                    (types.isEmpty() ? "" : values), String.class));
+        } finally {
+            jdbcTemplate.execute("DEALLOCATE plan");
+        }
+    }
+
+    private static String numberParameters(String sql) {
+        StringBuilder numbered = new StringBuilder();
+        int parameter = 0;
+        for (char c : sql.toCharArray()) {
+            if (c == '?') {
+                numbered.append('$').append(++parameter);
+            } else {
+                numbered.append(c);
+            }
+        }
+        return numbered.toString();
+    }
+
+    private static String parameterValue(String type) {
+        switch (type) {
+            case "bigint":
+            case "integer":
+                return "10";
+            case "timestamp without time zone":
+                return "LOCALTIMESTAMP";
+            case "character varying":
+            case "text":
+                return "'WAITING'";
+            default:
+                throw new IllegalArgumentException("Неизвестный тип параметра " + type);
+        }
+    }
+}
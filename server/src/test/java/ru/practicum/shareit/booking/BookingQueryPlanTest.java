@@ -0,0 +1,80 @@
+package ru.practicum.shareit.booking;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.model.Status;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+
+import java.lang.reflect.Method;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector=" +
+        "ru.practicum.shareit.booking.BookingQueryPlanTest$SqlRecorder")
+@Transactional
+public class BookingQueryPlanTest {
+
+    @Autowired
+    BookingRepository bookingRepository;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Test
+    void bookingRepositoryQueriesDoNotScanBookingTable() throws Exception {
+        for (Method method : BookingRepository.class.getDeclaredMethods()) {
+            SqlRecorder.STATEMENTS.clear();
+            method.invoke(bookingRepository, arguments(method));
+
+            Assertions.assertFalse(SqlRecorder.STATEMENTS.isEmpty(), method.getName());
+            for (String sql : SqlRecorder.STATEMENTS) {
+                String plan = String.join("\n", jdbcTemplate.queryForList("EXPLAIN " + sql, String.class));
+                Assertions.assertFalse(plan.contains("BOOKING.tableScan"),
+                        method.getName() + " выполняет полный просмотр таблицы booking:\n" + plan);
+            }
+        }
+    }
+
+    static Object[] arguments(Method method) {
+        List<Object> arguments = new ArrayList<>();
+        for (Class<?> type : method.getParameterTypes()) {
+            if (type == long.class || type == Long.class) {
+                arguments.add(1L);
+            } else if (type == LocalDateTime.class) {
+                arguments.add(LocalDateTime.now());
+            } else if (type == Status.class) {
+                arguments.add(Status.WAITING);
+            } else if (type == Pageable.class) {
+                arguments.add(PageRequest.of(1, 10));
+            } else if (Collection.class.isAssignableFrom(type)) {
+                arguments.add(List.of(1L, 2L));
+            } else {
+                throw new IllegalArgumentException("Неизвестный тип параметра " + type + " в " + method.getName());
+            }
+        }
+        return arguments.toArray();
+    }
+
+    public static class SqlRecorder implements StatementInspector {
+
+        static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            if (sql.trim().toLowerCase().startsWith("select")) {
+                STATEMENTS.add(sql);
+            }
+            return sql;
+        }
+    }
+}
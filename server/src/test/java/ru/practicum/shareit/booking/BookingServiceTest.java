@@ -6,15 +6,20 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.IncomingBookingDto;
+import ru.practicum.shareit.booking.interval.BookingInterval;
 import ru.practicum.shareit.booking.mapper.BookingMapper;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.State;
 import ru.practicum.shareit.booking.model.Status;
+import ru.practicum.shareit.booking.repository.ActiveBookingCounts;
 import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.repository.BookingSummaryRepository;
 import ru.practicum.shareit.booking.service.BookingService;
 import ru.practicum.shareit.exceptions.AvailableException;
+import ru.practicum.shareit.exceptions.IsExistException;
 import ru.practicum.shareit.exceptions.NotFoundException;
 import ru.practicum.shareit.exceptions.ValidationException;
 import ru.practicum.shareit.item.dto.ItemDto;
@@ -27,9 +32,14 @@ import ru.practicum.shareit.user.repository.UserRepository;
 import java.time.LocalDateTime;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @SpringBootTest
@@ -44,6 +54,9 @@ public class BookingServiceTest {
     @MockBean
     ItemRepository itemRepository;
 
+    @MockBean
+    BookingSummaryRepository bookingSummaryRepository;
+
     @Autowired
     BookingService bookingService;
 
@@ -111,6 +124,22 @@ public class BookingServiceTest {
         Assertions.assertEquals(actualBooking.getBooker().getId(), bookingDto.getBooker().getId());
     }
 
+    @Test
+    void addBookingOverlappingExistingBooking() {
+        itemDto.setId(10L);
+        incomingBookingDto.setItemId(itemDto.getId());
+        when(userRepository.findById(anyLong())).thenReturn(UserMapper.toUser(userDto2));
+        when(itemRepository.getItemById(anyLong())).thenReturn(ItemMapper.toItem(UserMapper.toUser(userDto), itemDto));
+        when(bookingRepository.findItemActiveIntervals(itemDto.getId()))
+                .thenReturn(List.of(new BookingInterval(5L, bookingDto.getStart().minusHours(1),
+                        bookingDto.getStart().plusHours(1))));
+        when(bookingRepository.existsById(5L)).thenReturn(true);
+
+        IsExistException e = Assertions.assertThrows(IsExistException.class,
+                () -> bookingService.addBooking(userDto2.getId(), incomingBookingDto));
+        Assertions.assertEquals("Предмет с id = " + itemDto.getId() + " уже забронирован на это время", e.getMessage());
+    }
+
     @Test
     void addBookingWithNotFoundBooker() {
         long bookerId = 10L;
@@ -205,7 +234,7 @@ public class BookingServiceTest {
                 .status(Status.APPROVED)
                 .build();
         when(userRepository.findById(anyLong())).thenReturn(UserMapper.toUser(userDto));
-        when(bookingRepository.findById(anyLong()))
+        when(bookingRepository.findByIdForUpdate(anyLong()))
                 .thenReturn(booking);
 
         ValidationException e = Assertions.assertThrows(ValidationException.class,
@@ -224,7 +253,7 @@ public class BookingServiceTest {
                 .status(Status.WAITING)
                 .build();
         when(userRepository.findById(anyLong())).thenReturn(UserMapper.toUser(userDto2));
-        when(bookingRepository.findById(anyLong()))
+        when(bookingRepository.findByIdForUpdate(anyLong()))
                 .thenReturn(booking);
 
         NotFoundException e = Assertions.assertThrows(NotFoundException.class,
@@ -244,7 +273,7 @@ public class BookingServiceTest {
                 .status(Status.WAITING)
                 .build();
         when(userRepository.findById(anyLong())).thenReturn(UserMapper.toUser(userDto));
-        when(bookingRepository.findById(anyLong()))
+        when(bookingRepository.findByIdForUpdate(anyLong()))
                 .thenReturn(booking);
         when(bookingRepository.save(any())).thenReturn(booking);
 
@@ -264,7 +293,7 @@ public class BookingServiceTest {
                 .status(Status.WAITING)
                 .build();
         when(userRepository.findById(anyLong())).thenReturn(UserMapper.toUser(userDto));
-        when(bookingRepository.findById(anyLong()))
+        when(bookingRepository.findByIdForUpdate(anyLong()))
                 .thenReturn(booking);
         when(bookingRepository.save(any())).thenReturn(booking);
 
@@ -273,6 +302,97 @@ public class BookingServiceTest {
         Assertions.assertEquals(actualBookingDto.getStatus(), Status.REJECTED);
     }
 
+    @Test
+    void changeApproveStatusesTest() {
+        Booking approved = bookingOfItem(1L, 20L, userDto);
+        Booking rejected = bookingOfItem(2L, 21L, userDto);
+        when(userRepository.findById(anyLong())).thenReturn(UserMapper.toUser(userDto));
+        when(bookingRepository.findAllWithItemAndBookerByIdIn(any())).thenReturn(List.of(rejected, approved));
+
+        List<BookingDto> actualBookings = bookingService.changeApproveStatuses(userDto.getId(), List.of(
+                new BookingDecisionDto(1L, true),
+                new BookingDecisionDto(2L, false)));
+
+        Assertions.assertEquals(2, actualBookings.size());
+        Assertions.assertEquals(1L, actualBookings.get(0).getId());
+        Assertions.assertEquals(Status.APPROVED, actualBookings.get(0).getStatus());
+        Assertions.assertEquals(2L, actualBookings.get(1).getId());
+        Assertions.assertEquals(Status.REJECTED, actualBookings.get(1).getStatus());
+        verify(bookingRepository).updateStatuses(Map.of(1L, Status.APPROVED, 2L, Status.REJECTED));
+        verify(bookingRepository, never()).save(any());
+        verify(bookingSummaryRepository).changeCounts(userDto.getId(),
+                Map.of(Status.WAITING, -2L, Status.APPROVED, 1L, Status.REJECTED, 1L));
+    }
+
+    @Test
+    void getBookingCountsByOwnerTest() {
+        when(userRepository.findById(anyLong())).thenReturn(UserMapper.toUser(userDto));
+        when(bookingSummaryRepository.findCounts(userDto.getId())).thenReturn(Map.of(
+                Status.WAITING, 3L,
+                Status.APPROVED, 10L,
+                Status.REJECTED, 2L));
+        when(bookingRepository.countActiveBookingsByOwner(eq(userDto.getId()), any()))
+                .thenReturn(new ActiveBookingCounts(6L, 4L));
+
+        Map<State, Long> counts = bookingService.getBookingCountsByOwner(userDto.getId());
+
+        Assertions.assertEquals(Map.of(
+                State.ALL, 15L,
+                State.CURRENT, 2L,
+                State.PAST, 9L,
+                State.FUTURE, 4L,
+                State.WAITING, 3L,
+                State.REJECTED, 2L), counts);
+    }
+
+    @Test
+    void getBookingCountsByNotFoundOwner() {
+        when(userRepository.findById(anyLong())).thenReturn(null);
+
+        Assertions.assertThrows(NotFoundException.class, () -> bookingService.getBookingCountsByOwner(99L));
+        verify(bookingRepository, never()).countActiveBookingsByOwner(anyLong(), any());
+    }
+
+    @Test
+    void changeApproveStatusesWithForeignBooking() {
+        when(userRepository.findById(anyLong())).thenReturn(UserMapper.toUser(userDto));
+        when(bookingRepository.findAllWithItemAndBookerByIdIn(any())).thenReturn(List.of(
+                bookingOfItem(1L, 22L, userDto),
+                bookingOfItem(2L, 23L, userDto2)));
+
+        NotFoundException e = Assertions.assertThrows(NotFoundException.class,
+                () -> bookingService.changeApproveStatuses(userDto.getId(), List.of(
+                        new BookingDecisionDto(1L, true),
+                        new BookingDecisionDto(2L, true))));
+        Assertions.assertEquals("У пользователя с id = " + userDto.getId() + " не найден такой предмет",
+                e.getMessage());
+        verify(bookingRepository, never()).updateStatuses(any());
+    }
+
+    @Test
+    void changeApproveStatusesWithNotFoundBooking() {
+        when(userRepository.findById(anyLong())).thenReturn(UserMapper.toUser(userDto));
+        when(bookingRepository.findAllWithItemAndBookerByIdIn(any())).thenReturn(List.of(
+                bookingOfItem(1L, 24L, userDto)));
+
+        NotFoundException e = Assertions.assertThrows(NotFoundException.class,
+                () -> bookingService.changeApproveStatuses(userDto.getId(), List.of(
+                        new BookingDecisionDto(1L, true),
+                        new BookingDecisionDto(5L, true))));
+        Assertions.assertEquals("Запрос с id = 5 не найден", e.getMessage());
+    }
+
+    @Test
+    void changeApproveStatusesWithRepeatedBooking() {
+        when(userRepository.findById(anyLong())).thenReturn(UserMapper.toUser(userDto));
+
+        ValidationException e = Assertions.assertThrows(ValidationException.class,
+                () -> bookingService.changeApproveStatuses(userDto.getId(), List.of(
+                        new BookingDecisionDto(1L, true),
+                        new BookingDecisionDto(1L, false))));
+        Assertions.assertEquals("Решение по бронированию с id = 1 указано несколько раз", e.getMessage());
+    }
+
     @Test
     void getBookingByWithNotFoundId() {
         NotFoundException e = Assertions.assertThrows(NotFoundException.class,
@@ -527,6 +647,19 @@ public class BookingServiceTest {
         Assertions.assertEquals(actualBookingDtoList.get(0).getStatus(), booking.getStatus());
     }
 
+    @Test
+    void getBookingByBookerWithFromNotMultipleOfSize() {
+        when(userRepository.findById(anyLong())).thenReturn(UserMapper.toUser(userDto2));
+
+        bookingService.getBookingByBooker(userDto2.getId(), State.ALL, 1, 2);
+        bookingService.getBookingByOwner(userDto2.getId(), State.ALL, 3, 2);
+
+        verify(bookingRepository).findAllByBookerIdOrderByStartDesc(eq(userDto2.getId()),
+                argThat(pageable -> pageable.getOffset() == 1 && pageable.getPageSize() == 2));
+        verify(bookingRepository).findAllBookingByOwner(eq(userDto2.getId()),
+                argThat(pageable -> pageable.getOffset() == 3 && pageable.getPageSize() == 2));
+    }
+
     @Test
     void getBookingByBookerWithStateIsCurrentWithPagination() {
         Booking booking = Booking.builder()
@@ -944,4 +1077,102 @@ public class BookingServiceTest {
         Assertions.assertEquals(actualBookingDtoList.get(0).getBooker().getId(), booking.getBooker().getId());
         Assertions.assertEquals(actualBookingDtoList.get(0).getStatus(), booking.getStatus());
     }
+
+    @Test
+    void getBookingByBookerAfterCursorWithStateIsAll() {
+        Booking booking = Booking.builder()
+                .id(1L)
+                .start(incomingBookingDto.getStart())
+                .end(incomingBookingDto.getEnd())
+                .item(ItemMapper.toItem(UserMapper.toUser(userDto), itemDto))
+                .booker(UserMapper.toUser(userDto2))
+                .status(Status.APPROVED)
+                .build();
+        LocalDateTime cursorStart = booking.getStart().plusDays(1);
+        when(userRepository.findById(anyLong())).thenReturn(UserMapper.toUser(userDto2));
+        when(bookingRepository.findBookerBookingsAfter(eq(userDto2.getId()), eq(cursorStart), eq(5L), any()))
+                .thenReturn(List.of(booking));
+
+        List<BookingDto> actualBookingDtoList = bookingService.getBookingByBookerAfter(userDto2.getId(), State.ALL,
+                cursorStart, 5L, 1);
+        Assertions.assertEquals(1, actualBookingDtoList.size());
+        Assertions.assertEquals(actualBookingDtoList.get(0).getId(), booking.getId());
+        Assertions.assertEquals(actualBookingDtoList.get(0).getStart(), booking.getStart());
+    }
+
+    @Test
+    void getBookingByBookerAfterCursorWithStatusIsWaiting() {
+        Booking booking = Booking.builder()
+                .id(1L)
+                .start(LocalDateTime.now().plusDays(1))
+                .end(LocalDateTime.now().plusDays(2))
+                .item(ItemMapper.toItem(UserMapper.toUser(userDto), itemDto))
+                .booker(UserMapper.toUser(userDto2))
+                .status(Status.WAITING)
+                .build();
+        when(userRepository.findById(anyLong())).thenReturn(UserMapper.toUser(userDto2));
+        when(bookingRepository.findBookerBookingsByStatusAfter(anyLong(), eq(Status.WAITING),
+                any(LocalDateTime.class), anyLong(), any())).thenReturn(List.of(booking));
+
+        List<BookingDto> actualBookingDtoList = bookingService.getBookingByBookerAfter(userDto2.getId(),
+                State.WAITING, LocalDateTime.now().plusDays(3), 5L, 1);
+        Assertions.assertEquals(actualBookingDtoList.get(0).getId(), booking.getId());
+        Assertions.assertEquals(actualBookingDtoList.get(0).getStatus(), booking.getStatus());
+    }
+
+    @Test
+    void getBookingByBookerAfterCursorWithInvalidSize() {
+        when(userRepository.findById(anyLong())).thenReturn(UserMapper.toUser(userDto2));
+
+        ValidationException e = Assertions.assertThrows(ValidationException.class,
+                () -> bookingService.getBookingByBookerAfter(userDto2.getId(), State.ALL, LocalDateTime.now(),
+                        1L, null));
+
+        Assertions.assertEquals("Ошибка в значениях пагинации: size должен быть больше 0", e.getMessage());
+    }
+
+    @Test
+    void getBookingByOwnerAfterCursorWithStateIsPast() {
+        Booking booking = Booking.builder()
+                .id(1L)
+                .start(LocalDateTime.now().minusDays(2))
+                .end(LocalDateTime.now().minusDays(1))
+                .item(ItemMapper.toItem(UserMapper.toUser(userDto), itemDto))
+                .booker(UserMapper.toUser(userDto2))
+                .status(Status.APPROVED)
+                .build();
+        when(userRepository.findById(anyLong())).thenReturn(UserMapper.toUser(userDto));
+        when(bookingRepository.findOwnerPastBookingsAfter(anyLong(), any(LocalDateTime.class),
+                any(LocalDateTime.class), anyLong(), any())).thenReturn(List.of(booking));
+
+        List<BookingDto> actualBookingDtoList = bookingService.getBookingByOwnerAfter(userDto.getId(), State.PAST,
+                LocalDateTime.now(), 5L, 1);
+        Assertions.assertEquals(actualBookingDtoList.get(0).getId(), booking.getId());
+        Assertions.assertEquals(actualBookingDtoList.get(0).getEnd(), booking.getEnd());
+    }
+
+    @Test
+    void getBookingByNotFoundOwnerAfterCursor() {
+        NotFoundException e = Assertions.assertThrows(NotFoundException.class,
+                () -> bookingService.getBookingByOwnerAfter(10L, State.ALL, LocalDateTime.now(), 1L, 1));
+
+        Assertions.assertEquals("Пользователь с id = 10 не найден", e.getMessage());
+    }
+
+    private Booking bookingOfItem(long bookingId, long itemId, UserDto owner) {
+        ItemDto item = ItemDto.builder()
+                .id(itemId)
+                .name("Item")
+                .description("Description")
+                .available(true)
+                .build();
+        return Booking.builder()
+                .id(bookingId)
+                .start(incomingBookingDto.getStart())
+                .end(incomingBookingDto.getEnd())
+                .item(ItemMapper.toItem(UserMapper.toUser(owner), item))
+                .booker(UserMapper.toUser(userDto2))
+                .status(Status.WAITING)
+                .build();
+    }
 }
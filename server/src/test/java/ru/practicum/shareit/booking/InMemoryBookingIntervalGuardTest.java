@@ -0,0 +1,126 @@
+package ru.practicum.shareit.booking;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import ru.practicum.shareit.booking.interval.BookingInterval;
+import ru.practicum.shareit.booking.interval.InMemoryBookingIntervalGuard;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.Status;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.exceptions.IsExistException;
+import ru.practicum.shareit.item.model.Item;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.when;
+
+public class InMemoryBookingIntervalGuardTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2030, 1, 10, 12, 0);
+
+    BookingRepository bookingRepository;
+
+    InMemoryBookingIntervalGuard guard;
+
+    AtomicLong ids;
+
+    @BeforeEach
+    void setUp() {
+        ids = new AtomicLong();
+        bookingRepository = Mockito.mock(BookingRepository.class);
+        when(bookingRepository.save(any(Booking.class))).thenAnswer(invocation -> {
+            Booking booking = invocation.getArgument(0);
+            if (booking.getId() == 0) {
+                booking.setId(ids.incrementAndGet());
+            }
+            return booking;
+        });
+        when(bookingRepository.existsById(anyLong())).thenReturn(true);
+        guard = new InMemoryBookingIntervalGuard(bookingRepository);
+    }
+
+    @Test
+    void overlappingBookingIsRejectedAndAdjacentIsAllowed() {
+        guard.save(booking(1L, START, START.plusDays(2)));
+
+        Assertions.assertThrows(IsExistException.class,
+                () -> guard.save(booking(1L, START.plusDays(1), START.plusDays(3))));
+        Assertions.assertThrows(IsExistException.class,
+                () -> guard.save(booking(1L, START.minusDays(1), START.plusDays(5))));
+        Assertions.assertDoesNotThrow(() -> guard.save(booking(1L, START.plusDays(2), START.plusDays(3))));
+        Assertions.assertDoesNotThrow(() -> guard.save(booking(1L, START.minusDays(1), START)));
+        Assertions.assertDoesNotThrow(() -> guard.save(booking(2L, START, START.plusDays(2))));
+    }
+
+    @Test
+    void rejectedBookingFreesItsPeriod() {
+        Booking booking = guard.save(booking(1L, START, START.plusDays(2)));
+        booking.setStatus(Status.REJECTED);
+        guard.save(booking);
+
+        Assertions.assertDoesNotThrow(() -> guard.save(booking(1L, START, START.plusDays(2))));
+        booking.setStatus(Status.APPROVED);
+        Assertions.assertThrows(IsExistException.class, () -> guard.save(booking));
+    }
+
+    @Test
+    void existingBookingsAreLoadedAndDeletedOnesAreSkipped() {
+        when(bookingRepository.findItemActiveIntervals(1L)).thenReturn(List.of(
+                new BookingInterval(100L, START, START.plusDays(2)),
+                new BookingInterval(101L, START.plusDays(5), START.plusDays(6))));
+        when(bookingRepository.existsById(100L)).thenReturn(false);
+
+        Assertions.assertDoesNotThrow(() -> guard.save(booking(1L, START, START.plusDays(1))));
+        Assertions.assertThrows(IsExistException.class,
+                () -> guard.save(booking(1L, START.plusDays(4), START.plusDays(7))));
+    }
+
+    @Test
+    void concurrentBookingsOfOneItemDoNotOverlap() throws Exception {
+        int threads = 16;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Callable<Boolean>> tasks = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                LocalDateTime start = START.plusHours(i);
+                tasks.add(() -> {
+                    try {
+                        guard.save(booking(1L, start, start.plusDays(1)));
+                        return true;
+                    } catch (IsExistException e) {
+                        return false;
+                    }
+                });
+            }
+            long saved = 0;
+            for (Future<Boolean> result : executor.invokeAll(tasks)) {
+                if (result.get()) {
+                    saved++;
+                }
+            }
+            Assertions.assertEquals(1, saved);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private Booking booking(long itemId, LocalDateTime start, LocalDateTime end) {
+        return Booking.builder()
+                .item(Item.builder().id(itemId).build())
+                .start(start)
+                .end(end)
+                .status(Status.WAITING)
+                .build();
+    }
+}
@@ -0,0 +1,125 @@
+package ru.practicum.shareit.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.practicum.shareit.exceptions.NotFoundException;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.request.dto.IncomingItemRequestDto;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.request.service.ItemRequestService;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.service.UserService;
+
+import javax.persistence.Cache;
+import javax.persistence.EntityManagerFactory;
+
+@SpringBootTest(properties = {"shareit.cache.enabled=true", "spring.jpa.properties.hibernate.generate_statistics=true"})
+public class CacheConfigTest {
+
+    @Autowired
+    UserService userService;
+
+    @Autowired
+    ItemService itemService;
+
+    @Autowired
+    ItemRequestService itemRequestService;
+
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    Cache cache;
+
+    Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        cache = entityManagerFactory.getCache();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void lookupsAreCachedAndEvictedOnWrite() {
+        UserDto user = userService.addUser(UserDto.builder()
+                .name("Owner")
+                .email("cache-owner@ya.ru")
+                .build());
+        ItemDto item = itemService.addItem(user.getId(), ItemDto.builder()
+                .name("Item")
+                .description("Description")
+                .available(true)
+                .build());
+        itemService.getItemById(user.getId(), item.getId());
+        itemService.getItemById(user.getId(), item.getId());
+
+        Assertions.assertTrue(cache.contains(User.class, user.getId()));
+        Assertions.assertTrue(cache.contains(Item.class, item.getId()));
+        Assertions.assertTrue(meterRegistry.get("cache.gets")
+                .tags("cache", CacheConfig.ITEMS, "result", "hit")
+                .functionCounter()
+                .count() >= 1);
+
+        itemService.updateItem(user.getId(), ItemDto.builder().name("New item").build(), item.getId());
+        Assertions.assertEquals("New item", itemService.getItemById(user.getId(), item.getId()).getName());
+
+        userService.updateUser(UserDto.builder().name("New owner").build(), user.getId());
+        Assertions.assertEquals("New owner", userService.getUserById(user.getId()).getName());
+
+        userService.removeUser(user.getId());
+        /*READ_WRITE оставляет на месте удаленного пользователя блокировку, поэтому проверяется чтение*/
+        Assertions.assertThrows(NotFoundException.class, () -> userService.getUserById(user.getId()));
+        Assertions.assertFalse(cache.contains(Item.class, item.getId()));
+    }
+
+    @Test
+    void itemQueriesAreCachedUntilItemsChange() {
+        UserDto owner = userService.addUser(UserDto.builder()
+                .name("Owner")
+                .email("query-owner@ya.ru")
+                .build());
+        UserDto requestor = userService.addUser(UserDto.builder()
+                .name("Requestor")
+                .email("query-requestor@ya.ru")
+                .build());
+        long requestId = itemRequestService.addItemRequest(IncomingItemRequestDto.builder()
+                .description("Нужна дрель")
+                .build(), requestor.getId()).getId();
+        itemService.addItem(owner.getId(), ItemDto.builder()
+                .name("Дрель")
+                .description("Ударная")
+                .available(true)
+                .requestId(requestId)
+                .build());
+        itemService.getUserItems(owner.getId());
+        itemRequestService.getItemRequestById(requestor.getId(), requestId);
+        long hits = statistics.getQueryCacheHitCount();
+
+        Assertions.assertEquals(1, itemService.getUserItems(owner.getId()).size());
+        Assertions.assertEquals(1, itemRequestService.getItemRequestById(requestor.getId(), requestId)
+                .getItems().size());
+        Assertions.assertEquals(hits + 2, statistics.getQueryCacheHitCount());
+        Assertions.assertTrue(cache.contains(ItemRequest.class, requestId));
+
+        itemService.addItem(owner.getId(), ItemDto.builder()
+                .name("Перфоратор")
+                .description("Для бетона")
+                .available(true)
+                .requestId(requestId)
+                .build());
+        Assertions.assertEquals(2, itemService.getUserItems(owner.getId()).size());
+        Assertions.assertEquals(2, itemRequestService.getItemRequestById(requestor.getId(), requestId)
+                .getItems().size());
+    }
+}
@@ -0,0 +1,25 @@
+package ru.practicum.shareit.config;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.boot.spi.SessionFactoryOptions;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import javax.persistence.EntityManagerFactory;
+
+@SpringBootTest(properties = "shareit.cache.enabled=false")
+public class CacheDisabledTest {
+
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void secondLevelCacheIsOffWhenDisabled() {
+        SessionFactoryOptions options = entityManagerFactory.unwrap(SessionFactory.class).getSessionFactoryOptions();
+
+        Assertions.assertFalse(options.isSecondLevelCacheEnabled());
+        Assertions.assertFalse(options.isQueryCacheEnabled());
+    }
+}
@@ -0,0 +1,153 @@
+package ru.practicum.shareit.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.web.filter.OncePerRequestFilter;
+import ru.practicum.shareit.ShareItApp;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/*Запускается вручную: mvn -pl server test -Dtest=VirtualThreadLoadTest -Dshareit.benchmark=true,
+случаи с виртуальными потоками - на JDK 21 с профилем virtual-threads.
+Нагрузка идет на GET /bookings, который держит соединение Hikari на время транзакции. Задержка базы
+имитируется в StatementInspector: каждый запрос к H2 ждет DB_LATENCY, как сетевой поход в Postgres*/
+@Slf4j
+@EnabledIfSystemProperty(named = "shareit.benchmark", matches = "true")
+public class VirtualThreadLoadTest {
+
+    private static final int CONNECTIONS = 2000;
+
+    private static final int TOMCAT_THREADS = 200;
+
+    private static final int BOOKINGS = 20;
+
+    private static final Duration DB_LATENCY = Duration.ofMillis(20);
+
+    private static final AtomicInteger IN_FLIGHT = new AtomicInteger();
+
+    private static final AtomicInteger PEAK_IN_FLIGHT = new AtomicInteger();
+
+    private static final AtomicInteger IN_DB = new AtomicInteger();
+
+    private static final AtomicInteger PEAK_IN_DB = new AtomicInteger();
+
+    @ParameterizedTest(name = "virtualThreads={0}, poolSize={1}")
+    @CsvSource({"false, 10", "true, 10", "false, 50", "true, 50"})
+    void concurrentRequestCapacity(boolean virtualThreads, int poolSize) throws Exception {
+        Assumptions.assumeTrue(!virtualThreads || Runtime.version().feature() >= 21,
+                "Виртуальные потоки доступны только на JDK 21+");
+        IN_FLIGHT.set(0);
+        PEAK_IN_FLIGHT.set(0);
+        IN_DB.set(0);
+        PEAK_IN_DB.set(0);
+
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(ShareItApp.class,
+                InFlightFilter.class)
+                .run("--server.port=0",
+                        "--server.tomcat.threads.max=" + TOMCAT_THREADS,
+                        "--shareit.threads.virtual.enabled=" + virtualThreads,
+                        "--spring.datasource.hikari.maximum-pool-size=" + poolSize,
+                        "--shareit.threads.virtual.max-db-connections=" + poolSize,
+                        "--spring.jpa.properties.hibernate.session_factory.statement_inspector=" +
+                                SlowDatabase.class.getName())) {
+            long bookerId = seed(context.getBean(JdbcTemplate.class));
+            int port = context.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+            HttpClient client = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .build();
+            HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/bookings"))
+                    .header("X-Sharer-User-Id", String.valueOf(bookerId))
+                    .timeout(Duration.ofMinutes(1))
+                    .build();
+
+            long started = System.nanoTime();
+            List<CompletableFuture<HttpResponse<String>>> responses = new ArrayList<>(CONNECTIONS);
+            for (int i = 0; i < CONNECTIONS; i++) {
+                responses.add(client.sendAsync(request, HttpResponse.BodyHandlers.ofString()));
+            }
+            CompletableFuture.allOf(responses.toArray(CompletableFuture[]::new)).join();
+            Duration elapsed = Duration.ofNanos(System.nanoTime() - started);
+
+            for (CompletableFuture<HttpResponse<String>> response : responses) {
+                Assertions.assertEquals(200, response.join().statusCode(), response.join().body());
+            }
+            log.info("virtualThreads={}, poolSize={}: {} запросов за {} мс, {} запросов/с, " +
+                            "одновременно обрабатывалось до {}, в базе до {}",
+                    virtualThreads, poolSize, CONNECTIONS, elapsed.toMillis(),
+                    CONNECTIONS * 1000L / Math.max(elapsed.toMillis(), 1), PEAK_IN_FLIGHT.get(), PEAK_IN_DB.get());
+            Assertions.assertTrue(PEAK_IN_DB.get() <= poolSize);
+            if (virtualThreads) {
+                Assertions.assertTrue(PEAK_IN_FLIGHT.get() > TOMCAT_THREADS);
+            } else {
+                Assertions.assertTrue(PEAK_IN_FLIGHT.get() <= TOMCAT_THREADS);
+            }
+        }
+    }
+
+    /*Арендатор с BOOKINGS завершенными бронированиями одного предмета*/
+    private static long seed(JdbcTemplate jdbcTemplate) {
+        jdbcTemplate.update("INSERT INTO users (id, name, email) VALUES (1001, 'owner', 'owner@ya.ru')");
+        jdbcTemplate.update("INSERT INTO users (id, name, email) VALUES (1002, 'booker', 'booker@ya.ru')");
+        jdbcTemplate.update("INSERT INTO items (id, name, description, available, owner) " +
+                "VALUES (1001, 'Дрель', 'Аккумуляторная дрель', TRUE, 1001)");
+        for (int i = 1; i <= BOOKINGS; i++) {
+            jdbcTemplate.update("INSERT INTO booking (id, start_time, end_time, item_id, booker, status) " +
+                            "VALUES (?, DATEADD('DAY', ?, CURRENT_TIMESTAMP), DATEADD('DAY', ?, CURRENT_TIMESTAMP), " +
+                            "1001, 1002, 'APPROVED')",
+                    1000 + i, -2 * i, -2 * i + 1);
+        }
+        return 1002;
+    }
+
+    /*Запрос выполняется внутри транзакции, поэтому ожидание здесь держит соединение из пула*/
+    public static class SlowDatabase implements StatementInspector {
+
+        @Override
+        public String inspect(String sql) {
+            PEAK_IN_DB.accumulateAndGet(IN_DB.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(DB_LATENCY.toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                IN_DB.decrementAndGet();
+            }
+            return sql;
+        }
+    }
+
+    static class InFlightFilter extends OncePerRequestFilter {
+
+        @Override
+        protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                        FilterChain filterChain) throws ServletException, IOException {
+            PEAK_IN_FLIGHT.accumulateAndGet(IN_FLIGHT.incrementAndGet(), Math::max);
+            try {
+                filterChain.doFilter(request, response);
+            } finally {
+                IN_FLIGHT.decrementAndGet();
+            }
+        }
+    }
+}
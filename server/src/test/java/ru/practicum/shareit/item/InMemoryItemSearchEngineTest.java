@@ -0,0 +1,219 @@
+package ru.practicum.shareit.item;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.search.InMemoryItemSearchEngine;
+import ru.practicum.shareit.item.search.SearchDocumentType;
+import ru.practicum.shareit.item.search.SearchHit;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.request.repository.ItemRequestRepository;
+import ru.practicum.shareit.user.model.User;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.Mockito.when;
+
+public class InMemoryItemSearchEngineTest {
+
+    ItemRepository itemRepository;
+
+    ItemRequestRepository itemRequestRepository;
+
+    InMemoryItemSearchEngine searchEngine;
+
+    Item drill;
+
+    Item screwdriver;
+
+    Item hiddenDrill;
+
+    Map<Long, Item> items;
+
+    Map<Long, ItemRequest> requests;
+
+    ItemRequest drillRequest;
+
+    ItemRequest ownDrillRequest;
+
+    @BeforeEach
+    void setUp() {
+        drill = Item.builder()
+                .id(1L)
+                .name("Дрель")
+                .description("Простая дрель")
+                .available(true)
+                .owner(User.builder().id(10L).build())
+                .build();
+        screwdriver = Item.builder()
+                .id(2L)
+                .name("Отвертка")
+                .description("Аккумуляторная отвертка, работает как дрель")
+                .available(true)
+                .owner(User.builder().id(30L).build())
+                .build();
+        hiddenDrill = Item.builder()
+                .id(3L)
+                .name("Дрель ударная")
+                .description("Сейчас не сдается")
+                .available(false)
+                .build();
+
+        items = List.of(drill, screwdriver, hiddenDrill).stream()
+                .collect(Collectors.toMap(Item::getId, Function.identity()));
+        itemRepository = Mockito.mock(ItemRepository.class);
+        when(itemRepository.findAll()).thenReturn(List.copyOf(items.values()));
+        when(itemRepository.findAllById(anyIterable())).thenAnswer(invocation -> {
+            Collection<Long> ids = invocation.getArgument(0);
+            return ids.stream()
+                    .map(items::get)
+                    .filter(Objects::nonNull)
+                    .collect(Collectors.toList());
+        });
+        when(itemRepository.findIdsByIdIn(anyCollection())).thenAnswer(invocation -> {
+            Collection<Long> ids = invocation.getArgument(0);
+            return ids.stream()
+                    .filter(items::containsKey)
+                    .collect(Collectors.toList());
+        });
+
+        drillRequest = ItemRequest.builder()
+                .id(1L)
+                .description("Нужна дрель на выходные")
+                .requestor(User.builder().id(10L).build())
+                .build();
+        ownDrillRequest = ItemRequest.builder()
+                .id(2L)
+                .description("Дрель для ремонта")
+                .requestor(User.builder().id(20L).build())
+                .build();
+        itemRequestRepository = Mockito.mock(ItemRequestRepository.class);
+        when(itemRequestRepository.findAll()).thenReturn(List.of(drillRequest, ownDrillRequest));
+        requests = List.of(drillRequest, ownDrillRequest).stream()
+                .collect(Collectors.toMap(ItemRequest::getId, Function.identity()));
+        when(itemRequestRepository.findIdsByIdIn(anyCollection())).thenAnswer(invocation -> {
+            Collection<Long> ids = invocation.getArgument(0);
+            return ids.stream()
+                    .filter(requests::containsKey)
+                    .collect(Collectors.toList());
+        });
+
+        searchEngine = new InMemoryItemSearchEngine(itemRepository, itemRequestRepository);
+        searchEngine.rebuild();
+    }
+
+    @Test
+    void searchRanksNameMatchesFirstAndSkipsUnavailable() {
+        List<Item> result = searchEngine.search("ДРЕЛЬ", 0, 10);
+
+        Assertions.assertEquals(List.of(drill, screwdriver), result);
+    }
+
+    @Test
+    void searchMatchesWordPrefixesAndRequiresAllWords() {
+        Assertions.assertEquals(List.of(screwdriver), searchEngine.search("аккум", 0, 10));
+        Assertions.assertEquals(List.of(screwdriver), searchEngine.search("аккумуляторная дрель", 0, 10));
+        Assertions.assertTrue(searchEngine.search("аккумуляторная пила", 0, 10).isEmpty());
+    }
+
+    @Test
+    void searchWithPagination() {
+        Assertions.assertEquals(List.of(screwdriver), searchEngine.search("дрель", 1, 1));
+        Assertions.assertTrue(searchEngine.search("дрель", 2, 1).isEmpty());
+    }
+
+    @Test
+    void indexReplacesPreviousVersionOfItem() {
+        screwdriver.setDescription("Аккумуляторная отвертка");
+        hiddenDrill.setAvailable(true);
+        searchEngine.index(screwdriver);
+        searchEngine.index(hiddenDrill);
+
+        Assertions.assertEquals(List.of(drill, hiddenDrill), searchEngine.search("дрель", 0, 10));
+    }
+
+    @Test
+    void searchWithRequestsRanksItemsAndOtherUsersRequestsTogether() {
+        List<String> result = searchEngine.searchWithRequests("дрель", 20L, 0, 10).stream()
+                .map(this::describe)
+                .collect(Collectors.toList());
+
+        Assertions.assertEquals(List.of("ITEM:1", "ITEM:2", "REQUEST:1"), result);
+        Assertions.assertEquals(List.of("REQUEST:1"), searchEngine.searchWithRequests("выходные", 20L, 0, 10)
+                .stream()
+                .map(this::describe)
+                .collect(Collectors.toList()));
+        Assertions.assertEquals(List.of("REQUEST:2"), searchEngine.searchWithRequests("ремонт", 10L, 0, 10)
+                .stream()
+                .map(this::describe)
+                .collect(Collectors.toList()));
+    }
+
+    @Test
+    void searchWithRequestsWithPagination() {
+        List<SearchHit> result = searchEngine.searchWithRequests("дрель", 20L, 2, 5);
+
+        Assertions.assertEquals(1, result.size());
+        Assertions.assertEquals(SearchDocumentType.REQUEST, result.get(0).getType());
+        Assertions.assertTrue(searchEngine.searchWithRequests("дрель", 20L, 3, 5).isEmpty());
+    }
+
+    @Test
+    void rolledBackChangesAreNotIndexed() {
+        screwdriver.setName("Пила");
+        hiddenDrill.setAvailable(true);
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            searchEngine.index(screwdriver);
+            searchEngine.index(hiddenDrill);
+            Assertions.assertEquals(List.of(drill, screwdriver), searchEngine.search("дрель", 0, 10));
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(synchronization -> synchronization.afterCompletion(
+                            TransactionSynchronization.STATUS_ROLLED_BACK));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        Assertions.assertEquals(List.of(drill, screwdriver), searchEngine.search("дрель", 0, 10));
+        Assertions.assertTrue(searchEngine.search("пила", 0, 10).isEmpty());
+    }
+
+    @Test
+    void removedUserDocumentsLeaveIndex() {
+        searchEngine.removeUser(10L);
+
+        Assertions.assertEquals(List.of(screwdriver), searchEngine.search("дрель", 0, 1));
+        Assertions.assertEquals(List.of("ITEM:2"), searchEngine.searchWithRequests("дрель", 20L, 0, 10).stream()
+                .map(this::describe)
+                .collect(Collectors.toList()));
+    }
+
+    @Test
+    void pagesSkipDocumentsMissingInDatabase() {
+        items.remove(drill.getId());
+        requests.remove(drillRequest.getId());
+
+        Assertions.assertEquals(List.of(screwdriver), searchEngine.search("дрель", 0, 1));
+        Assertions.assertTrue(searchEngine.search("дрель", 1, 1).isEmpty());
+        Assertions.assertEquals(List.of("ITEM:2"), searchEngine.searchWithRequests("дрель", 20L, 0, 1).stream()
+                .map(this::describe)
+                .collect(Collectors.toList()));
+    }
+
+    private String describe(SearchHit hit) {
+        return hit.getType() + ":" + hit.getId();
+    }
+}
@@ -7,9 +7,12 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.exceptions.ServiceUnavailableException;
 import ru.practicum.shareit.item.comment.dto.OutCommentDto;
+import ru.practicum.shareit.item.dto.EtaggedItemDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.mapper.ItemMapper;
 import ru.practicum.shareit.item.service.ItemService;
@@ -20,10 +23,14 @@ import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
 
+import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
 import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -58,6 +65,28 @@ public class ItemControllerTest {
                 .build();
     }
 
+    @Test
+    void addItemsTest() throws Exception {
+        ItemDto secondItemDto = ItemDto.builder()
+                .id(2L)
+                .name("Second")
+                .description("Second description")
+                .available(false)
+                .build();
+        when(itemService.addItems(anyLong(), anyList())).thenReturn(List.of(itemDto, secondItemDto));
+
+        mockMvc.perform(post("/items/batch")
+                        .header("X-Sharer-User-Id", 1L)
+                        .content(mapper.writeValueAsString(List.of(itemDto, secondItemDto)))
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].id", is(itemDto.getId()), Long.class))
+                .andExpect(jsonPath("$[1].available", is(false)));
+    }
+
     @Test
     void addItemTest() throws Exception {
         when(itemService.addItem(anyLong(), any())).thenReturn(itemDto);
@@ -77,9 +106,9 @@ public class ItemControllerTest {
 
     @Test
     void getItemByIdTest() throws Exception {
-        when((itemService.getItemById(anyLong(), anyLong())))
-                .thenReturn(ItemMapper.toItemFullDto(ItemMapper.toItem(UserMapper.toUser(userDto), itemDto),
-                        null, null, new ArrayList<>()));
+        when((itemService.getItemWithEtag(anyLong(), anyLong())))
+                .thenReturn(new EtaggedItemDto(ItemMapper.toItemFullDto(
+                        ItemMapper.toItem(UserMapper.toUser(userDto), itemDto), null, null, new ArrayList<>()), "1a"));
 
         mockMvc.perform(get("/items/1")
                         .header("X-Sharer-User-Id", 1L)
@@ -91,7 +120,9 @@ public class ItemControllerTest {
                 .andExpect(jsonPath("$.id", is(itemDto.getId()), Long.class))
                 .andExpect(jsonPath("$.name", is(itemDto.getName())))
                 .andExpect(jsonPath("$.description", is(itemDto.getDescription())))
-                .andExpect(jsonPath("$.available", is(itemDto.getAvailable())));
+                .andExpect(jsonPath("$.available", is(itemDto.getAvailable())))
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1a\""));
+        verify(itemService, never()).getItemEtag(anyLong(), anyLong());
     }
 
     @Test
@@ -135,7 +166,7 @@ public class ItemControllerTest {
 
     @Test
     void findItemByTextTest() throws Exception {
-        when(itemService.findItemsByText(anyString())).thenReturn(List.of(itemDto));
+        when(itemService.findItemsByText(anyString(), any(), any())).thenReturn(List.of(itemDto));
 
         mockMvc.perform(get("/items/search?text=item")
                         .header("X-Sharer-User-Id", 1L)
@@ -152,7 +183,7 @@ public class ItemControllerTest {
 
     @Test
     void findItemByEmptyTextTest() throws Exception {
-        when(itemService.findItemsByText(anyString())).thenReturn(new ArrayList<>());
+        when(itemService.findItemsByText(anyString(), any(), any())).thenReturn(new ArrayList<>());
 
         mockMvc.perform(get("/items/search?text=")
                         .header("X-Sharer-User-Id", 1L)
@@ -184,4 +215,39 @@ public class ItemControllerTest {
                 .andExpect(jsonPath("$.authorName", is(comment.getAuthorName())));
 
     }
+
+    @Test
+    void addCommentToItemAsyncTest() throws Exception {
+        OutCommentDto comment = OutCommentDto.builder()
+                .text("Text")
+                .authorName("User Name")
+                .build();
+        when(itemService.addComment(anyLong(), anyLong(), any())).thenReturn(comment);
+        when(itemService.isCommentWriteAsync()).thenReturn(true);
+
+        mockMvc.perform(post("/items/1/comment")
+                        .header("X-Sharer-User-Id", 1L)
+                        .content(mapper.writeValueAsString(comment))
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.id", is(0L), Long.class))
+                .andExpect(jsonPath("$.text", is(comment.getText())));
+    }
+
+    @Test
+    void addCommentToItemWithFullQueueTest() throws Exception {
+        when(itemService.addComment(anyLong(), anyLong(), any()))
+                .thenThrow(new ServiceUnavailableException("Очередь комментариев заполнена", 1));
+
+        mockMvc.perform(post("/items/1/comment")
+                        .header("X-Sharer-User-Id", 1L)
+                        .content("{\"text\": \"Text\"}")
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "1"));
+    }
 }
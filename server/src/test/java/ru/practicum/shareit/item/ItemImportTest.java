@@ -0,0 +1,96 @@
+package ru.practicum.shareit.item;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.exceptions.NotFoundException;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.user.service.UserService;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/*Без общей транзакции: импорт должен закоммититься, чтобы предметы попали в индекс поиска*/
+@SpringBootTest
+public class ItemImportTest {
+
+    @Autowired
+    ItemService itemService;
+
+    @Autowired
+    UserRepository userRepository;
+
+    @Autowired
+    UserService userService;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    User owner;
+
+    @BeforeEach
+    void setUp() {
+        owner = userRepository.save(User.builder().name("Owner").email("import-owner@ya.ru").build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        userService.removeUser(owner.getId());
+    }
+
+    @Test
+    void importedItemsGetSequenceIdsAndAreSearchable() {
+        List<ItemDto> itemDtos = new ArrayList<>();
+        for (int i = 0; i < 120; i++) {
+            itemDtos.add(ItemDto.builder()
+                    .id(100_000L + i)
+                    .name("Импортированный шуруповерт " + i)
+                    .description("Из каталога партнера")
+                    .available(true)
+                    .build());
+        }
+
+        List<ItemDto> items = itemService.addItems(owner.getId(), itemDtos);
+
+        Set<Long> ids = new HashSet<>();
+        items.forEach(item -> ids.add(item.getId()));
+        Assertions.assertEquals(120, ids.size());
+        Assertions.assertTrue(ids.stream().allMatch(id -> id < 100_000L), "id из тела запроса не используются");
+        Assertions.assertEquals(120, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM items WHERE owner = ?",
+                Long.class, owner.getId()));
+        Assertions.assertEquals(20, itemService.findItemsByText("импортированный шуруповерт", 0, 20).size());
+
+        jdbcTemplate.update("INSERT INTO items (name, description, available, owner) VALUES (?, ?, ?, ?)",
+                "Вставка из SQL", "Без id", true, owner.getId());
+        Long sqlId = jdbcTemplate.queryForObject("SELECT id FROM items WHERE name = 'Вставка из SQL'", Long.class);
+        Assertions.assertFalse(ids.contains(sqlId));
+        ItemDto next = itemService.addItem(owner.getId(), ItemDto.builder()
+                .name("После SQL")
+                .description("Следующий блок id")
+                .available(true)
+                .build());
+        Assertions.assertNotEquals(sqlId, next.getId());
+        Assertions.assertFalse(ids.contains(next.getId()));
+    }
+
+    @Test
+    void importWithUnknownRequestIsRejected() {
+        List<ItemDto> itemDtos = List.of(ItemDto.builder()
+                .name("Item")
+                .description("Description")
+                .available(true)
+                .requestId(Long.MAX_VALUE)
+                .build());
+
+        Assertions.assertThrows(NotFoundException.class, () -> itemService.addItems(owner.getId(), itemDtos));
+    }
+}
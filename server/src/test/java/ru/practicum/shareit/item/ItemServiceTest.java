@@ -20,6 +20,7 @@ import ru.practicum.shareit.item.dto.ItemFullDto;
 import ru.practicum.shareit.item.mapper.ItemMapper;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.search.ItemSearchEngine;
 import ru.practicum.shareit.item.service.ItemService;
 import ru.practicum.shareit.request.dto.OutItemRequestDto;
 import ru.practicum.shareit.request.model.ItemRequest;
@@ -33,6 +34,7 @@ import java.time.LocalDateTime;
 import java.util.*;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.when;
 
@@ -49,6 +51,8 @@ public class ItemServiceTest {
     BookingRepository bookingRepository;
     @MockBean
     ItemRequestRepository requestRepository;
+    @MockBean
+    ItemSearchEngine itemSearchEngine;
     @Autowired
     ItemService itemService;
 
@@ -362,10 +366,10 @@ public class ItemServiceTest {
 
         when(userRepository.findById(userDto.getId())).thenReturn(UserMapper.toUser(userDto));
         when(itemRepository.findAllByOwnerIdOrderById(userDto.getId())).thenReturn(List.of(item));
-        when(commentRepository.findAllByItem(item)).thenReturn(List.of(comment1));
+        when(commentRepository.findAllByItemIdIn(List.of(item.getId()))).thenReturn(List.of(comment1));
 
         Collection<ItemFullDto> result = itemService.getUserItems(userDto.getId());
-        List<Comment> comments = commentRepository.findAllByItem(item);
+        List<Comment> comments = commentRepository.findAllByItemIdIn(List.of(item.getId()));
         Optional<ItemFullDto> fullDto = result.stream().findFirst();
         if (fullDto.isPresent()) {
             ItemFullDto fullDto1 = fullDto.get();
@@ -379,6 +383,62 @@ public class ItemServiceTest {
 
     }
 
+    @Test
+    void getUserItemsWithBookingsTest() {
+        User booker = User.builder()
+                .id(2L)
+                .name("Booker")
+                .email("booker@ya.ru")
+                .build();
+        Item item1 = Item.builder()
+                .id(1L)
+                .name("Item1")
+                .description("Description1")
+                .available(true)
+                .owner(UserMapper.toUser(userDto))
+                .build();
+        Item item2 = Item.builder()
+                .id(2L)
+                .name("Item2")
+                .description("Description2")
+                .available(true)
+                .owner(UserMapper.toUser(userDto))
+                .build();
+        Booking lastBooking = Booking.builder()
+                .id(1L)
+                .start(LocalDateTime.now().minusDays(2))
+                .end(LocalDateTime.now().minusDays(1))
+                .item(item1)
+                .booker(booker)
+                .status(Status.APPROVED)
+                .build();
+        Booking nextBooking = Booking.builder()
+                .id(2L)
+                .start(LocalDateTime.now().plusDays(1))
+                .end(LocalDateTime.now().plusDays(2))
+                .item(item2)
+                .booker(booker)
+                .status(Status.APPROVED)
+                .build();
+
+        when(userRepository.findById(userDto.getId())).thenReturn(UserMapper.toUser(userDto));
+        when(itemRepository.findAllByOwnerIdOrderById(userDto.getId())).thenReturn(List.of(item1, item2));
+        when(bookingRepository.findItemsLastBookings(anyCollection(), any(LocalDateTime.class)))
+                .thenReturn(List.of(lastBooking));
+        when(bookingRepository.findItemsNextBookings(anyCollection(), any(LocalDateTime.class)))
+                .thenReturn(List.of(nextBooking));
+
+        List<ItemFullDto> result = new ArrayList<>(itemService.getUserItems(userDto.getId()));
+
+        Assertions.assertEquals(2, result.size());
+        Assertions.assertEquals(lastBooking.getId(), result.get(0).getLastBooking().getId());
+        Assertions.assertEquals(booker.getId(), result.get(0).getLastBooking().getBookerId());
+        Assertions.assertNull(result.get(0).getNextBooking());
+        Assertions.assertNull(result.get(1).getLastBooking());
+        Assertions.assertEquals(nextBooking.getId(), result.get(1).getNextBooking().getId());
+        Assertions.assertTrue(result.get(1).getComments().isEmpty());
+    }
+
     @Test
     void getUserItemsWithNotFoundUserTest() {
         long userId = 10L;
@@ -394,10 +454,9 @@ public class ItemServiceTest {
 
         List<Item> items = Collections.singletonList(ItemMapper.toItem(UserMapper.toUser(userDto), itemDto));
 
-        when(itemRepository.findItemsByNameOrDescriptionContainingIgnoreCase(searchText, searchText))
-                .thenReturn(items);
+        when(itemSearchEngine.search(searchText, 0, 100)).thenReturn(items);
 
-        List<ItemDto> result = itemService.findItemsByText(searchText);
+        List<ItemDto> result = itemService.findItemsByText(searchText, null, null);
         Assertions.assertEquals(1, result.size());
         Assertions.assertEquals(items.get(0).getId(), result.get(0).getId());
         Assertions.assertEquals(items.get(0).getName(), result.get(0).getName());
@@ -405,6 +464,25 @@ public class ItemServiceTest {
         Assertions.assertEquals(items.get(0).getAvailable(), result.get(0).getAvailable());
     }
 
+    @Test
+    void testFindItemsByTextWithPagination() {
+        String searchText = "Item";
+        List<Item> items = Collections.singletonList(ItemMapper.toItem(UserMapper.toUser(userDto), itemDto));
+
+        when(itemSearchEngine.search(searchText, 5, 5)).thenReturn(items);
+
+        List<ItemDto> result = itemService.findItemsByText(searchText, 5, 5);
+        Assertions.assertEquals(1, result.size());
+        Assertions.assertEquals(items.get(0).getId(), result.get(0).getId());
+    }
+
+    @Test
+    void testFindItemsByTextWithInvalidPagination() {
+        ValidationException e = Assertions.assertThrows(ValidationException.class,
+                () -> itemService.findItemsByText("Item", -1, 5));
+        Assertions.assertEquals("Ошибка в значениях пагинации: from < 0 или size <= 0", e.getMessage());
+    }
+
     @Test
     public void testAddComment() {
         User user2 = User.builder()
@@ -419,25 +497,15 @@ public class ItemServiceTest {
                 .author(user2)
                 .created(LocalDateTime.now())
                 .build();
-        Booking booking = Booking.builder()
-                .id(1L)
-                .start(LocalDateTime.now().minusDays(2))
-                .end(LocalDateTime.now().minusDays(1))
-                .item(ItemMapper.toItem(UserMapper.toUser(userDto), itemDto))
-                .booker(user2)
-                .status(Status.APPROVED)
-                .build();
-
         IncomingCommentDto incomingCommentDto = IncomingCommentDto.builder()
                 .id(1L)
                 .text("Text")
                 .build();
-        List<Booking> bookings = Collections.singletonList(booking);
 
         when(itemRepository.getItemById(itemDto.getId())).thenReturn(ItemMapper.toItem(UserMapper.toUser(userDto), itemDto));
         when(userRepository.findById(user2.getId())).thenReturn(user2);
-        when(bookingRepository.findFinishedBookingsByItem(anyLong(), anyLong(), any(LocalDateTime.class)))
-                .thenReturn(bookings);
+        when(bookingRepository.existsByItemIdAndBookerIdAndEndBefore(anyLong(), anyLong(), any(LocalDateTime.class)))
+                .thenReturn(true);
         when(commentRepository.save(any(Comment.class))).thenReturn(comment1);
 
         OutCommentDto result = itemService.addComment(user2.getId(), itemDto.getId(), incomingCommentDto);
@@ -511,8 +579,8 @@ public class ItemServiceTest {
 
         when(itemRepository.getItemById(anyLong())).thenReturn(ItemMapper.toItem(UserMapper.toUser(userDto), itemDto));
         when(userRepository.findById(anyLong())).thenReturn(user2);
-        when(bookingRepository.findFinishedBookingsByItem(anyLong(), anyLong(), any(LocalDateTime.class)))
-                .thenReturn(new ArrayList<>());
+        when(bookingRepository.existsByItemIdAndBookerIdAndEndBefore(anyLong(), anyLong(), any(LocalDateTime.class)))
+                .thenReturn(false);
         ValidationException e = Assertions.assertThrows(ValidationException.class,
                 () -> itemService.addComment(user2.getId(), itemDto.getId(), incomingCommentDto));
         Assertions.assertEquals("У пользователя с id = " + user2.getId() +
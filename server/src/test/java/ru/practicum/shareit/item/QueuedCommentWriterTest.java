@@ -0,0 +1,89 @@
+package ru.practicum.shareit.item;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+import ru.practicum.shareit.exceptions.ServiceUnavailableException;
+import ru.practicum.shareit.item.comment.model.Comment;
+import ru.practicum.shareit.item.comment.repository.CommentRepository;
+import ru.practicum.shareit.item.comment.writer.QueuedCommentWriter;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class QueuedCommentWriterTest {
+
+    CommentRepository commentRepository;
+
+    SimpleMeterRegistry meterRegistry;
+
+    QueuedCommentWriter writer;
+
+    @BeforeEach
+    void setUp() {
+        commentRepository = mock(CommentRepository.class);
+        meterRegistry = new SimpleMeterRegistry();
+        writer = new QueuedCommentWriter(commentRepository, mock(PlatformTransactionManager.class), meterRegistry,
+                3, 10, 2);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        writer.stop();
+    }
+
+    @Test
+    void fullQueueSignalsServiceUnavailable() throws InterruptedException {
+        for (int i = 0; i < 3; i++) {
+            Assertions.assertEquals(0, writer.write(comment("Отзыв " + i)).getId());
+        }
+
+        ServiceUnavailableException e = Assertions.assertThrows(ServiceUnavailableException.class,
+                () -> writer.write(comment("Лишний")));
+        Assertions.assertEquals(2, e.getRetryAfterSeconds());
+        Assertions.assertEquals(3, meterRegistry.get(QueuedCommentWriter.QUEUE_GAUGE).gauge().value());
+
+        writer.start();
+        verify(commentRepository, timeout(2000)).saveAll(argThat(comments -> ((List<?>) comments).size() == 3));
+    }
+
+    @Test
+    void failedBatchIsWrittenOneByOne() throws InterruptedException {
+        when(commentRepository.saveAll(anyList())).thenThrow(new DataIntegrityViolationException("item_id"));
+        when(commentRepository.save(any(Comment.class)))
+                .thenThrow(new DataIntegrityViolationException("item_id"))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+        writer.write(comment("Предмет удален"));
+        writer.write(comment("Нормальный отзыв"));
+
+        writer.start();
+
+        verify(commentRepository, timeout(2000).times(2)).save(any(Comment.class));
+        verify(commentRepository, times(1)).saveAll(anyList());
+    }
+
+    private Comment comment(String text) {
+        User author = User.builder().id(2L).name("Author").email("author@ya.ru").build();
+        return Comment.builder()
+                .text(text)
+                .item(Item.builder().id(1L).name("Item").description("Description").available(true).build())
+                .author(author)
+                .created(LocalDateTime.now())
+                .build();
+    }
+}
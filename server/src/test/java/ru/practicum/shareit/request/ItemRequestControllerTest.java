@@ -7,9 +7,11 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.request.dto.EtaggedItemRequestDto;
 import ru.practicum.shareit.request.dto.IncomingItemRequestDto;
 import ru.practicum.shareit.request.dto.OutItemRequestDto;
 import ru.practicum.shareit.request.dto.OutLongItemRequestDto;
@@ -21,9 +23,12 @@ import java.time.LocalDateTime;
 import java.util.List;
 
 import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -107,7 +112,8 @@ public class ItemRequestControllerTest {
 
     @Test
     void getItemRequestByIdTest() throws Exception {
-        when(itemRequestService.getItemRequestById(anyLong(), anyLong())).thenReturn(longItemRequestDto);
+        when(itemRequestService.getItemRequestWithEtag(anyLong(), anyLong()))
+                .thenReturn(new EtaggedItemRequestDto(longItemRequestDto, "2b"));
 
         mockMvc.perform(get("/requests/1")
                         .header("X-Sharer-User-Id", 1L)
@@ -118,8 +124,9 @@ public class ItemRequestControllerTest {
                 .andExpect(jsonPath("$.id").exists())
                 .andExpect(jsonPath("$.description").value(longItemRequestDto.getDescription()))
                 .andExpect(jsonPath("$.created").value(longItemRequestDto.getCreated().toString()))
-                .andExpect(jsonPath("$.items").isNotEmpty());
-
+                .andExpect(jsonPath("$.items").isNotEmpty())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"2b\""));
+        verify(itemRequestService, never()).getItemRequestEtag(anyLong(), anyLong());
     }
 
     @Test
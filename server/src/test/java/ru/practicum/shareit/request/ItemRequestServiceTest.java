@@ -163,8 +163,7 @@ public class ItemRequestServiceTest {
         List<ItemRequest> itemRequests = List.of(ItemRequestMapper.toItemRequest(UserMapper.toUser(userDto),
                 itemRequestDto, outRequestDto.getCreated()));
         when(requestRepository.findItemRequestByRequestorIdOrderByCreatedDesc(anyLong())).thenReturn(itemRequests);
-        List<Item> items = List.of(ItemMapper.toItem(UserMapper.toUser(userDto2), itemDto));
-        when(itemRepository.findByItemRequest_IdIn(any())).thenReturn(items);
+        when(itemRepository.findItemDtosByItemRequestIdIn(any())).thenReturn(List.of(itemDto));
 
         List<OutLongItemRequestDto> actualList = itemRequestService.getRequestorItemRequest(userDto.getId());
         Assertions.assertEquals(actualList.size(), 1);
@@ -197,8 +196,7 @@ public class ItemRequestServiceTest {
         List<ItemRequest> itemRequests = List.of(ItemRequestMapper.toItemRequest(UserMapper.toUser(userDto),
                 itemRequestDto, outRequestDto.getCreated()));
         when(requestRepository.findAllOtherItemRequest(anyLong(), any())).thenReturn(itemRequests);
-        when(itemRepository.findItemsByItemRequestIdIn(any()))
-                .thenReturn(List.of(ItemMapper.toItem(UserMapper.toUser(userDto2), itemDto)));
+        when(itemRepository.findItemDtosByItemRequestIdIn(any())).thenReturn(List.of(itemDto));
 
         List<OutLongItemRequestDto> actualList = itemRequestService.getAllOtherItemRequest(userDto.getId(), 0, 1);
         Assertions.assertEquals(actualList.size(), 1);
@@ -214,8 +212,7 @@ public class ItemRequestServiceTest {
         List<ItemRequest> itemRequests = List.of(ItemRequestMapper.toItemRequest(UserMapper.toUser(userDto),
                 itemRequestDto, outRequestDto.getCreated()));
         when(requestRepository.findAllOtherItemRequest(anyLong())).thenReturn(itemRequests);
-        List<Item> items = List.of(ItemMapper.toItem(UserMapper.toUser(userDto2), itemDto));
-        when(itemRepository.findItemsByItemRequestIdIn(any())).thenReturn(items);
+        when(itemRepository.findItemDtosByItemRequestIdIn(any())).thenReturn(List.of(itemDto));
 
         List<OutLongItemRequestDto> actualList = itemRequestService.getAllOtherItemRequest(userDto.getId(), null, null);
         Assertions.assertEquals(actualList.size(), 1);
@@ -224,4 +221,41 @@ public class ItemRequestServiceTest {
         Assertions.assertEquals(actualList.get(0).getItems().get(0).getId(), longItemRequestDto.getItems().get(0).getId());
         Assertions.assertEquals(actualList.get(0).getCreated(), longItemRequestDto.getCreated());
     }
+
+    @Test
+    void getAllOtherItemRequestGroupsItemsByRequest() {
+        when(userRepository.findById(anyLong())).thenReturn(UserMapper.toUser(userDto));
+        ItemRequest firstRequest = ItemRequestMapper.toItemRequest(UserMapper.toUser(userDto2),
+                itemRequestDto, outRequestDto.getCreated());
+        ItemRequest secondRequest = ItemRequestMapper.toItemRequest(UserMapper.toUser(userDto2),
+                IncomingItemRequestDto.builder().id(2L).description("Second").build(), outRequestDto.getCreated());
+        ItemRequest emptyRequest = ItemRequestMapper.toItemRequest(UserMapper.toUser(userDto2),
+                IncomingItemRequestDto.builder().id(3L).description("Empty").build(), outRequestDto.getCreated());
+        ItemDto secondItem = ItemDto.builder()
+                .id(2L)
+                .name("Second item")
+                .description("Description")
+                .available(true)
+                .requestId(2L)
+                .build();
+        ItemDto thirdItem = ItemDto.builder()
+                .id(3L)
+                .name("Third item")
+                .description("Description")
+                .available(true)
+                .requestId(2L)
+                .build();
+        when(requestRepository.findAllOtherItemRequest(anyLong()))
+                .thenReturn(List.of(firstRequest, secondRequest, emptyRequest));
+        when(itemRepository.findItemDtosByItemRequestIdIn(any())).thenReturn(List.of(itemDto, secondItem, thirdItem));
+
+        List<OutLongItemRequestDto> actualList = itemRequestService.getAllOtherItemRequest(userDto.getId(), null, null);
+        Assertions.assertEquals(3, actualList.size());
+        Assertions.assertEquals(1, actualList.get(0).getItems().size());
+        Assertions.assertEquals(itemDto.getId(), actualList.get(0).getItems().get(0).getId());
+        Assertions.assertEquals(2, actualList.get(1).getItems().size());
+        Assertions.assertEquals(secondItem.getId(), actualList.get(1).getItems().get(0).getId());
+        Assertions.assertEquals(thirdItem.getId(), actualList.get(1).getItems().get(1).getId());
+        Assertions.assertTrue(actualList.get(2).getItems().isEmpty());
+    }
 }
@@ -0,0 +1,75 @@
+package ru.practicum.shareit.search;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.search.SearchDocumentType;
+import ru.practicum.shareit.request.dto.OutItemRequestDto;
+import ru.practicum.shareit.search.dto.SearchResultDto;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+public class SearchControllerTest {
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @MockBean
+    SearchService searchService;
+
+    @Test
+    void searchTest() throws Exception {
+        SearchResultDto item = SearchResultDto.builder()
+                .type(SearchDocumentType.ITEM)
+                .item(ItemDto.builder().id(1L).name("Item").description("Description").available(true).build())
+                .build();
+        SearchResultDto request = SearchResultDto.builder()
+                .type(SearchDocumentType.REQUEST)
+                .request(OutItemRequestDto.builder()
+                        .id(2L)
+                        .description("Description")
+                        .created(LocalDateTime.of(2023, 10, 10, 12, 10, 15))
+                        .build())
+                .build();
+        when(searchService.search(anyLong(), anyString(), any(), any())).thenReturn(List.of(item, request));
+
+        mockMvc.perform(get("/search?text=description&from=0&size=10")
+                        .header("X-Sharer-User-Id", 1L)
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.[0].type").value("ITEM"))
+                .andExpect(jsonPath("$.[0].item.id").value(1L))
+                .andExpect(jsonPath("$.[1].type").value("REQUEST"))
+                .andExpect(jsonPath("$.[1].request.id").value(2L));
+    }
+
+    @Test
+    void searchWithBlankTextTest() throws Exception {
+        mockMvc.perform(get("/search?text= ")
+                        .header("X-Sharer-User-Id", 1L)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$").isEmpty());
+        verify(searchService, never()).search(anyLong(), anyString(), any(), any());
+    }
+}
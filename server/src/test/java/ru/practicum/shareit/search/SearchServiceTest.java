@@ -0,0 +1,106 @@
+package ru.practicum.shareit.search;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.practicum.shareit.exceptions.NotFoundException;
+import ru.practicum.shareit.exceptions.ValidationException;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.search.SearchDocumentType;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.request.dto.IncomingItemRequestDto;
+import ru.practicum.shareit.request.dto.OutItemRequestDto;
+import ru.practicum.shareit.request.service.ItemRequestService;
+import ru.practicum.shareit.search.dto.SearchResultDto;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.user.service.UserService;
+
+import java.util.List;
+
+/*Без общей транзакции: предметы и запросы попадают в индекс поиска только после коммита*/
+@SpringBootTest
+public class SearchServiceTest {
+
+    @Autowired
+    SearchService searchService;
+
+    @Autowired
+    ItemService itemService;
+
+    @Autowired
+    ItemRequestService itemRequestService;
+
+    @Autowired
+    UserRepository userRepository;
+
+    @Autowired
+    UserService userService;
+
+    User lender;
+
+    User requestor;
+
+    ItemDto tent;
+
+    OutItemRequestDto tentRequest;
+
+    @BeforeEach
+    void setUp() {
+        lender = userRepository.save(User.builder().name("Lender").email("search-lender@ya.ru").build());
+        requestor = userRepository.save(User.builder().name("Requestor").email("search-requestor@ya.ru").build());
+        tent = itemService.addItem(lender.getId(), ItemDto.builder()
+                .name("Палатка")
+                .description("Трехместная палатка")
+                .available(true)
+                .build());
+        tentRequest = itemRequestService.addItemRequest(IncomingItemRequestDto.builder()
+                .description("Ищу палатку на двоих")
+                .build(), requestor.getId());
+    }
+
+    @AfterEach
+    void tearDown() {
+        userService.removeUser(lender.getId());
+        userService.removeUser(requestor.getId());
+    }
+
+    @Test
+    void searchReturnsItemsAndOtherUsersRequests() {
+        List<SearchResultDto> result = searchService.search(lender.getId(), "палат", null, null);
+
+        Assertions.assertEquals(2, result.size());
+        Assertions.assertEquals(SearchDocumentType.ITEM, result.get(0).getType());
+        Assertions.assertEquals(tent.getId(), result.get(0).getItem().getId());
+        Assertions.assertNull(result.get(0).getRequest());
+        Assertions.assertEquals(SearchDocumentType.REQUEST, result.get(1).getType());
+        Assertions.assertEquals(tentRequest.getId(), result.get(1).getRequest().getId());
+        Assertions.assertEquals("Ищу палатку на двоих", result.get(1).getRequest().getDescription());
+    }
+
+    @Test
+    void searchSkipsOwnRequests() {
+        List<SearchResultDto> result = searchService.search(requestor.getId(), "палатку двоих", null, null);
+
+        Assertions.assertTrue(result.isEmpty());
+    }
+
+    @Test
+    void searchWithPagination() {
+        List<SearchResultDto> result = searchService.search(lender.getId(), "палат", 1, 1);
+
+        Assertions.assertEquals(1, result.size());
+        Assertions.assertEquals(SearchDocumentType.REQUEST, result.get(0).getType());
+        Assertions.assertThrows(ValidationException.class,
+                () -> searchService.search(lender.getId(), "палат", -1, 1));
+    }
+
+    @Test
+    void searchWithUnknownUser() {
+        Assertions.assertThrows(NotFoundException.class,
+                () -> searchService.search(Long.MAX_VALUE, "палат", null, null));
+    }
+}
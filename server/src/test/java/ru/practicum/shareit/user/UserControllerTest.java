@@ -7,9 +7,11 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import ru.practicum.shareit.exceptions.NotFoundException;
+import ru.practicum.shareit.user.dto.EtaggedUserDto;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.service.UserService;
 
@@ -19,9 +21,11 @@ import java.util.List;
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -101,7 +105,7 @@ public class UserControllerTest {
 
     @Test
     void getUserByIdTest() throws Exception {
-        when(userService.getUserById(anyLong())).thenReturn(userDto);
+        when(userService.getUserWithEtag(anyLong())).thenReturn(new EtaggedUserDto(userDto, "3"));
 
         mockMvc.perform(get("/users/1")
                         .content(mapper.writeValueAsString(userDto))
@@ -111,13 +115,15 @@ public class UserControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.id", is(userDto.getId()), Long.class))
                 .andExpect(jsonPath("$.name", is(userDto.getName())))
-                .andExpect(jsonPath("$.email", is(userDto.getEmail())));
+                .andExpect(jsonPath("$.email", is(userDto.getEmail())))
+                .andExpect(header().string(HttpHeaders.ETAG, "\"3\""));
+        verify(userService, never()).getUserEtag(anyLong());
     }
 
     @Test
     void getUserByIdWhenUserNotFound() throws Exception {
         long userId = 10;
-        when(userService.getUserById(userId)).thenThrow(new NotFoundException("Пользователь не найден"));
+        when(userService.getUserWithEtag(userId)).thenThrow(new NotFoundException("Пользователь не найден"));
 
         mockMvc.perform(get("/users/10")
                         .content(mapper.writeValueAsString(userDto))
@@ -154,4 +160,24 @@ public class UserControllerTest {
                 .andExpect(jsonPath("$[0].name", is(userDto.getName())))
                 .andExpect(jsonPath("$[0].email", is(userDto.getEmail())));
     }
+
+    @Test
+    void addUsersTest() throws Exception {
+        UserDto secondUserDto = UserDto.builder()
+                .id(2L)
+                .name("Second")
+                .email("second@ya.ru")
+                .build();
+        when(userService.addUsers(anyList())).thenReturn(List.of(userDto, secondUserDto));
+
+        mockMvc.perform(post("/users/batch")
+                        .content(mapper.writeValueAsString(List.of(userDto, secondUserDto)))
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].id", is(userDto.getId()), Long.class))
+                .andExpect(jsonPath("$[1].email", is(secondUserDto.getEmail())));
+    }
 }
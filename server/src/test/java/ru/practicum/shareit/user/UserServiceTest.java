@@ -5,6 +5,7 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import ru.practicum.shareit.exceptions.IsExistException;
 import ru.practicum.shareit.exceptions.NotFoundException;
 import ru.practicum.shareit.exceptions.ValidationException;
 import ru.practicum.shareit.user.dto.UserDto;
@@ -15,6 +16,8 @@ import ru.practicum.shareit.user.service.UserService;
 import java.util.List;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.*;
 
@@ -91,7 +94,7 @@ public class UserServiceTest {
                 .name("UserUp")
                 .email("UserUp@ya.ru")
                 .build();
-        when(userRepository.save(any(User.class))).thenReturn(user);
+        when(userRepository.save(any(User.class))).thenAnswer(invocation -> invocation.getArgument(0));
         when(userRepository.findById(userId)).thenReturn(user);
 
         UserDto updateActualUser = userService.updateUser(userDto, userId);
@@ -117,7 +120,7 @@ public class UserServiceTest {
                 .name("UserUp")
                 .email("User@ya.ru")
                 .build();
-        when(userRepository.save(any(User.class))).thenReturn(user);
+        when(userRepository.save(any(User.class))).thenAnswer(invocation -> invocation.getArgument(0));
         when(userRepository.findById(anyLong())).thenReturn(user);
 
         UserDto updateActualUser = userService.updateUser(userDto, userId);
@@ -143,7 +146,7 @@ public class UserServiceTest {
                 .name("User")
                 .email("UserUp@ya.ru")
                 .build();
-        when(userRepository.save(any(User.class))).thenReturn(user);
+        when(userRepository.save(any(User.class))).thenAnswer(invocation -> invocation.getArgument(0));
         when(userRepository.findById(anyLong())).thenReturn(user);
 
         UserDto updateActualUser = userService.updateUser(userDto, userId);
@@ -227,4 +230,44 @@ public class UserServiceTest {
         Assertions.assertEquals(usersStorage.get(1).getName(), actualUsersDto.get(1).getName());
         Assertions.assertEquals(usersStorage.get(1).getEmail(), actualUsersDto.get(1).getEmail());
     }
+
+    @Test
+    void addUsersTest() {
+        List<UserDto> userDtos = List.of(
+                UserDto.builder().id(7L).name("User1").email("user1@ya.ru").build(),
+                UserDto.builder().name("User2").email("user2@ya.ru").build());
+        when(userRepository.findAllByEmailIn(anyCollection())).thenReturn(List.of());
+        when(userRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<User> users = invocation.getArgument(0);
+            Assertions.assertEquals(0, users.get(0).getId());
+            users.get(0).setId(1L);
+            users.get(1).setId(2L);
+            return users;
+        });
+
+        List<UserDto> actualUsers = userService.addUsers(userDtos);
+
+        Assertions.assertEquals(List.of(1L, 2L), List.of(actualUsers.get(0).getId(), actualUsers.get(1).getId()));
+        Assertions.assertEquals("user2@ya.ru", actualUsers.get(1).getEmail());
+    }
+
+    @Test
+    void addUsersWithDuplicateEmailTest() {
+        List<UserDto> userDtos = List.of(
+                UserDto.builder().name("User1").email("user@ya.ru").build(),
+                UserDto.builder().name("User2").email("user@ya.ru").build());
+
+        Assertions.assertThrows(IsExistException.class, () -> userService.addUsers(userDtos));
+        verify(userRepository, never()).saveAll(anyList());
+    }
+
+    @Test
+    void addUsersWithExistingEmailTest() {
+        List<UserDto> userDtos = List.of(UserDto.builder().name("User").email("user@ya.ru").build());
+        when(userRepository.findAllByEmailIn(anyCollection()))
+                .thenReturn(List.of(User.builder().id(1L).name("Old").email("user@ya.ru").build()));
+
+        Assertions.assertThrows(IsExistException.class, () -> userService.addUsers(userDtos));
+        verify(userRepository, never()).saveAll(anyList());
+    }
 }